@@ -0,0 +1,80 @@
+package kz.cinego.app.bench;
+
+import kz.cinego.app.entity.Booking;
+import kz.cinego.app.service.BookingService;
+import kz.cinego.app.service.PaymentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded create/pay/cancel. Each create books two adjacent free
+ * seats; pay and cancel get a fresh CREATED booking per invocation.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingBenchmark {
+
+    @State(Scope.Thread)
+    public static class CreatedBooking {
+        final Random random = new Random();
+        long bookingId;
+
+        @Setup(Level.Invocation)
+        public void create(MultiplexState db) {
+            MultiplexState.SeatPair pair = db.nextSharedPair();
+            bookingId = db.bookingService
+                    .createBooking(db.randomUserId(random), pair.screeningId(), pair.coords(), 0)
+                    .bookingId();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadRandom {
+        final Random random = new Random();
+    }
+
+    @Benchmark
+    public BookingService.CreateBookingResult createBooking(MultiplexState db, ThreadRandom r) {
+        MultiplexState.SeatPair pair = db.nextSharedPair();
+        return db.bookingService.createBooking(db.randomUserId(r.random), pair.screeningId(), pair.coords(), 0);
+    }
+
+    @Benchmark
+    public BookingService.CreateBookingResult createBookingWithPoints(MultiplexState db, ThreadRandom r) {
+        MultiplexState.SeatPair pair = db.nextSharedPair();
+        return db.bookingService.createBooking(db.randomUserId(r.random), pair.screeningId(), pair.coords(), 500);
+    }
+
+    @Benchmark
+    public Booking pay(MultiplexState db, CreatedBooking booking) {
+        return db.bookingService.pay(booking.bookingId);
+    }
+
+    // Webhook path: callbacks from many threads share write transactions.
+    @Benchmark
+    @Threads(8)
+    public PaymentService.PaymentResult confirmPaymentBatched(MultiplexState db, CreatedBooking booking) {
+        return db.paymentService.confirm("bench-" + booking.bookingId, booking.bookingId, null);
+    }
+
+    @Benchmark
+    public Booking cancel(MultiplexState db, CreatedBooking booking) {
+        return db.bookingService.cancel(booking.bookingId);
+    }
+}
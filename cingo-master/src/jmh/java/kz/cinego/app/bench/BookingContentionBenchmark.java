@@ -0,0 +1,93 @@
+package kz.cinego.app.bench;
+
+import kz.cinego.app.entity.Screening;
+import kz.cinego.app.service.BookingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multi-threaded booking scenarios: every thread on one hot screening,
+ * threads spread over their own screenings, and catalogue readers running
+ * next to writers to see what commits cost browsing.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingContentionBenchmark {
+
+    @State(Scope.Thread)
+    public static class OwnScreening {
+        final Random random = new Random();
+        long screeningId;
+        int seat;
+
+        @Setup(Level.Iteration)
+        public void reset(MultiplexState db) {
+            screeningId = db.claimScreening();
+            seat = 0;
+        }
+
+        List<int[]> nextPair(MultiplexState db) {
+            if (seat >= MultiplexSeeder.SEATS_PER_HALL) {
+                screeningId = db.claimScreening();
+                seat = 0;
+            }
+            int row = seat / MultiplexSeeder.COLS + 1;
+            int col = seat % MultiplexSeeder.COLS + 1;
+            seat += 2;
+            return List.of(new int[]{row, col}, new int[]{row, col + 1});
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadRandom {
+        final Random random = new Random();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public BookingService.CreateBookingResult createBookingHotScreening(MultiplexState db, ThreadRandom r) {
+        MultiplexState.SeatPair pair = db.nextSharedPair();
+        return db.bookingService.createBooking(db.randomUserId(r.random), pair.screeningId(), pair.coords(), 0);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public BookingService.CreateBookingResult createBookingSpread(MultiplexState db, OwnScreening own) {
+        List<int[]> coords = own.nextPair(db);
+        return db.bookingService.createBooking(db.randomUserId(own.random), own.screeningId, coords, 0);
+    }
+
+    @Benchmark
+    @Group("browseWhileBooking")
+    @GroupThreads(6)
+    public List<Screening> browse(MultiplexState db, ThreadRandom r) {
+        return db.screeningRepo.findByMovie(db.randomMovieId(r.random));
+    }
+
+    @Benchmark
+    @Group("browseWhileBooking")
+    @GroupThreads(2)
+    public BookingService.CreateBookingResult book(MultiplexState db, ThreadRandom r) {
+        MultiplexState.SeatPair pair = db.nextSharedPair();
+        return db.bookingService.createBooking(db.randomUserId(r.random), pair.screeningId(), pair.coords(), 0);
+    }
+}
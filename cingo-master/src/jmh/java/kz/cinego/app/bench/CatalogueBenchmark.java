@@ -0,0 +1,55 @@
+package kz.cinego.app.bench;
+
+import kz.cinego.app.entity.Movie;
+import kz.cinego.app.entity.Screening;
+import kz.cinego.app.service.BookingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogueBenchmark {
+
+    @State(Scope.Thread)
+    public static class ThreadRandom {
+        final Random random = new Random();
+    }
+
+    @Benchmark
+    public List<Movie> findAllMovies(MultiplexState db) {
+        return db.movieRepo.findAll();
+    }
+
+    @Benchmark
+    public List<Screening> findScreeningsByMovie(MultiplexState db, ThreadRandom r) {
+        return db.screeningRepo.findByMovie(db.randomMovieId(r.random));
+    }
+
+    // The front end's seat-map screen: types, states and prices of a whole hall.
+    @Benchmark
+    public BookingService.PricedSeatMap pricedSeatMap(MultiplexState db, ThreadRandom r) {
+        List<Screening> screenings = db.screeningRepo.findByMovie(db.randomMovieId(r.random));
+        return db.bookingService.getPricedSeatMap(screenings.get(r.random.nextInt(screenings.size())).id());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public List<Screening> findScreeningsByMovieContended(MultiplexState db, ThreadRandom r) {
+        return db.screeningRepo.findByMovie(db.randomMovieId(r.random));
+    }
+}
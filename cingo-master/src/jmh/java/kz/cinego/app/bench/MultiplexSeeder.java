@@ -0,0 +1,254 @@
+package kz.cinego.app.bench;
+
+import kz.cinego.app.entity.Money;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Random;
+
+/**
+ * Seeds a realistic multiplex on top of the DbInit schema: dozens of halls,
+ * thousands of screenings and up to millions of bookings with their items
+ * and seat claims. Deterministic for a given parameter set.
+ */
+final class MultiplexSeeder {
+
+    static final int ROWS = 10;
+    static final int COLS = 20;
+    static final int SEATS_PER_HALL = ROWS * COLS;
+    static final int[] SHOW_HOURS = {10, 13, 16, 19, 22};
+
+    private static final int MOVIES = 40;
+    private static final int USERS = 10_000;
+    private static final int COMMIT_EVERY = 50_000;
+
+    private final int halls;
+    private final int days;
+    private final int bookings;
+    private final int benchScreenings;
+    private final Random random = new Random(42);
+
+    MultiplexSeeder(int halls, int days, int bookings, int benchScreenings) {
+        this.halls = halls;
+        this.days = days;
+        this.bookings = bookings;
+        this.benchScreenings = benchScreenings;
+    }
+
+    void seed(Connection conn) throws SQLException {
+        conn.setAutoCommit(false);
+
+        long firstMovie = insertMovies(conn);
+        long firstHall = insertHalls(conn);
+        long firstSeat = insertSeats(conn, firstHall);
+        long firstUser = insertUsers(conn);
+
+        LocalDate historyStart = LocalDate.now().minusDays(days / 2);
+        long firstScreening = insertScreenings(conn, firstMovie, firstHall, historyStart, days);
+        int historyScreenings = halls * days * SHOW_HOURS.length;
+
+        // Booking benchmarks draw seats from a block of empty screenings a year out.
+        insertScreenings(conn, firstMovie, firstHall, LocalDate.now().plusYears(1),
+                (benchScreenings + halls * SHOW_HOURS.length - 1) / (halls * SHOW_HOURS.length));
+
+        insertBookings(conn, firstScreening, historyScreenings, firstHall, firstSeat, firstUser);
+        conn.commit();
+        conn.setAutoCommit(true);
+
+        try (Statement st = conn.createStatement()) {
+            st.execute("ANALYZE;");
+        }
+    }
+
+    private long insertMovies(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO movies(title, genre, duration_min, age_rating) VALUES(?,?,?,?)")) {
+            String[] genres = {"Sci-Fi", "Drama", "Comedy", "Animation", "Thriller"};
+            for (int i = 0; i < MOVIES; i++) {
+                ps.setString(1, "Bench Movie " + i);
+                ps.setString(2, genres[i % genres.length]);
+                ps.setInt(3, 90 + random.nextInt(90));
+                ps.setString(4, i % 3 == 0 ? "PG" : "PG-13");
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        return maxId(conn, "movies") - MOVIES + 1;
+    }
+
+    private long insertHalls(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO halls(name, rows_count, cols_count) VALUES(?,?,?)")) {
+            for (int i = 0; i < halls; i++) {
+                ps.setString(1, "Bench Hall " + i);
+                ps.setInt(2, ROWS);
+                ps.setInt(3, COLS);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        return maxId(conn, "halls") - halls + 1;
+    }
+
+    private long insertSeats(Connection conn, long firstHall) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO seats(hall_id, row_num, col_num, seat_type) VALUES(?,?,?,?)")) {
+            for (int h = 0; h < halls; h++) {
+                for (int r = 1; r <= ROWS; r++) {
+                    for (int c = 1; c <= COLS; c++) {
+                        ps.setLong(1, firstHall + h);
+                        ps.setInt(2, r);
+                        ps.setInt(3, c);
+                        ps.setString(4, (r >= ROWS - 1) ? "VIP" : "STANDARD");
+                        ps.addBatch();
+                    }
+                }
+            }
+            ps.executeBatch();
+        }
+        return maxId(conn, "seats") - (long) halls * SEATS_PER_HALL + 1;
+    }
+
+    private long insertUsers(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO users(full_name, phone, role, loyalty_points) VALUES(?,?,?,?)")) {
+            for (int i = 0; i < USERS; i++) {
+                ps.setString(1, "Bench User " + i);
+                ps.setString(2, "+7 700 " + (1_000_000 + i));
+                ps.setString(3, "CUSTOMER");
+                ps.setInt(4, random.nextInt(2_000));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        return maxId(conn, "users") - USERS + 1;
+    }
+
+    private long insertScreenings(Connection conn, long firstMovie, long firstHall, LocalDate start, int dayCount)
+            throws SQLException {
+        int count = 0;
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO screenings(movie_id, hall_id, start_time, base_price_minor, base_price) VALUES(?,?,?,?,? / 100.0)")) {
+            for (int d = 0; d < dayCount; d++) {
+                for (int h = 0; h < halls; h++) {
+                    for (int hour : SHOW_HOURS) {
+                        ps.setLong(1, firstMovie + random.nextInt(MOVIES));
+                        ps.setLong(2, firstHall + h);
+                        ps.setString(3, LocalDateTime.of(start.plusDays(d), LocalTime.of(hour, 0)).toString());
+                        long basePrice = hour >= 18 ? 180_000 : 140_000;
+                        ps.setLong(4, basePrice);
+                        ps.setLong(5, basePrice);
+                        ps.addBatch();
+                        count++;
+                    }
+                }
+            }
+            ps.executeBatch();
+        }
+        return maxId(conn, "screenings") - count + 1;
+    }
+
+    // Screenings are laid out day-major, then hall, then show; the hall index follows from that.
+    private void insertBookings(
+            Connection conn,
+            long firstScreening,
+            int screeningCount,
+            long firstHall,
+            long firstSeat,
+            long firstUser
+    ) throws SQLException {
+        long capacity = (long) screeningCount * SEATS_PER_HALL;
+        if ((long) bookings * 3 > capacity) {
+            throw new IllegalArgumentException(
+                    "Not enough seats for " + bookings + " bookings; raise halls or days");
+        }
+
+        long bookingId = maxId(conn, "bookings");
+        int screeningIdx = 0;
+        int seatCursor = 0;
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(days);
+
+        try (PreparedStatement booking = conn.prepareStatement("""
+                INSERT INTO bookings(id, user_id, screening_id, status, total_minor, total_price,
+                                     created_at, paid_at, cancelled_at, refund_minor, refund_amount)
+                VALUES(?,?,?,?,?,? / 100.0,?,?,?,?,? / 100.0)
+             """);
+             PreparedStatement item = conn.prepareStatement(
+                     "INSERT INTO booking_items(booking_id, seat_id, price_minor, price) VALUES(?,?,?,? / 100.0)");
+             PreparedStatement claim = conn.prepareStatement(
+                     "INSERT INTO seat_claims(screening_id, seat_id, booking_id) VALUES(?,?,?)")) {
+
+            for (int i = 0; i < bookings; i++) {
+                int seats = 1 + random.nextInt(3);
+                if (seatCursor + seats > SEATS_PER_HALL) {
+                    screeningIdx++;
+                    seatCursor = 0;
+                }
+                long screeningId = firstScreening + screeningIdx;
+                int hallIdx = (screeningIdx / SHOW_HOURS.length) % halls;
+                long hallFirstSeat = firstSeat + (long) hallIdx * SEATS_PER_HALL;
+
+                int roll = random.nextInt(10);
+                String status = roll < 7 ? "PAID" : roll < 9 ? "CANCELLED" : "CREATED";
+                long price = 150_000;
+                long total = price * seats;
+                long refund = "CANCELLED".equals(status) ? Money.mulDivHalfUp(total, 90, 100) : 0;
+                String created = createdAt.plusSeconds(i).toString();
+
+                bookingId++;
+                booking.setLong(1, bookingId);
+                booking.setLong(2, firstUser + random.nextInt(USERS));
+                booking.setLong(3, screeningId);
+                booking.setString(4, status);
+                booking.setLong(5, total);
+                booking.setLong(6, total);
+                booking.setString(7, created);
+                booking.setString(8, "PAID".equals(status) ? created : null);
+                booking.setString(9, "CANCELLED".equals(status) ? created : null);
+                booking.setLong(10, refund);
+                booking.setLong(11, refund);
+                booking.addBatch();
+
+                for (int s = 0; s < seats; s++) {
+                    long seatId = hallFirstSeat + seatCursor++;
+                    item.setLong(1, bookingId);
+                    item.setLong(2, seatId);
+                    item.setLong(3, price);
+                    item.setLong(4, price);
+                    item.addBatch();
+
+                    if (!"CANCELLED".equals(status)) {
+                        claim.setLong(1, screeningId);
+                        claim.setLong(2, seatId);
+                        claim.setLong(3, bookingId);
+                        claim.addBatch();
+                    }
+                }
+
+                if ((i + 1) % COMMIT_EVERY == 0) {
+                    booking.executeBatch();
+                    item.executeBatch();
+                    claim.executeBatch();
+                    conn.commit();
+                }
+            }
+            booking.executeBatch();
+            item.executeBatch();
+            claim.executeBatch();
+        }
+    }
+
+    private static long maxId(Connection conn, String table) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
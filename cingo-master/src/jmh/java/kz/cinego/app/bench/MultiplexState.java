@@ -0,0 +1,233 @@
+package kz.cinego.app.bench;
+
+import kz.cinego.app.db.Database;
+import kz.cinego.app.db.DbInit;
+import kz.cinego.app.repository.BookingEventRepository;
+import kz.cinego.app.repository.BookingRepository;
+import kz.cinego.app.repository.CachedMovieRepository;
+import kz.cinego.app.repository.CachedScreeningRepository;
+import kz.cinego.app.repository.HallRepository;
+import kz.cinego.app.repository.LoyaltyLedgerRepository;
+import kz.cinego.app.repository.MovieRepository;
+import kz.cinego.app.repository.PaymentRepository;
+import kz.cinego.app.repository.PricingRuleRepository;
+import kz.cinego.app.repository.ScreeningRepository;
+import kz.cinego.app.repository.SeatHoldRepository;
+import kz.cinego.app.repository.SeatRepository;
+import kz.cinego.app.repository.UserRepository;
+import kz.cinego.app.service.BookingJournal;
+import kz.cinego.app.service.BookingService;
+import kz.cinego.app.service.LoyaltyLedger;
+import kz.cinego.app.service.PaymentService;
+import kz.cinego.app.service.PricingEngine;
+import kz.cinego.app.service.PricingService;
+import kz.cinego.app.service.SeatHoldService;
+import kz.cinego.app.service.SeatLayoutCache;
+import kz.cinego.app.service.SeatOccupancyIndex;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A temp-file cinema.db seeded with a multiplex, wired the same way App wires
+ * the real services. The seeded file is cached per parameter set under
+ * java.io.tmpdir so each fork only pays for a file copy.
+ */
+@State(Scope.Benchmark)
+public class MultiplexState {
+
+    @Param({"36"})
+    public int halls;
+
+    @Param({"90"})
+    public int days;
+
+    @Param({"1000000"})
+    public int bookings;
+
+    @Param({"2000"})
+    public int benchScreenings;
+
+    // false measures the repositories straight against SQLite.
+    @Param({"true"})
+    public boolean cachedCatalogue;
+
+    public MovieRepository movieRepo;
+    public ScreeningRepository screeningRepo;
+    public BookingService bookingService;
+    public PricingService pricingService;
+    public PricingEngine pricingEngine;
+    public PaymentService paymentService;
+
+    public long firstMovieId;
+    public int movieCount;
+    public long firstUserId;
+
+    private long firstBenchScreening;
+    private long bookingWatermark;
+    private SeatOccupancyIndex occupancy;
+    private BookingJournal journal;
+    private LoyaltyLedger loyalty;
+    private Path dbFile;
+
+    private final AtomicLong sharedSeatCursor = new AtomicLong();
+    private final AtomicInteger screeningCursor = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        Path template = Path.of(System.getProperty("java.io.tmpdir"),
+                "cinego-bench-" + halls + "-" + days + "-" + bookings + "-" + benchScreenings + ".db");
+        dbFile = Files.createTempFile("cinego-bench-", ".db");
+        Files.deleteIfExists(dbFile);
+
+        boolean seeded = Files.exists(template);
+        if (seeded) Files.copy(template, dbFile, StandardCopyOption.REPLACE_EXISTING);
+
+        // DbConfig reads its settings once, when Database first touches it.
+        System.setProperty("cinego.db.url", "jdbc:sqlite:" + dbFile);
+        Database.init();
+        DbInit.init();
+
+        if (!seeded) {
+            try (Connection conn = Database.getWriteConnection()) {
+                new MultiplexSeeder(halls, days, bookings, benchScreenings).seed(conn);
+            }
+            Database.checkpoint();
+            Files.copy(dbFile, template, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        try (Connection conn = Database.getConnection()) {
+            firstMovieId = scalar(conn, "SELECT MIN(id) FROM movies WHERE title LIKE 'Bench Movie %'");
+            movieCount = (int) scalar(conn, "SELECT COUNT(*) FROM movies WHERE title LIKE 'Bench Movie %'");
+            firstUserId = scalar(conn, "SELECT MIN(id) FROM users WHERE full_name LIKE 'Bench User %'");
+            firstBenchScreening = scalar(conn, "SELECT MAX(id) FROM screenings")
+                    - benchScreeningCount() + 1;
+            bookingWatermark = scalar(conn, "SELECT COALESCE(MAX(id), 0) FROM bookings");
+        }
+
+        movieRepo = cachedCatalogue ? new CachedMovieRepository() : new MovieRepository();
+        screeningRepo = cachedCatalogue ? new CachedScreeningRepository() : new ScreeningRepository();
+        SeatRepository seatRepo = new SeatRepository();
+        HallRepository hallRepo = new HallRepository();
+
+        pricingService = new PricingService();
+        occupancy = new SeatOccupancyIndex(hallRepo, seatRepo);
+        SeatLayoutCache layouts = new SeatLayoutCache(hallRepo, seatRepo);
+        pricingEngine = new PricingEngine(layouts, new PricingRuleRepository());
+        pricingEngine.load();
+        SeatHoldService holds = new SeatHoldService(screeningRepo, layouts, occupancy, new SeatHoldRepository());
+        journal = new BookingJournal(new BookingEventRepository());
+        journal.replay();
+        loyalty = new LoyaltyLedger(new LoyaltyLedgerRepository());
+        loyalty.start();
+        bookingService = new BookingService(
+                screeningRepo, seatRepo, new BookingRepository(), new UserRepository(), pricingService, pricingEngine,
+                occupancy, holds, journal, loyalty
+        );
+        paymentService = new PaymentService(bookingService, new BookingRepository(), new PaymentRepository());
+        paymentService.start();
+    }
+
+    // Frees every seat the benchmarks booked so the next iteration starts from empty screenings.
+    @TearDown(Level.Iteration)
+    public void resetBenchBookings() throws SQLException {
+        try (Connection conn = Database.getWriteConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement events = conn.prepareStatement("DELETE FROM booking_events WHERE booking_id > ?");
+                 PreparedStatement ledger = conn.prepareStatement("DELETE FROM loyalty_ledger WHERE booking_id > ?");
+                 PreparedStatement payments = conn.prepareStatement("DELETE FROM payments WHERE booking_id > ?");
+                 PreparedStatement claims = conn.prepareStatement("DELETE FROM seat_claims WHERE booking_id > ?");
+                 PreparedStatement items = conn.prepareStatement("DELETE FROM booking_items WHERE booking_id > ?");
+                 PreparedStatement rows = conn.prepareStatement("DELETE FROM bookings WHERE id > ?")) {
+                for (PreparedStatement ps : List.of(events, ledger, payments, claims, items, rows)) {
+                    ps.setLong(1, bookingWatermark);
+                    ps.executeUpdate();
+                }
+            }
+            conn.commit();
+        }
+        occupancy.clear();
+        sharedSeatCursor.set(0);
+        screeningCursor.set(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        paymentService.close();
+        loyalty.close();
+        journal.close();
+        Database.shutdown();
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + "-wal"));
+        Files.deleteIfExists(Path.of(dbFile + "-shm"));
+    }
+
+    public long randomMovieId(Random random) {
+        return firstMovieId + random.nextInt(movieCount);
+    }
+
+    public long randomUserId(Random random) {
+        return firstUserId + random.nextInt(10_000);
+    }
+
+    /** Next free seat pair from the front half of the block; all threads fill the same screening. */
+    public SeatPair nextSharedPair() {
+        return pairAt(sharedSeatCursor.getAndAdd(2));
+    }
+
+    /** Hands a whole empty screening from the back half of the block to one thread. */
+    public long claimScreening() {
+        int idx = screeningCursor.getAndIncrement();
+        if (idx >= benchScreeningCount() / 2) throw exhausted();
+        return firstBenchScreening + benchScreeningCount() - 1 - idx;
+    }
+
+    SeatPair pairAt(long seatIndex) {
+        long screeningIdx = seatIndex / MultiplexSeeder.SEATS_PER_HALL;
+        if (screeningIdx >= benchScreeningCount() / 2) throw exhausted();
+        int inHall = (int) (seatIndex % MultiplexSeeder.SEATS_PER_HALL);
+        int row = inHall / MultiplexSeeder.COLS + 1;
+        int col = inHall % MultiplexSeeder.COLS + 1;
+        return new SeatPair(firstBenchScreening + screeningIdx, row, col);
+    }
+
+    private static IllegalStateException exhausted() {
+        return new IllegalStateException("Bench screenings exhausted within one iteration; raise benchScreenings");
+    }
+
+    private int benchScreeningCount() {
+        int perDay = halls * MultiplexSeeder.SHOW_HOURS.length;
+        return (benchScreenings + perDay - 1) / perDay * perDay;
+    }
+
+    private static long scalar(Connection conn, String sql) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    public record SeatPair(long screeningId, int row, int col) {
+        public List<int[]> coords() {
+            return List.of(new int[]{row, col}, new int[]{row, col + 1});
+        }
+    }
+}
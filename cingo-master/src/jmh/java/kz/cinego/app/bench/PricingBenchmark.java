@@ -0,0 +1,84 @@
+package kz.cinego.app.bench;
+
+import kz.cinego.app.db.Database;
+import kz.cinego.app.entity.Screening;
+import kz.cinego.app.service.PricingEngine;
+import kz.cinego.app.service.PricingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    @State(Scope.Thread)
+    public static class Tables {
+        final PricingService pricing = new PricingService();
+        final LocalDateTime now = LocalDateTime.now();
+        PricingEngine engine;
+        Screening screening;
+        PricingEngine.PriceTable table;
+
+        @Setup
+        public void setUp(MultiplexState db) throws SQLException {
+            engine = db.pricingEngine;
+            screening = db.screeningRepo.findByMovie(db.firstMovieId).get(0);
+            try (Connection conn = Database.getConnection()) {
+                table = engine.table(conn, screening);
+            }
+        }
+    }
+
+    @Benchmark
+    public long seatPrice(Tables t) {
+        return t.table.price(3, 7, t.now, 0);
+    }
+
+    // A whole hall priced the way BookingService.calculateTotal reads it.
+    @Benchmark
+    public long priceFullHall(Tables t) {
+        long[] prices = t.table.prices(t.now, 0);
+        long total = 0;
+        for (long price : prices) {
+            if (price != PricingEngine.NO_SEAT) total += price;
+        }
+        return total;
+    }
+
+    // Cost of the lazy rebuild a rule change triggers for one screening.
+    @Benchmark
+    public PricingEngine.PriceTable rebuildTable(Tables t) throws SQLException {
+        t.engine.invalidate(t.screening.id());
+        try (Connection conn = Database.getConnection()) {
+            return t.engine.table(conn, t.screening);
+        }
+    }
+
+    @Benchmark
+    public long applyPointsDiscount(Tables t) {
+        return t.pricing.applyPointsDiscount(842_400, 1_200, 2_000);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long seatPriceContended(Tables t) {
+        return t.table.price(3, 7, t.now, 0);
+    }
+}
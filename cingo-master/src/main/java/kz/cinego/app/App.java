@@ -1,33 +1,164 @@
 package kz.cinego.app;
 
+import kz.cinego.app.config.DbConfig;
+import kz.cinego.app.config.HttpConfig;
+import kz.cinego.app.config.MetricsConfig;
+import kz.cinego.app.controller.AnalyticsController;
 import kz.cinego.app.controller.BookingController;
 import kz.cinego.app.controller.MovieController;
+import kz.cinego.app.controller.PaymentController;
+import kz.cinego.app.controller.PricingController;
 import kz.cinego.app.controller.ScreeningController;
+import kz.cinego.app.db.Database;
 import kz.cinego.app.db.DbInit;
+import kz.cinego.app.db.migration.Migration;
+import kz.cinego.app.http.HttpApi;
+import kz.cinego.app.metrics.MetricsDumper;
 import kz.cinego.app.repository.*;
+import kz.cinego.app.schedule.ScheduleImporter;
+import kz.cinego.app.schedule.ScheduleReader;
+import kz.cinego.app.schedule.TemplateScheduleReader;
+import kz.cinego.app.service.BookingExpiryService;
+import kz.cinego.app.service.BookingJournal;
 import kz.cinego.app.service.BookingService;
+import kz.cinego.app.service.LocalPaymentProvider;
+import kz.cinego.app.service.LoyaltyLedger;
+import kz.cinego.app.service.PaymentService;
+import kz.cinego.app.service.PricingEngine;
 import kz.cinego.app.service.PricingService;
+import kz.cinego.app.service.SalesAnalytics;
+import kz.cinego.app.service.SeatHoldService;
+import kz.cinego.app.service.SeatLayoutCache;
+import kz.cinego.app.service.SeatOccupancyIndex;
 import kz.cinego.app.ui.ConsoleUI;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+
 public class App {
-    public static void main(String[] args) {
-        DbInit.init(); // create tables + seed data
+    public static void main(String[] args) throws IOException {
+        Database.init(); // pre-warm connection pool
+        // create tables + seed data
+        for (Migration m : DbInit.init()) {
+            System.out.println("Applied migration V" + m.version() + " (" + m.description() + ")");
+        }
+        if (DbConfig.VERIFY_QUERY_PLANS) verifyQueryPlans();
 
-        MovieRepository movieRepo = new MovieRepository();
-        ScreeningRepository screeningRepo = new ScreeningRepository();
+        CachedMovieRepository movieRepo = new CachedMovieRepository();
+        CachedScreeningRepository screeningRepo = new CachedScreeningRepository();
         SeatRepository seatRepo = new SeatRepository();
         BookingRepository bookingRepo = new BookingRepository();
         UserRepository userRepo = new UserRepository();
+        HallRepository hallRepo = new HallRepository();
+        SeatHoldRepository holdRepo = new SeatHoldRepository();
+        PricingRuleRepository pricingRuleRepo = new PricingRuleRepository();
+
+        int importArg = Math.max(
+                Arrays.asList(args).indexOf("--import-schedule"),
+                Arrays.asList(args).indexOf("--generate-schedule")
+        );
+        // Runs as its own process: a server already running keeps its cached screening
+        // lists until cinego.cache.ttlSeconds expires them.
+        if (importArg >= 0 && importArg + 1 < args.length) {
+            Path file = Path.of(args[importArg + 1]);
+            boolean templates = args[importArg].equals("--generate-schedule");
+            importSchedule(new ScheduleImporter(screeningRepo, hallRepo, new MovieRepository()), file, templates);
+            Database.shutdown();
+            return;
+        }
+
+        MetricsDumper metricsDump = MetricsConfig.DUMP_FILE.isBlank()
+                ? null
+                : new MetricsDumper(Path.of(MetricsConfig.DUMP_FILE));
+        if (metricsDump != null) metricsDump.start();
 
         PricingService pricingService = new PricingService();
+        SeatOccupancyIndex occupancyIndex = new SeatOccupancyIndex(hallRepo, seatRepo);
+        SeatLayoutCache seatLayouts = new SeatLayoutCache(hallRepo, seatRepo);
+        PricingEngine pricingEngine = new PricingEngine(seatLayouts, pricingRuleRepo);
+        pricingEngine.load();
+        SeatHoldService seatHolds = new SeatHoldService(screeningRepo, seatLayouts, occupancyIndex, holdRepo);
+        seatHolds.start();
+        BookingEventRepository eventRepo = new BookingEventRepository();
+        SalesAnalytics analytics = new SalesAnalytics(eventRepo, screeningRepo, seatRepo);
+        BookingJournal journal = new BookingJournal(eventRepo);
+        journal.register(analytics);
+        journal.replay();
+        LoyaltyLedger loyalty = new LoyaltyLedger(new LoyaltyLedgerRepository());
+        loyalty.start();
         BookingService bookingService = new BookingService(
-                screeningRepo, seatRepo, bookingRepo, userRepo, pricingService
+                screeningRepo, seatRepo, bookingRepo, userRepo, pricingService, pricingEngine, occupancyIndex, seatHolds,
+                journal, loyalty
+        );
+        BookingExpiryService bookingExpiry = new BookingExpiryService(
+                bookingRepo, seatRepo, occupancyIndex, loyalty, journal
         );
+        bookingExpiry.start();
+
+        PaymentService payments = new PaymentService(bookingService, bookingRepo, new PaymentRepository());
+        payments.start();
+        LocalPaymentProvider paymentProvider = new LocalPaymentProvider(payments);
 
         MovieController movieController = new MovieController(movieRepo);
-        ScreeningController screeningController = new ScreeningController(screeningRepo);
+        ScreeningController screeningController = new ScreeningController(screeningRepo, bookingService);
         BookingController bookingController = new BookingController(bookingService);
+        PricingController pricingController = new PricingController(pricingEngine);
+        PaymentController paymentController = new PaymentController(payments, paymentProvider);
+        AnalyticsController analyticsController = new AnalyticsController(analytics);
+
+        if (Arrays.asList(args).contains("--http")) {
+            HttpApi api = new HttpApi(
+                    movieController, screeningController, bookingController, pricingController, paymentController,
+                    analyticsController
+            );
+            api.start(HttpConfig.PORT);
+            System.out.println("CineGo HTTP API listening on port " + api.port());
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                api.close();
+                paymentProvider.close();
+                payments.close();
+                bookingExpiry.close();
+                seatHolds.close();
+                loyalty.close();
+                journal.close();
+                if (metricsDump != null) metricsDump.close();
+                Database.shutdown();
+            }));
+            return;
+        }
 
         new ConsoleUI(movieController, screeningController, bookingController).run();
+        paymentProvider.close();
+        payments.close();
+        bookingExpiry.close();
+        seatHolds.close();
+        loyalty.close();
+        journal.close();
+        if (metricsDump != null) metricsDump.close();
+        Database.shutdown();
+    }
+
+    private static void importSchedule(ScheduleImporter importer, Path file, boolean templates) throws IOException {
+        try (ScheduleReader reader = templates
+                ? new TemplateScheduleReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))
+                : ScheduleReader.open(file)) {
+            ScheduleImporter.ImportResult result = importer.importFrom(reader);
+            System.out.println("Imported " + result.imported() + " screenings, rejected " + result.rejected()
+                    + " in " + result.elapsedMillis() + " ms");
+            result.errors().forEach(error -> System.out.println("  " + error));
+        }
+    }
+
+    private static void verifyQueryPlans() {
+        try (Connection conn = Database.getConnection()) {
+            QueryPlanCheck.verify(conn);
+        } catch (SQLException e) {
+            throw new RuntimeException("Query plan check failed: " + e.getMessage(), e);
+        }
     }
 }
@@ -0,0 +1,87 @@
+package kz.cinego.app.cache;
+
+import kz.cinego.app.metrics.Metrics;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded LRU cache with a per-entry TTL. Values are loaded outside the
+ * lock; a load that raced with an invalidation is returned but not stored.
+ * Hits, misses, evictions and size are reported as cache.{name}.* metrics.
+ */
+public final class ReadThroughCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private long generation;
+
+    public ReadThroughCache(String name, int maxSize, Duration ttl) {
+        if (maxSize < 1) throw new IllegalArgumentException("Cache size must be >= 1: " + maxSize);
+        this.maxSize = maxSize;
+        this.hits = Metrics.counter("cache." + name + ".hits");
+        this.misses = Metrics.counter("cache." + name + ".misses");
+        this.evictions = Metrics.counter("cache." + name + ".evictions");
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() <= ReadThroughCache.this.maxSize) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+        Metrics.gauge("cache." + name + ".size", this::size);
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        long startGeneration;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (System.nanoTime() - entry.loadedAt < ttlNanos) {
+                    hits.increment();
+                    return entry.value;
+                }
+                entries.remove(key);
+                evictions.increment();
+            }
+            startGeneration = generation;
+        }
+
+        misses.increment();
+        V value = loader.apply(key);
+        if (value == null) return null;
+
+        synchronized (this) {
+            if (generation == startGeneration) {
+                entries.put(key, new Entry<>(value, System.nanoTime()));
+            }
+        }
+        return value;
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    private synchronized long size() {
+        return entries.size();
+    }
+
+    private record Entry<V>(V value, long loadedAt) {}
+}
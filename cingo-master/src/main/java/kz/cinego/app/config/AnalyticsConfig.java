@@ -0,0 +1,17 @@
+package kz.cinego.app.config;
+
+public final class AnalyticsConfig {
+
+    // Journal events per fork-join leaf of a bulk recompute.
+    public static final int RECOMPUTE_CHUNK = Integer.getInteger("cinego.analytics.recomputeChunk", 50_000);
+    // Each leaf holds a reader connection while it reads, so more than the read pool only queues.
+    public static final int RECOMPUTE_PARALLELISM = Integer.getInteger(
+            "cinego.analytics.parallelism",
+            Math.min(Runtime.getRuntime().availableProcessors(), DbConfig.READ_POOL_SIZE)
+    );
+    public static final int DEFAULT_DAYS = Integer.getInteger("cinego.analytics.defaultDays", 30);
+
+    private AnalyticsConfig() {
+        throw new AssertionError("Cannot instantiate utility class");
+    }
+}
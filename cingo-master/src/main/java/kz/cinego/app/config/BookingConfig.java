@@ -0,0 +1,21 @@
+package kz.cinego.app.config;
+
+import java.time.Duration;
+
+public final class BookingConfig {
+
+    public static final Duration HOLD_TTL = Duration.ofSeconds(Long.getLong("cinego.hold.ttlSeconds", 600L));
+    public static final long HOLD_REAPER_INTERVAL_MS = Long.getLong("cinego.hold.reaperIntervalMs", 5_000L);
+    public static final boolean HOLD_PERSISTENCE = Boolean.getBoolean("cinego.hold.persist");
+
+    // Unpaid bookings older than this are expired and their seats released.
+    public static final Duration UNPAID_EXPIRY = Duration.ofMinutes(Long.getLong("cinego.booking.unpaidExpiryMinutes", 30L));
+    public static final long EXPIRY_SWEEP_INTERVAL_MS = Long.getLong("cinego.booking.expirySweepIntervalMs", 60_000L);
+    // Bookings per writer transaction, and the pause that lets live bookings in between.
+    public static final int EXPIRY_BATCH_SIZE = Integer.getInteger("cinego.booking.expiryBatchSize", 200);
+    public static final long EXPIRY_BATCH_PAUSE_MS = Long.getLong("cinego.booking.expiryBatchPauseMs", 20L);
+
+    private BookingConfig() {
+        throw new AssertionError("Cannot instantiate utility class");
+    }
+}
@@ -0,0 +1,15 @@
+package kz.cinego.app.config;
+
+import java.time.Duration;
+
+public final class CacheConfig {
+
+    public static final int MOVIE_CACHE_SIZE = Integer.getInteger("cinego.cache.movies.size", 1_000);
+    public static final int SCREENING_CACHE_SIZE = Integer.getInteger("cinego.cache.screenings.size", 10_000);
+    public static final int SCREENING_LIST_CACHE_SIZE = Integer.getInteger("cinego.cache.screeningLists.size", 1_000);
+    public static final Duration CATALOGUE_TTL = Duration.ofSeconds(Long.getLong("cinego.cache.ttlSeconds", 300L));
+
+    private CacheConfig() {
+        throw new AssertionError("Cannot instantiate utility class");
+    }
+}
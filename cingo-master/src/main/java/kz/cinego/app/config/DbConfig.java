@@ -2,9 +2,42 @@ package kz.cinego.app.config;
 
 public final class DbConfig {
 
-    public static final String JDBC_URL = "jdbc:sqlite:cinema.db";
+    public static final String JDBC_URL = System.getProperty("cinego.db.url", "jdbc:sqlite:cinema.db");
+
+    public static final StorageMode STORAGE_MODE =
+            StorageMode.valueOf(System.getProperty("cinego.db.storageMode", "WAL").toUpperCase());
+    public static final String SYNCHRONOUS = System.getProperty("cinego.db.synchronous", "NORMAL");
+    public static final int BUSY_TIMEOUT_MS = Integer.getInteger("cinego.db.busyTimeoutMs", 5_000);
+    public static final int WAL_AUTOCHECKPOINT_PAGES = Integer.getInteger("cinego.db.walAutocheckpoint", 1_000);
+
+    public static final boolean VERIFY_QUERY_PLANS =
+            Boolean.parseBoolean(System.getProperty("cinego.db.verifyQueryPlans", "true"));
+
+    public static final int BACKFILL_CHUNK_SIZE = Integer.getInteger("cinego.db.backfillChunkSize", 5_000);
+    public static final long BACKFILL_PAUSE_MS = Long.getLong("cinego.db.backfillPauseMs", 5L);
+
+    public static final int READ_POOL_SIZE = Integer.getInteger("cinego.db.readPoolSize", 4);
+    public static final long POOL_TIMEOUT_MS = Long.getLong("cinego.db.poolTimeoutMs", 5_000L);
+
+    // Compiled statements kept per pooled connection; 0 turns the cache off.
+    public static final int STATEMENT_CACHE_SIZE = Integer.getInteger("cinego.db.statementCacheSize", 64);
+
+    // Write transactions take the write lock at BEGIN instead of upgrading from a read lock.
+    public static final boolean BEGIN_IMMEDIATE =
+            Boolean.parseBoolean(System.getProperty("cinego.db.beginImmediate", "true"));
+    // TransactionExecutor: replays a busy transaction until this much time has passed.
+    public static final long TX_RETRY_DEADLINE_MS = Long.getLong("cinego.db.txRetryDeadlineMs", 10_000L);
+    public static final long TX_RETRY_BACKOFF_BASE_MS = Long.getLong("cinego.db.txRetryBackoffBaseMs", 5L);
+    public static final long TX_RETRY_BACKOFF_MAX_MS = Long.getLong("cinego.db.txRetryBackoffMaxMs", 500L);
+
+    public enum StorageMode {
+        // Write-ahead log: readers never block on the single writer.
+        WAL,
+        // Classic rollback journal (journal_mode=DELETE).
+        ROLLBACK
+    }
 
     private DbConfig() {
         throw new AssertionError("Cannot instantiate utility class");
     }
-}
\ No newline at end of file
+}
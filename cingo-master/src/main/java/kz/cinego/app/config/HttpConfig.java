@@ -0,0 +1,13 @@
+package kz.cinego.app.config;
+
+public final class HttpConfig {
+
+    public static final int PORT = Integer.getInteger("cinego.http.port", 8080);
+    public static final int BACKLOG = Integer.getInteger("cinego.http.backlog", 512);
+    // Requests handled at once; the rest queue. Each blocks on a pooled connection, so more buys little.
+    public static final int THREADS = Integer.getInteger("cinego.http.threads", 32);
+
+    private HttpConfig() {
+        throw new AssertionError("Cannot instantiate utility class");
+    }
+}
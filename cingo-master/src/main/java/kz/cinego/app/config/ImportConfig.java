@@ -0,0 +1,15 @@
+package kz.cinego.app.config;
+
+public final class ImportConfig {
+
+    // Screenings per writer transaction of a schedule import.
+    public static final int BATCH_SIZE = Integer.getInteger("cinego.import.batchSize", 5_000);
+    // Minimum gap between two screenings of a hall, on top of the running time.
+    public static final int TURNAROUND_MINUTES = Integer.getInteger("cinego.import.turnaroundMinutes", 0);
+    // Rejected rows reported in full; the rest are only counted.
+    public static final int MAX_REPORTED_ERRORS = Integer.getInteger("cinego.import.maxReportedErrors", 100);
+
+    private ImportConfig() {
+        throw new AssertionError("Cannot instantiate utility class");
+    }
+}
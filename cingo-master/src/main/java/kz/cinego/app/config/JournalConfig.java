@@ -0,0 +1,12 @@
+package kz.cinego.app.config;
+
+public final class JournalConfig {
+
+    // Events applied since the last snapshot before projections are snapshotted again.
+    public static final int SNAPSHOT_EVERY = Integer.getInteger("cinego.journal.snapshotEvery", 10_000);
+    public static final int REPLAY_CHUNK = Integer.getInteger("cinego.journal.replayChunk", 5_000);
+
+    private JournalConfig() {
+        throw new AssertionError("Cannot instantiate utility class");
+    }
+}
@@ -0,0 +1,14 @@
+package kz.cinego.app.config;
+
+public final class LoyaltyConfig {
+
+    // How often cached balances are written back to users.loyalty_points.
+    public static final long RECONCILE_INTERVAL_MS = Long.getLong("cinego.loyalty.reconcileIntervalMs", 1_000L);
+    // Accounts kept in memory; reconcile drops clean ones beyond this and they reload from the ledger.
+    public static final int MAX_CACHED_ACCOUNTS = Integer.getInteger("cinego.loyalty.maxCachedAccounts", 100_000);
+    public static final int HISTORY_LIMIT = Integer.getInteger("cinego.loyalty.historyLimit", 50);
+
+    private LoyaltyConfig() {
+        throw new AssertionError("Cannot instantiate utility class");
+    }
+}
@@ -0,0 +1,17 @@
+package kz.cinego.app.config;
+
+public final class MetricsConfig {
+
+    // Empty: no dump file; GET /metrics still works.
+    public static final String DUMP_FILE = System.getProperty("cinego.metrics.dumpFile", "");
+    public static final long DUMP_INTERVAL_MS = Long.getLong("cinego.metrics.dumpIntervalMs", 60_000L);
+
+    // Distinct failure reasons kept per timer; the rest are counted as "other".
+    public static final int MAX_REASONS = Integer.getInteger("cinego.metrics.maxReasons", 32);
+    // Distinct SQL strings whose timer is remembered instead of looked up from the call stack.
+    public static final int MAX_STATEMENTS = Integer.getInteger("cinego.metrics.maxStatements", 1_024);
+
+    private MetricsConfig() {
+        throw new AssertionError("Cannot instantiate utility class");
+    }
+}
@@ -0,0 +1,19 @@
+package kz.cinego.app.config;
+
+public final class PaymentConfig {
+
+    public static final int QUEUE_CAPACITY = Integer.getInteger("cinego.payment.queueCapacity", 10_000);
+    public static final int BATCH_SIZE = Integer.getInteger("cinego.payment.batchSize", 256);
+    public static final long CONFIRM_TIMEOUT_MS = Long.getLong("cinego.payment.confirmTimeoutMs", 10_000L);
+
+    // Local stand-in provider: callback delay and how often a callback is delivered twice.
+    public static final long LOCAL_CALLBACK_MAX_DELAY_MS = Long.getLong("cinego.payment.local.maxDelayMs", 200L);
+    public static final double LOCAL_DUPLICATE_RATE =
+            Double.parseDouble(System.getProperty("cinego.payment.local.duplicateRate", "0.1"));
+    public static final double LOCAL_DECLINE_RATE =
+            Double.parseDouble(System.getProperty("cinego.payment.local.declineRate", "0.0"));
+
+    private PaymentConfig() {
+        throw new AssertionError("Cannot instantiate utility class");
+    }
+}
@@ -0,0 +1,14 @@
+package kz.cinego.app.config;
+
+public final class QueryConfig {
+
+    // Rows per page of the keyset-paginated listings when the caller gives no limit.
+    public static final int PAGE_SIZE = Integer.getInteger("cinego.query.pageSize", 50);
+    public static final int MAX_PAGE_SIZE = Integer.getInteger("cinego.query.maxPageSize", 500);
+    // Longest span of days a date-range listing answers in one response.
+    public static final int MAX_RANGE_DAYS = Integer.getInteger("cinego.query.maxRangeDays", 31);
+
+    private QueryConfig() {
+        throw new AssertionError("Cannot instantiate utility class");
+    }
+}
@@ -0,0 +1,41 @@
+package kz.cinego.app.controller;
+
+import kz.cinego.app.config.AnalyticsConfig;
+import kz.cinego.app.service.SalesAnalytics;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class AnalyticsController {
+    private final SalesAnalytics analytics;
+
+    public AnalyticsController(SalesAnalytics analytics) {
+        this.analytics = analytics;
+    }
+
+    public SalesAnalytics.ScreeningReport screening(long screeningId) {
+        return analytics.screening(screeningId);
+    }
+
+    public List<SalesAnalytics.GroupReport> byMovie() {
+        return analytics.byMovie();
+    }
+
+    public List<SalesAnalytics.GroupReport> byHall() {
+        return analytics.byHall();
+    }
+
+    // Missing bounds default to the last AnalyticsConfig.DEFAULT_DAYS days.
+    public List<SalesAnalytics.DayReport> daily(LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(AnalyticsConfig.DEFAULT_DAYS - 1);
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("Range ends before it starts: " + start + " .. " + end);
+        }
+        return analytics.daily(start, end);
+    }
+
+    public SalesAnalytics.RecomputeResult recompute() {
+        return analytics.recompute();
+    }
+}
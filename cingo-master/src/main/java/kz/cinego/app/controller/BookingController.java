@@ -1,9 +1,12 @@
 package kz.cinego.app.controller;
 
 import kz.cinego.app.entity.Booking;
+import kz.cinego.app.entity.SeatHold;
+import kz.cinego.app.repository.Page;
 import kz.cinego.app.service.BookingService;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public class BookingController {
     private final BookingService service;
@@ -16,6 +19,22 @@ public class BookingController {
         return service.createBooking(userId, screeningId, seats, pointsToUse);
     }
 
+    public SeatHold hold(long userId, long screeningId, List<int[]> seats) {
+        return service.holdSeats(userId, screeningId, seats);
+    }
+
+    public BookingService.CreateBookingResult createFromHold(long userId, String holdToken, int pointsToUse) {
+        return service.createBookingFromHold(userId, holdToken, pointsToUse);
+    }
+
+    public void releaseHold(String holdToken) {
+        service.releaseHold(holdToken);
+    }
+
+    public BookingService.SeatMap seatMap(long screeningId) {
+        return service.getSeatMap(screeningId);
+    }
+
     public Booking pay(long bookingId) {
         return service.pay(bookingId);
     }
@@ -23,4 +42,16 @@ public class BookingController {
     public Booking cancel(long bookingId) {
         return service.cancel(bookingId);
     }
+
+    public Page<Booking> listByUser(long userId, String before, Integer limit) {
+        return service.listBookings(userId, before, Page.limit(limit));
+    }
+
+    public Stream<Booking> streamByUser(long userId) {
+        return service.streamBookings(userId);
+    }
+
+    public BookingService.LoyaltyBalance points(long userId) {
+        return service.getLoyaltyBalance(userId);
+    }
 }
@@ -2,6 +2,7 @@ package kz.cinego.app.controller;
 
 import kz.cinego.app.entity.Movie;
 import kz.cinego.app.repository.MovieRepository;
+import kz.cinego.app.repository.Page;
 
 import java.util.List;
 
@@ -15,4 +16,8 @@ public class MovieController {
     public List<Movie> listMovies() {
         return repo.findAll();
     }
+
+    public Page<Movie> listMovies(String after, Integer limit) {
+        return repo.findPage(after, Page.limit(limit));
+    }
 }
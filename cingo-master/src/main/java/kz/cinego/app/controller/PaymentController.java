@@ -0,0 +1,29 @@
+package kz.cinego.app.controller;
+
+import kz.cinego.app.entity.Money;
+import kz.cinego.app.entity.Payment;
+import kz.cinego.app.service.LocalPaymentProvider;
+import kz.cinego.app.service.PaymentService;
+
+public class PaymentController {
+    private final PaymentService payments;
+    private final LocalPaymentProvider provider;
+
+    public PaymentController(PaymentService payments, LocalPaymentProvider provider) {
+        this.payments = payments;
+        this.provider = provider;
+    }
+
+    // Provider callback; safe to deliver more than once.
+    public PaymentService.PaymentResult confirm(String paymentId, long bookingId, Money amount) {
+        return payments.confirm(paymentId, bookingId, amount);
+    }
+
+    public Payment find(String paymentId) {
+        return payments.find(paymentId);
+    }
+
+    public String checkout(long bookingId, Money amount) {
+        return provider.charge(bookingId, amount);
+    }
+}
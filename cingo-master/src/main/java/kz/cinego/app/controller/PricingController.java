@@ -0,0 +1,26 @@
+package kz.cinego.app.controller;
+
+import kz.cinego.app.entity.PricingRule;
+import kz.cinego.app.service.PricingEngine;
+
+import java.util.List;
+
+public class PricingController {
+    private final PricingEngine engine;
+
+    public PricingController(PricingEngine engine) {
+        this.engine = engine;
+    }
+
+    public List<PricingRule> listRules() {
+        return engine.rules();
+    }
+
+    public PricingRule addRule(PricingRule.Kind kind, String param, int percent) {
+        return engine.addRule(kind, param, percent);
+    }
+
+    public boolean removeRule(long id) {
+        return engine.removeRule(id);
+    }
+}
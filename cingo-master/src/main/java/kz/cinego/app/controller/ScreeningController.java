@@ -1,18 +1,49 @@
 package kz.cinego.app.controller;
 
+import kz.cinego.app.config.QueryConfig;
 import kz.cinego.app.entity.Screening;
+import kz.cinego.app.repository.Page;
 import kz.cinego.app.repository.ScreeningRepository;
+import kz.cinego.app.service.BookingService;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class ScreeningController {
     private final ScreeningRepository repo;
+    private final BookingService bookingService;
 
-    public ScreeningController(ScreeningRepository repo) {
+    public ScreeningController(ScreeningRepository repo, BookingService bookingService) {
         this.repo = repo;
+        this.bookingService = bookingService;
     }
 
     public List<Screening> listByMovie(long movieId) {
         return repo.findByMovie(movieId);
     }
+
+    public Page<Screening> listByMovie(long movieId, String after, Integer limit) {
+        return repo.findPageByMovie(movieId, after, Page.limit(limit));
+    }
+
+    public Stream<Screening> streamByMovie(long movieId) {
+        return repo.streamByMovie(movieId);
+    }
+
+    // Screenings of the hall starting on the given days, inclusive; today when no date is given.
+    public List<Screening> listByHall(long hallId, LocalDate from, LocalDate to) {
+        LocalDate first = from != null ? from : to != null ? to : LocalDate.now();
+        LocalDate last = to != null ? to : first;
+        if (last.isBefore(first) || first.plusDays(QueryConfig.MAX_RANGE_DAYS).isBefore(last.plusDays(1))) {
+            throw new IllegalArgumentException(
+                    "Bad date range: " + first + " to " + last + " (at most " + QueryConfig.MAX_RANGE_DAYS + " days)"
+            );
+        }
+        return repo.findByHallBetween(hallId, first.atStartOfDay(), last.plusDays(1).atStartOfDay());
+    }
+
+    public BookingService.PricedSeatMap pricedSeatMap(long screeningId) {
+        return bookingService.getPricedSeatMap(screeningId);
+    }
 }
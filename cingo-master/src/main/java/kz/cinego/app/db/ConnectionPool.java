@@ -0,0 +1,379 @@
+package kz.cinego.app.db;
+
+import kz.cinego.app.metrics.LatencyHistogram;
+import kz.cinego.app.metrics.Metrics;
+import kz.cinego.app.metrics.Timer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of physical SQLite connections. Callers get a proxy whose
+ * {@code close()} hands the physical connection back instead of closing it.
+ * Each physical connection keeps its compiled statements in a
+ * {@link StatementCache}, so a repository preparing the same SQL on every
+ * call compiles it once per connection. The proxy also times statements
+ * and transactions (see {@link SqlMetrics}); checkout latency is reported
+ * as db.acquire.{name} and pool occupancy as db.pool.{name}.*.
+ */
+public final class ConnectionPool implements AutoCloseable {
+
+    private final String url;
+    private final Properties props;
+    private final int size;
+    private final long timeoutMs;
+    private final List<String> initSql;
+    private final int statementCacheSize;
+
+    private final BlockingQueue<Slot> idle;
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder waitCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final Timer acquire;
+    private final LatencyHistogram checkoutLatency;
+    private volatile boolean closed;
+
+    public ConnectionPool(
+            String name,
+            String url,
+            Properties props,
+            int size,
+            long timeoutMs,
+            List<String> initSql,
+            int statementCacheSize
+    ) {
+        if (size < 1) throw new IllegalArgumentException("Pool size must be >= 1: " + size);
+        this.acquire = Metrics.timer("db.acquire." + name);
+        this.checkoutLatency = acquire.latency();
+        this.url = url;
+        this.props = props;
+        this.size = size;
+        this.timeoutMs = timeoutMs;
+        this.initSql = List.copyOf(initSql);
+        this.statementCacheSize = statementCacheSize;
+        this.idle = new ArrayBlockingQueue<>(size);
+        Metrics.gauge("db.pool." + name + ".active", active::get);
+        Metrics.gauge("db.pool." + name + ".idle", idle::size);
+        Metrics.gauge("db.pool." + name + ".waits", waitCount::sum);
+        Metrics.gauge("db.pool." + name + ".waitMs", () -> waitNanos.sum() / 1_000_000);
+    }
+
+    public void prewarm() throws SQLException {
+        while (true) {
+            Slot slot = tryCreate();
+            if (slot == null) return;
+            idle.offer(slot);
+        }
+    }
+
+    public Connection borrow() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+
+        long start = System.nanoTime();
+        Slot slot = idle.poll();
+        if (slot == null) slot = tryCreate();
+        if (slot == null) {
+            waitCount.increment();
+            try {
+                slot = idle.poll(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a connection", e);
+            } finally {
+                waitNanos.add(System.nanoTime() - start);
+            }
+            if (slot == null) {
+                SQLException e = new SQLException("Connection pool exhausted after " + timeoutMs + " ms (size=" + size + ")");
+                acquire.fail(start, e);
+                throw e;
+            }
+        }
+
+        active.incrementAndGet();
+        checkoutLatency.record(System.nanoTime() - start);
+        return wrap(slot);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Slot slot;
+        while ((slot = idle.poll()) != null) {
+            slot.close();
+        }
+    }
+
+    private Slot tryCreate() throws SQLException {
+        while (true) {
+            int current = created.get();
+            if (current >= size) return null;
+            if (created.compareAndSet(current, current + 1)) break;
+        }
+        try {
+            return new Slot(open(), new StatementCache(statementCacheSize));
+        } catch (SQLException | RuntimeException e) {
+            created.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private Connection open() throws SQLException {
+        Connection conn = DriverManager.getConnection(url, props);
+        try (Statement st = conn.createStatement()) {
+            for (String sql : initSql) st.execute(sql);
+        } catch (SQLException e) {
+            closeQuietly(conn);
+            throw e;
+        }
+        return conn;
+    }
+
+    private void release(Slot slot) {
+        active.decrementAndGet();
+        Connection physical = slot.physical;
+        try {
+            if (closed || physical.isClosed()) {
+                discard(slot);
+                return;
+            }
+            if (!physical.getAutoCommit()) endTransaction(physical);
+            if (!idle.offer(slot)) discard(slot);
+        } catch (SQLException e) {
+            discard(slot);
+        }
+    }
+
+    private void discard(Slot slot) {
+        created.decrementAndGet();
+        slot.close();
+    }
+
+    private Connection wrap(Slot slot) {
+        PooledConnection handler = new PooledConnection(slot);
+        Connection proxy = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                handler
+        );
+        handler.proxy = proxy;
+        return proxy;
+    }
+
+    // A physical connection and the statements compiled on it.
+    private static final class Slot {
+        final Connection physical;
+        final StatementCache statements;
+
+        Slot(Connection physical, StatementCache statements) {
+            this.physical = physical;
+            this.statements = statements;
+        }
+
+        void close() {
+            statements.clear();
+            closeQuietly(physical);
+        }
+    }
+
+    /*
+     * Manual-commit mode is tracked here rather than left to the driver. The
+     * driver's commit() and rollback() issue the next BEGIN right away, and
+     * with BEGIN IMMEDIATE that BEGIN can fail busy after the COMMIT went
+     * through, which a caller retrying on busy would read as "not committed".
+     * Here a transaction is begun by the first statement prepared after
+     * setAutoCommit(false), commit() or rollback(), and ended without
+     * starting another.
+     */
+    private final class PooledConnection implements InvocationHandler {
+        private final Slot slot;
+        private final Connection physical;
+        private Connection proxy;
+        private boolean returned;
+        private boolean manual;
+        // Start of the open transaction in nanos, 0 when none is open.
+        private long txn;
+
+        PooledConnection(Slot slot) {
+            this.slot = slot;
+            this.physical = slot.physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        if (txn != 0) SqlMetrics.TXN_ABANDONED.increment();
+                        release(slot);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || physical.isClosed();
+                }
+                default -> {
+                    if (returned) throw new SQLException("Connection already returned to pool");
+                    return dispatch(method, args);
+                }
+            }
+        }
+
+        private Object dispatch(Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getAutoCommit" -> {
+                    return !manual;
+                }
+                case "setAutoCommit" -> {
+                    boolean auto = (Boolean) args[0];
+                    if (auto && txn != 0) commit();
+                    manual = !auto;
+                    return null;
+                }
+                case "commit" -> {
+                    if (!manual) return delegate(method, args);
+                    if (txn != 0) commit();
+                    return null;
+                }
+                case "rollback" -> {
+                    if (!manual || args != null) return delegate(method, args);
+                    if (txn != 0) rollback();
+                    return null;
+                }
+                case "prepareStatement" -> {
+                    begin();
+                    return prepare(method, args);
+                }
+                case "createStatement", "prepareCall", "setSavepoint" -> {
+                    begin();
+                    return delegate(method, args);
+                }
+                default -> {
+                    return delegate(method, args);
+                }
+            }
+        }
+
+        private void begin() throws SQLException {
+            if (!manual || txn != 0) return;
+            try {
+                physical.setAutoCommit(false);
+            } catch (SQLException e) {
+                SqlMetrics.failed(e);
+                // The driver flips its flag before the BEGIN it failed to run.
+                try {
+                    resetAutoCommit(physical);
+                } catch (SQLException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            }
+            txn = System.nanoTime();
+        }
+
+        private void commit() throws SQLException {
+            long started = txn;
+            txn = 0;
+            try {
+                physical.setAutoCommit(true);
+            } catch (SQLException e) {
+                SqlMetrics.failed(e);
+                try {
+                    rollbackQuietly(physical);
+                } finally {
+                    SqlMetrics.TXN_ROLLBACK.record(started);
+                }
+                throw e;
+            }
+            SqlMetrics.TXN_COMMIT.record(started);
+        }
+
+        private void rollback() throws SQLException {
+            long started = txn;
+            txn = 0;
+            try {
+                endTransaction(physical);
+            } catch (SQLException e) {
+                SqlMetrics.failed(e);
+                throw e;
+            } finally {
+                SqlMetrics.TXN_ROLLBACK.record(started);
+            }
+        }
+
+        // Only prepareStatement(sql) and prepareStatement(sql, autoGeneratedKeys) are cached.
+        private PreparedStatement prepare(Method method, Object[] args) throws Throwable {
+            String sql = (String) args[0];
+            boolean cacheable = args.length == 1 || (args.length == 2 && args[1] instanceof Integer);
+            boolean generatedKeys = args.length == 2 && Integer.valueOf(Statement.RETURN_GENERATED_KEYS).equals(args[1]);
+
+            PooledStatement statement = cacheable ? slot.statements.take(sql, generatedKeys) : null;
+            if (statement == null) {
+                PreparedStatement ps = (PreparedStatement) delegate(method, args);
+                StatementCache cache = cacheable ? slot.statements : UNCACHED;
+                statement = new PooledStatement(ps, sql, generatedKeys, cache);
+            }
+            return statement.open(proxy);
+        }
+
+        private Object delegate(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                SqlMetrics.failed(e.getCause());
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static final StatementCache UNCACHED = new StatementCache(0);
+
+    // Rolls back and returns the driver to autocommit without beginning again.
+    private static void endTransaction(Connection physical) throws SQLException {
+        try (Statement st = physical.createStatement()) {
+            st.execute("ROLLBACK");
+        } finally {
+            resetAutoCommit(physical);
+        }
+    }
+
+    private static void rollbackQuietly(Connection physical) {
+        try (Statement st = physical.createStatement()) {
+            st.execute("ROLLBACK");
+        } catch (SQLException ignored) {
+            // SQLite already rolled the transaction back.
+        }
+    }
+
+    // setAutoCommit(true) issues a COMMIT, which fails when no transaction is
+    // open; the driver is back in autocommit mode either way.
+    private static void resetAutoCommit(Connection physical) throws SQLException {
+        try {
+            physical.setAutoCommit(true);
+        } catch (SQLException e) {
+            if (!physical.getAutoCommit()) throw e;
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
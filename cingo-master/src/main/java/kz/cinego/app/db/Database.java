@@ -1,17 +1,136 @@
 package kz.cinego.app.db;
 
 import kz.cinego.app.config.DbConfig;
+import org.sqlite.SQLiteConfig;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Single-writer / multi-reader access to cinema.db. All writes go through
+ * one dedicated connection; reads are served from a pool of read-only ones.
+ */
 public final class Database {
     private Database() {}
 
+    private static volatile ConnectionPool writer;
+    private static volatile ConnectionPool readers;
+
+    public static synchronized void init() {
+        if (writer != null) return;
+
+        ConnectionPool w = new ConnectionPool(
+                "write",
+                DbConfig.JDBC_URL,
+                writerConfig().toProperties(),
+                1,
+                DbConfig.POOL_TIMEOUT_MS,
+                writerPragmas(),
+                DbConfig.STATEMENT_CACHE_SIZE
+        );
+        ConnectionPool r = new ConnectionPool(
+                "read",
+                DbConfig.JDBC_URL,
+                readOnlyConfig().toProperties(),
+                DbConfig.READ_POOL_SIZE,
+                DbConfig.POOL_TIMEOUT_MS,
+                readerPragmas(),
+                DbConfig.STATEMENT_CACHE_SIZE
+        );
+        try {
+            // The writer creates the file and switches the journal mode before readers attach.
+            w.prewarm();
+            r.prewarm();
+        } catch (SQLException e) {
+            r.close();
+            w.close();
+            throw new RuntimeException("Connection pool init failed: " + e.getMessage(), e);
+        }
+        writer = w;
+        readers = r;
+    }
+
     public static Connection getConnection() throws SQLException {
-        Connection conn = DriverManager.getConnection(DbConfig.JDBC_URL);
-        conn.createStatement().execute("PRAGMA foreign_keys = ON;");
-        return conn;
+        return readers().borrow();
+    }
+
+    public static Connection getWriteConnection() throws SQLException {
+        return writer().borrow();
+    }
+
+    public static void checkpoint() {
+        if (DbConfig.STORAGE_MODE != DbConfig.StorageMode.WAL) return;
+        try (Connection conn = getWriteConnection();
+             Statement st = conn.createStatement()) {
+            st.execute("PRAGMA wal_checkpoint(TRUNCATE);");
+        } catch (SQLException e) {
+            throw new RuntimeException("WAL checkpoint failed: " + e.getMessage(), e);
+        }
+    }
+
+    public static synchronized void shutdown() {
+        if (writer == null) return;
+        try {
+            checkpoint();
+        } finally {
+            readers.close();
+            writer.close();
+            readers = null;
+            writer = null;
+        }
+    }
+
+    private static List<String> writerPragmas() {
+        List<String> pragmas = new ArrayList<>();
+        pragmas.add("PRAGMA foreign_keys = ON;");
+        pragmas.add("PRAGMA busy_timeout = " + DbConfig.BUSY_TIMEOUT_MS + ";");
+        if (DbConfig.STORAGE_MODE == DbConfig.StorageMode.WAL) {
+            pragmas.add("PRAGMA journal_mode = WAL;");
+            pragmas.add("PRAGMA wal_autocheckpoint = " + DbConfig.WAL_AUTOCHECKPOINT_PAGES + ";");
+        } else {
+            pragmas.add("PRAGMA journal_mode = DELETE;");
+        }
+        pragmas.add("PRAGMA synchronous = " + DbConfig.SYNCHRONOUS + ";");
+        return pragmas;
+    }
+
+    private static List<String> readerPragmas() {
+        return List.of(
+                "PRAGMA foreign_keys = ON;",
+                "PRAGMA busy_timeout = " + DbConfig.BUSY_TIMEOUT_MS + ";"
+        );
+    }
+
+    private static SQLiteConfig writerConfig() {
+        SQLiteConfig config = new SQLiteConfig();
+        if (DbConfig.BEGIN_IMMEDIATE) config.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+        return config;
+    }
+
+    private static SQLiteConfig readOnlyConfig() {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setReadOnly(true);
+        return config;
+    }
+
+    private static ConnectionPool writer() {
+        ConnectionPool current = writer;
+        if (current == null) {
+            init();
+            current = writer;
+        }
+        return current;
+    }
+
+    private static ConnectionPool readers() {
+        ConnectionPool current = readers;
+        if (current == null) {
+            init();
+            current = readers;
+        }
+        return current;
     }
 }
@@ -1,103 +1,24 @@
 package kz.cinego.app.db;
 
-import java.math.BigDecimal;
+import kz.cinego.app.db.migration.Migration;
+import kz.cinego.app.db.migration.MigrationRunner;
+
 import java.sql.*;
+import java.util.List;
 
 public final class DbInit {
     private DbInit() {}
 
-    public static void init() {
-        try (Connection conn = Database.getConnection()) {
-            createTables(conn);
+    // Returns the migrations applied on the way.
+    public static List<Migration> init() {
+        List<Migration> applied = MigrationRunner.migrate();
+
+        try (Connection conn = Database.getWriteConnection()) {
             seedIfEmpty(conn);
         } catch (SQLException e) {
             throw new RuntimeException("DB init failed: " + e.getMessage(), e);
         }
-    }
-
-    private static void createTables(Connection conn) throws SQLException {
-        try (Statement st = conn.createStatement()) {
-            st.execute("""
-                CREATE TABLE IF NOT EXISTS movies (
-                  id INTEGER PRIMARY KEY AUTOINCREMENT,
-                  title TEXT NOT NULL,
-                  genre TEXT,
-                  duration_min INTEGER NOT NULL,
-                  age_rating TEXT
-                );
-            """);
-
-            st.execute("""
-                CREATE TABLE IF NOT EXISTS halls (
-                  id INTEGER PRIMARY KEY AUTOINCREMENT,
-                  name TEXT NOT NULL,
-                  rows_count INTEGER NOT NULL,
-                  cols_count INTEGER NOT NULL
-                );
-            """);
-
-            st.execute("""
-                CREATE TABLE IF NOT EXISTS seats (
-                  id INTEGER PRIMARY KEY AUTOINCREMENT,
-                  hall_id INTEGER NOT NULL,
-                  row_num INTEGER NOT NULL,
-                  col_num INTEGER NOT NULL,
-                  seat_type TEXT NOT NULL,
-                  UNIQUE(hall_id, row_num, col_num),
-                  FOREIGN KEY (hall_id) REFERENCES halls(id) ON DELETE CASCADE
-                );
-            """);
-
-            st.execute("""
-                CREATE TABLE IF NOT EXISTS screenings (
-                  id INTEGER PRIMARY KEY AUTOINCREMENT,
-                  movie_id INTEGER NOT NULL,
-                  hall_id INTEGER NOT NULL,
-                  start_time TEXT NOT NULL,
-                  base_price NUMERIC NOT NULL,
-                  FOREIGN KEY (movie_id) REFERENCES movies(id),
-                  FOREIGN KEY (hall_id) REFERENCES halls(id)
-                );
-            """);
-
-            st.execute("""
-                CREATE TABLE IF NOT EXISTS users (
-                  id INTEGER PRIMARY KEY AUTOINCREMENT,
-                  full_name TEXT NOT NULL,
-                  phone TEXT,
-                  role TEXT NOT NULL,
-                  loyalty_points INTEGER NOT NULL DEFAULT 0
-                );
-            """);
-
-            st.execute("""
-                CREATE TABLE IF NOT EXISTS bookings (
-                  id INTEGER PRIMARY KEY AUTOINCREMENT,
-                  user_id INTEGER NOT NULL,
-                  screening_id INTEGER NOT NULL,
-                  status TEXT NOT NULL,
-                  total_price NUMERIC NOT NULL,
-                  created_at TEXT NOT NULL,
-                  paid_at TEXT,
-                  cancelled_at TEXT,
-                  refund_amount NUMERIC DEFAULT 0,
-                  FOREIGN KEY (user_id) REFERENCES users(id),
-                  FOREIGN KEY (screening_id) REFERENCES screenings(id)
-                );
-            """);
-
-            st.execute("""
-                CREATE TABLE IF NOT EXISTS booking_items (
-                  id INTEGER PRIMARY KEY AUTOINCREMENT,
-                  booking_id INTEGER NOT NULL,
-                  seat_id INTEGER NOT NULL,
-                  price NUMERIC NOT NULL,
-                  UNIQUE(booking_id, seat_id),
-                  FOREIGN KEY (booking_id) REFERENCES bookings(id) ON DELETE CASCADE,
-                  FOREIGN KEY (seat_id) REFERENCES seats(id)
-                );
-            """);
-        }
+        return applied;
     }
 
     private static void seedIfEmpty(Connection conn) throws SQLException {
@@ -145,18 +66,20 @@ public final class DbInit {
             long hallId = firstId(conn, "halls");
 
             try (PreparedStatement ps = conn.prepareStatement(
-                    "INSERT INTO screenings(movie_id, hall_id, start_time, base_price) VALUES(?,?,?,?)")) {
+                    "INSERT INTO screenings(movie_id, hall_id, start_time, base_price_minor, base_price) VALUES(?,?,?,?,? / 100.0)")) {
 
                 ps.setLong(1, movieId);
                 ps.setLong(2, hallId);
                 ps.setString(3, "2026-02-05T19:30");
-                ps.setBigDecimal(4, new BigDecimal("1500.00"));
+                ps.setLong(4, 150_000);
+                ps.setLong(5, 150_000);
                 ps.executeUpdate();
 
                 ps.setLong(1, movieId);
                 ps.setLong(2, hallId);
                 ps.setString(3, "2026-02-05T14:00");
-                ps.setBigDecimal(4, new BigDecimal("1200.00"));
+                ps.setLong(4, 120_000);
+                ps.setLong(5, 120_000);
                 ps.executeUpdate();
             }
         }
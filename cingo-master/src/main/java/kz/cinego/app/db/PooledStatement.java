@@ -0,0 +1,129 @@
+package kz.cinego.app.db;
+
+import kz.cinego.app.metrics.Timer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The PreparedStatement handed out by pooled connections. close() records
+ * the statement's time under its repository timer (see {@link SqlMetrics})
+ * and, unless it failed, resets it and puts it back in the connection's
+ * {@link StatementCache} instead of finalizing it. The proxy object itself
+ * is reused with the compiled statement.
+ */
+final class PooledStatement implements InvocationHandler {
+
+    private final PreparedStatement physical;
+    private final String sql;
+    private final boolean generatedKeys;
+    private final Timer timer;
+    private final StatementCache cache;
+    private final PreparedStatement proxy;
+    private final List<ResultSet> results = new ArrayList<>(1);
+
+    private Connection lease;
+    private long opened;
+    private Throwable failure;
+    private boolean closed;
+
+    PooledStatement(PreparedStatement physical, String sql, boolean generatedKeys, StatementCache cache) {
+        this.physical = physical;
+        this.sql = sql;
+        this.generatedKeys = generatedKeys;
+        this.timer = SqlMetrics.timerFor(sql);
+        this.cache = cache;
+        this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                this
+        );
+    }
+
+    String sql() {
+        return sql;
+    }
+
+    boolean generatedKeys() {
+        return generatedKeys;
+    }
+
+    // Hands the statement to the holder of lease (the pooled connection proxy).
+    PreparedStatement open(Connection lease) {
+        this.lease = lease;
+        this.opened = System.nanoTime();
+        this.failure = null;
+        this.closed = false;
+        return proxy;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close" -> {
+                close();
+                return null;
+            }
+            case "isClosed" -> {
+                return closed;
+            }
+            case "getConnection" -> {
+                return lease;
+            }
+            default -> {
+                if (closed) throw new SQLException("Statement is closed");
+                try {
+                    Object result = method.invoke(physical, args);
+                    if (result instanceof ResultSet rs) results.add(rs);
+                    return result;
+                } catch (InvocationTargetException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof SQLException) {
+                        SqlMetrics.failed(cause);
+                        failure = cause;
+                    }
+                    throw cause;
+                }
+            }
+        }
+    }
+
+    private void close() throws SQLException {
+        if (closed) return;
+        closed = true;
+        if (failure == null) timer.record(opened);
+        else timer.fail(opened, failure);
+
+        // Closed after its connection went back to the pool: someone else owns the cache now.
+        if (failure != null || !cache.enabled() || lease.isClosed()) {
+            results.clear();
+            closePhysical();
+            return;
+        }
+        try {
+            for (ResultSet rs : results) rs.close();
+            results.clear();
+            physical.clearParameters();
+            physical.clearBatch();
+        } catch (SQLException e) {
+            closePhysical();
+            return;
+        }
+        cache.giveBack(this);
+    }
+
+    void closePhysical() {
+        try {
+            physical.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package kz.cinego.app.db;
+
+import kz.cinego.app.config.MetricsConfig;
+import kz.cinego.app.metrics.Metrics;
+import kz.cinego.app.metrics.Timer;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statement and transaction instrumentation for pooled connections. Each
+ * prepared statement is timed from prepare to close (see
+ * {@link PooledStatement}), which for the repositories is the whole method
+ * body, under the name of the repository method that prepared it
+ * ("repository.BookingRepository.findById"). The name is taken from the
+ * call stack the first time a SQL string is seen.
+ */
+final class SqlMetrics {
+
+    static final Timer TXN_COMMIT = Metrics.timer("db.txn.commit");
+    static final Timer TXN_ROLLBACK = Metrics.timer("db.txn.rollback");
+    static final LongAdder TXN_ABANDONED = Metrics.counter("db.txn.abandoned");
+    static final LongAdder BUSY = Metrics.counter("db.busy");
+    static final LongAdder LOCKED = Metrics.counter("db.locked");
+
+    private static final Map<String, Timer> BY_SQL = new ConcurrentHashMap<>();
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private SqlMetrics() {
+        throw new AssertionError("Cannot instantiate utility class");
+    }
+
+    static void failed(Throwable e) {
+        int code = primaryCode(e);
+        if (code == SQLiteErrorCode.SQLITE_BUSY.code) BUSY.increment();
+        else if (code == SQLiteErrorCode.SQLITE_LOCKED.code) LOCKED.increment();
+    }
+
+    // Primary SQLite result code (extended codes folded), -1 if e is not a SQL error.
+    static int primaryCode(Throwable e) {
+        if (e instanceof SQLiteException sqlite) return sqlite.getResultCode().code & 0xff;
+        if (e instanceof SQLException sql) return sql.getErrorCode() & 0xff;
+        return -1;
+    }
+
+    static Timer timerFor(String sql) {
+        Timer timer = BY_SQL.get(sql);
+        if (timer != null) return timer;
+        timer = Metrics.timer(caller());
+        // Statements built per call (IN lists) would grow this without bound.
+        if (BY_SQL.size() < MetricsConfig.MAX_STATEMENTS) BY_SQL.put(sql, timer);
+        return timer;
+    }
+
+    private static String caller() {
+        return WALKER.walk(frames -> frames
+                .filter(f -> !isPlumbing(f.getClassName()))
+                .findFirst()
+                .map(f -> {
+                    String cls = f.getClassName();
+                    String simple = cls.substring(cls.lastIndexOf('.') + 1);
+                    String method = f.getMethodName();
+                    if (method.startsWith("lambda$")) {
+                        method = method.substring(7, Math.max(7, method.indexOf('$', 7)));
+                    }
+                    String prefix = cls.startsWith("kz.cinego.app.repository.") ? "repository." : "sql.";
+                    return prefix + simple + "." + method;
+                })
+                .orElse("sql.unknown"));
+    }
+
+    private static boolean isPlumbing(String cls) {
+        return cls.equals(SqlMetrics.class.getName())
+                || cls.equals(PooledStatement.class.getName())
+                || cls.startsWith(ConnectionPool.class.getName())
+                || cls.startsWith("java.")
+                || cls.startsWith("jdk.")
+                || cls.startsWith("com.sun.")
+                || cls.startsWith("org.sqlite.")
+                || cls.contains("$Proxy");
+    }
+}
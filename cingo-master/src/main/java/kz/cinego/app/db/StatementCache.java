@@ -0,0 +1,65 @@
+package kz.cinego.app.db;
+
+import kz.cinego.app.metrics.Metrics;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compiled statements of one physical connection, keyed by SQL text, least
+ * recently used evicted first. A statement is taken out while in use and
+ * put back on close, so two open statements never share a compiled one.
+ * Only the thread that has the connection checked out touches the cache.
+ */
+final class StatementCache {
+
+    private static final LongAdder HITS = Metrics.counter("db.stmt.cacheHit");
+    private static final LongAdder MISSES = Metrics.counter("db.stmt.cacheMiss");
+    private static final LongAdder EVICTIONS = Metrics.counter("db.stmt.evicted");
+
+    private final int capacity;
+    // Separate maps so RETURN_GENERATED_KEYS needs no composite key.
+    private final LinkedHashMap<String, PooledStatement> plain;
+    private final LinkedHashMap<String, PooledStatement> withKeys;
+
+    StatementCache(int capacity) {
+        this.capacity = capacity;
+        this.plain = new LinkedHashMap<>(16, 0.75f, true);
+        this.withKeys = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    boolean enabled() {
+        return capacity > 0;
+    }
+
+    PooledStatement take(String sql, boolean generatedKeys) {
+        if (capacity <= 0) return null;
+        PooledStatement statement = (generatedKeys ? withKeys : plain).remove(sql);
+        if (statement == null) MISSES.increment();
+        else HITS.increment();
+        return statement;
+    }
+
+    void giveBack(PooledStatement statement) {
+        Map<String, PooledStatement> map = statement.generatedKeys() ? withKeys : plain;
+        PooledStatement previous = map.put(statement.sql(), statement);
+        if (previous != null && previous != statement) previous.closePhysical();
+
+        while (plain.size() + withKeys.size() > capacity) {
+            Map<String, PooledStatement> from = plain.size() >= withKeys.size() ? plain : withKeys;
+            Iterator<PooledStatement> eldest = from.values().iterator();
+            eldest.next().closePhysical();
+            eldest.remove();
+            EVICTIONS.increment();
+        }
+    }
+
+    void clear() {
+        for (PooledStatement s : plain.values()) s.closePhysical();
+        for (PooledStatement s : withKeys.values()) s.closePhysical();
+        plain.clear();
+        withKeys.clear();
+    }
+}
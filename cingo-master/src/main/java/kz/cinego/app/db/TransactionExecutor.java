@@ -0,0 +1,133 @@
+package kz.cinego.app.db;
+
+import kz.cinego.app.config.DbConfig;
+import kz.cinego.app.metrics.Metrics;
+import org.sqlite.SQLiteErrorCode;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs a unit of work in a write transaction and replays all of it when
+ * SQLite reports the database busy or locked, typically another process
+ * holding the write lock longer than busy_timeout. Each replay starts on a
+ * fresh checkout of the writer after a full-jitter exponential backoff,
+ * until {@link DbConfig#TX_RETRY_DEADLINE_MS} has passed.
+ *
+ * The work must keep its effects inside the transaction: in-memory state
+ * is updated in the after-commit step, which runs exactly once, still on
+ * the writer connection. A failing after-commit step does not fail the
+ * write, whose rows are committed; the step must leave its caches able to
+ * reload. Retries are counted as db.txn.retries, runs that ran out of time
+ * as db.txn.gaveUp and failed after-commit steps as db.txn.afterCommitFailed.
+ */
+public final class TransactionExecutor {
+
+    @FunctionalInterface
+    public interface Work<T> {
+        T run(Connection conn) throws SQLException;
+    }
+
+    @FunctionalInterface
+    public interface AfterCommit<T> {
+        void run(Connection conn, T result) throws SQLException;
+    }
+
+    private static final LongAdder RETRIES = Metrics.counter("db.txn.retries");
+    private static final LongAdder GAVE_UP = Metrics.counter("db.txn.gaveUp");
+    private static final LongAdder AFTER_COMMIT_FAILED = Metrics.counter("db.txn.afterCommitFailed");
+
+    private final long deadlineMs;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+
+    public TransactionExecutor() {
+        this(DbConfig.TX_RETRY_DEADLINE_MS, DbConfig.TX_RETRY_BACKOFF_BASE_MS, DbConfig.TX_RETRY_BACKOFF_MAX_MS);
+    }
+
+    public TransactionExecutor(long deadlineMs, long backoffBaseMs, long backoffMaxMs) {
+        this.deadlineMs = deadlineMs;
+        this.backoffBaseMs = backoffBaseMs;
+        this.backoffMaxMs = backoffMaxMs;
+    }
+
+    public <T> T write(Work<T> work) throws SQLException {
+        return write(work, null);
+    }
+
+    public <T> T write(Work<T> work, AfterCommit<T> afterCommit) throws SQLException {
+        long deadline = System.nanoTime() + deadlineMs * 1_000_000;
+        for (int attempt = 1; ; attempt++) {
+            boolean committed = false;
+            try (Connection conn = Database.getWriteConnection()) {
+                T result;
+                try {
+                    conn.setAutoCommit(false);
+                    result = work.run(conn);
+                    conn.commit();
+                    committed = true;
+                } catch (SQLException | RuntimeException e) {
+                    rollbackQuietly(conn);
+                    throw e;
+                }
+                if (afterCommit != null) {
+                    try {
+                        afterCommit.run(conn, result);
+                    } catch (SQLException | RuntimeException e) {
+                        // Committed: reporting a failure would invite the caller to do it again.
+                        AFTER_COMMIT_FAILED.increment();
+                    }
+                }
+                return result;
+
+            } catch (SQLException | RuntimeException e) {
+                // Once committed the work must not run again, whatever fails after.
+                if (committed || !isBusy(e)) throw e;
+
+                long pause = backoff(attempt);
+                if (System.nanoTime() + pause * 1_000_000 > deadline) {
+                    GAVE_UP.increment();
+                    throw gaveUp(e, attempt);
+                }
+                RETRIES.increment();
+                try {
+                    Thread.sleep(pause);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw gaveUp(e, attempt);
+                }
+            }
+        }
+    }
+
+    // SQLITE_BUSY or SQLITE_LOCKED (any extended code) anywhere in the cause chain.
+    public static boolean isBusy(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            int code = SqlMetrics.primaryCode(t);
+            if (code == SQLiteErrorCode.SQLITE_BUSY.code || code == SQLiteErrorCode.SQLITE_LOCKED.code) return true;
+        }
+        return false;
+    }
+
+    // Uniform in [1, min(max, base * 2^(attempt-1))] ms.
+    private long backoff(int attempt) {
+        long cap = backoffBaseMs << Math.min(attempt - 1, 20);
+        cap = Math.max(1, Math.min(backoffMaxMs, cap));
+        return ThreadLocalRandom.current().nextLong(1, cap + 1);
+    }
+
+    private static SQLException gaveUp(Exception e, int attempts) {
+        String message = "Database busy, gave up after " + attempts + " attempts: " + e.getMessage();
+        if (e instanceof SQLException sql) return new SQLException(message, sql.getSQLState(), sql.getErrorCode(), e);
+        return new SQLException(message, e);
+    }
+
+    private static void rollbackQuietly(Connection conn) {
+        try {
+            if (!conn.getAutoCommit()) conn.rollback();
+        } catch (SQLException ignored) {
+        }
+    }
+}
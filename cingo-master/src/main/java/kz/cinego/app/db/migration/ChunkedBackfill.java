@@ -0,0 +1,35 @@
+package kz.cinego.app.db.migration;
+
+import kz.cinego.app.config.DbConfig;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * A data backfill walked over an integer key range in short transactions.
+ * The upper bound is fixed when the owning migration is applied; rows
+ * written after that already come from code that maintains the new shape.
+ */
+public abstract class ChunkedBackfill {
+
+    public abstract String name();
+
+    // Upper bound of the key range, read inside the migration transaction.
+    protected abstract long maxKey(Connection conn) throws SQLException;
+
+    protected abstract void processRange(Connection conn, long fromExclusive, long toInclusive) throws SQLException;
+
+    public int chunkSize() {
+        return DbConfig.BACKFILL_CHUNK_SIZE;
+    }
+
+    protected static long maxId(Connection conn, String table) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
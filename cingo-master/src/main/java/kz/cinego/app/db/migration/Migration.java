@@ -0,0 +1,23 @@
+package kz.cinego.app.db.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * One schema version. {@link #apply} runs in a single transaction together
+ * with the version bump; data that is too large for that goes into
+ * {@link #backfills()}, which the runner processes afterwards in chunks.
+ */
+public interface Migration {
+
+    int version();
+
+    String description();
+
+    void apply(Connection conn) throws SQLException;
+
+    default List<ChunkedBackfill> backfills() {
+        return List.of();
+    }
+}
@@ -0,0 +1,208 @@
+package kz.cinego.app.db.migration;
+
+import kz.cinego.app.config.DbConfig;
+import kz.cinego.app.db.Database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Brings the schema to the latest version. PRAGMA user_version is the
+ * authoritative version; schema_migrations keeps the history and
+ * schema_backfills the progress of chunked data backfills, so an
+ * interrupted backfill resumes where it stopped on the next start.
+ * Everything runs before migrate returns, so the application starts
+ * serving only once the schema and its data are current.
+ */
+public final class MigrationRunner {
+
+    private MigrationRunner() {
+        throw new AssertionError("No instances");
+    }
+
+    // The migrations applied by this call, oldest first.
+    public static List<Migration> migrate() {
+        return migrate(Migrations.all());
+    }
+
+    public static List<Migration> migrate(List<Migration> migrations) {
+        List<Migration> applied = new ArrayList<>();
+        Map<String, ChunkedBackfill> backfills = new HashMap<>();
+        try (Connection conn = Database.getWriteConnection()) {
+            createBookkeepingTables(conn);
+            int current = userVersion(conn);
+            int previous = 0;
+            for (Migration m : migrations) {
+                if (m.version() <= previous) {
+                    throw new IllegalStateException("Migrations out of order at version " + m.version());
+                }
+                previous = m.version();
+                for (ChunkedBackfill b : m.backfills()) {
+                    backfills.put(b.name(), b);
+                }
+                if (m.version() > current) {
+                    apply(conn, m);
+                    applied.add(m);
+                    current = m.version();
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Migration failed: " + e.getMessage(), e);
+        }
+        runPendingBackfills(backfills);
+        return applied;
+    }
+
+    private static void apply(Connection conn, Migration m) throws SQLException {
+        long started = System.nanoTime();
+        conn.setAutoCommit(false);
+        try {
+            m.apply(conn);
+            for (ChunkedBackfill b : m.backfills()) {
+                registerBackfill(conn, b);
+            }
+            try (PreparedStatement ps = conn.prepareStatement("""
+                INSERT INTO schema_migrations(version, description, applied_at, duration_ms)
+                VALUES (?, ?, datetime('now'), ?)
+            """)) {
+                ps.setInt(1, m.version());
+                ps.setString(2, m.description());
+                ps.setLong(3, (System.nanoTime() - started) / 1_000_000);
+                ps.executeUpdate();
+            }
+            // PRAGMA takes no bind parameters; the version is an int we own.
+            try (Statement st = conn.createStatement()) {
+                st.execute("PRAGMA user_version = " + m.version());
+            }
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static void registerBackfill(Connection conn, ChunkedBackfill b) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("""
+            INSERT OR IGNORE INTO schema_backfills(name, last_key, max_key, done, updated_at)
+            VALUES (?, 0, ?, 0, datetime('now'))
+        """)) {
+            ps.setString(1, b.name());
+            ps.setLong(2, b.maxKey(conn));
+            ps.executeUpdate();
+        }
+    }
+
+    // Each chunk is its own short write transaction and the writer is given
+    // back between chunks, so other processes on the same file are only held
+    // up for one chunk and an interrupted backfill loses at most one chunk.
+    private static void runPendingBackfills(Map<String, ChunkedBackfill> known) {
+        for (BackfillState state : pendingBackfills()) {
+            ChunkedBackfill b = known.get(state.name());
+            if (b == null) {
+                throw new IllegalStateException("Unknown backfill: " + state.name());
+            }
+            long last = state.lastKey();
+            while (last < state.maxKey()) {
+                long to = Math.min(state.maxKey(), last + b.chunkSize());
+                runChunk(b, last, to, to >= state.maxKey());
+                last = to;
+                pause();
+            }
+            if (state.maxKey() == 0) {
+                runChunk(b, 0, 0, true);
+            }
+        }
+    }
+
+    private static void runChunk(ChunkedBackfill b, long from, long to, boolean last) {
+        try (Connection conn = Database.getWriteConnection()) {
+            conn.setAutoCommit(false);
+            if (to > from) {
+                b.processRange(conn, from, to);
+            }
+            try (PreparedStatement ps = conn.prepareStatement("""
+                UPDATE schema_backfills
+                SET last_key = ?, done = ?, updated_at = datetime('now')
+                WHERE name = ?
+            """)) {
+                ps.setLong(1, to);
+                ps.setInt(2, last ? 1 : 0);
+                ps.setString(3, b.name());
+                ps.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            throw new RuntimeException("Backfill " + b.name() + " failed at key " + from + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static List<BackfillState> pendingBackfills() {
+        try (Connection conn = Database.getWriteConnection();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("""
+                SELECT name, last_key, max_key FROM schema_backfills
+                WHERE done = 0
+                ORDER BY rowid
+             """)) {
+            List<BackfillState> list = new ArrayList<>();
+            while (rs.next()) {
+                list.add(new BackfillState(rs.getString(1), rs.getLong(2), rs.getLong(3)));
+            }
+            return list;
+        } catch (SQLException e) {
+            throw new RuntimeException("Migration failed: " + e.getMessage(), e);
+        }
+    }
+
+    private static void createBookkeepingTables(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS schema_migrations (
+                  version INTEGER PRIMARY KEY,
+                  description TEXT NOT NULL,
+                  applied_at TEXT NOT NULL,
+                  duration_ms INTEGER NOT NULL
+                );
+            """);
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS schema_backfills (
+                  name TEXT PRIMARY KEY,
+                  last_key INTEGER NOT NULL,
+                  max_key INTEGER NOT NULL,
+                  done INTEGER NOT NULL DEFAULT 0,
+                  updated_at TEXT NOT NULL
+                );
+            """);
+        }
+    }
+
+    private static int userVersion(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void pause() {
+        if (DbConfig.BACKFILL_PAUSE_MS <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(DbConfig.BACKFILL_PAUSE_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record BackfillState(String name, long lastKey, long maxKey) {
+    }
+}
@@ -0,0 +1,26 @@
+package kz.cinego.app.db.migration;
+
+import java.util.List;
+
+public final class Migrations {
+
+    private Migrations() {
+        throw new AssertionError("No instances");
+    }
+
+    // Append only, in version order; never edit a migration that has shipped.
+    public static List<Migration> all() {
+        return List.of(
+                new V1BaseSchema(),
+                new V2HotPathIndexes(),
+                new V3MinorUnitMoney(),
+                new V4PricingRules(),
+                new V5Payments(),
+                new V6BookingEvents(),
+                new V7LoyaltyLedger(),
+                new V8BookingExpiry(),
+                new V9ScreeningHallIndex(),
+                new V10BookingUserIndex()
+        );
+    }
+}
@@ -0,0 +1,26 @@
+package kz.cinego.app.db.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// A user's bookings newest first, one keyset page at a time.
+final class V10BookingUserIndex implements Migration {
+
+    @Override
+    public int version() {
+        return 10;
+    }
+
+    @Override
+    public String description() {
+        return "bookings by user";
+    }
+
+    @Override
+    public void apply(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE INDEX IF NOT EXISTS idx_bookings_user ON bookings(user_id, id)");
+        }
+    }
+}
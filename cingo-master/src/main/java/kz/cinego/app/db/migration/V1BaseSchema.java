@@ -0,0 +1,171 @@
+package kz.cinego.app.db.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * The schema DbInit used to create unconditionally. Every statement is
+ * IF NOT EXISTS, so databases created before versioning adopt it as-is.
+ */
+final class V1BaseSchema implements Migration {
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public String description() {
+        return "base schema";
+    }
+
+    @Override
+    public void apply(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS movies (
+                  id INTEGER PRIMARY KEY AUTOINCREMENT,
+                  title TEXT NOT NULL,
+                  genre TEXT,
+                  duration_min INTEGER NOT NULL,
+                  age_rating TEXT
+                );
+            """);
+
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS halls (
+                  id INTEGER PRIMARY KEY AUTOINCREMENT,
+                  name TEXT NOT NULL,
+                  rows_count INTEGER NOT NULL,
+                  cols_count INTEGER NOT NULL
+                );
+            """);
+
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS seats (
+                  id INTEGER PRIMARY KEY AUTOINCREMENT,
+                  hall_id INTEGER NOT NULL,
+                  row_num INTEGER NOT NULL,
+                  col_num INTEGER NOT NULL,
+                  seat_type TEXT NOT NULL,
+                  UNIQUE(hall_id, row_num, col_num),
+                  FOREIGN KEY (hall_id) REFERENCES halls(id) ON DELETE CASCADE
+                );
+            """);
+
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS screenings (
+                  id INTEGER PRIMARY KEY AUTOINCREMENT,
+                  movie_id INTEGER NOT NULL,
+                  hall_id INTEGER NOT NULL,
+                  start_time TEXT NOT NULL,
+                  base_price NUMERIC NOT NULL,
+                  FOREIGN KEY (movie_id) REFERENCES movies(id),
+                  FOREIGN KEY (hall_id) REFERENCES halls(id)
+                );
+            """);
+
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS users (
+                  id INTEGER PRIMARY KEY AUTOINCREMENT,
+                  full_name TEXT NOT NULL,
+                  phone TEXT,
+                  role TEXT NOT NULL,
+                  loyalty_points INTEGER NOT NULL DEFAULT 0
+                );
+            """);
+
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS bookings (
+                  id INTEGER PRIMARY KEY AUTOINCREMENT,
+                  user_id INTEGER NOT NULL,
+                  screening_id INTEGER NOT NULL,
+                  status TEXT NOT NULL,
+                  total_price NUMERIC NOT NULL,
+                  created_at TEXT NOT NULL,
+                  paid_at TEXT,
+                  cancelled_at TEXT,
+                  refund_amount NUMERIC DEFAULT 0,
+                  FOREIGN KEY (user_id) REFERENCES users(id),
+                  FOREIGN KEY (screening_id) REFERENCES screenings(id)
+                );
+            """);
+
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS booking_items (
+                  id INTEGER PRIMARY KEY AUTOINCREMENT,
+                  booking_id INTEGER NOT NULL,
+                  seat_id INTEGER NOT NULL,
+                  price NUMERIC NOT NULL,
+                  UNIQUE(booking_id, seat_id),
+                  FOREIGN KEY (booking_id) REFERENCES bookings(id) ON DELETE CASCADE,
+                  FOREIGN KEY (seat_id) REFERENCES seats(id)
+                );
+            """);
+
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS seat_holds (
+                  token TEXT PRIMARY KEY,
+                  user_id INTEGER NOT NULL,
+                  screening_id INTEGER NOT NULL,
+                  seats TEXT NOT NULL,
+                  expires_at INTEGER NOT NULL,
+                  FOREIGN KEY (user_id) REFERENCES users(id),
+                  FOREIGN KEY (screening_id) REFERENCES screenings(id)
+                );
+            """);
+
+            // One row per seat taken in a screening; the primary key is what
+            // makes double-booking impossible regardless of who writes.
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS seat_claims (
+                  screening_id INTEGER NOT NULL,
+                  seat_id INTEGER NOT NULL,
+                  booking_id INTEGER NOT NULL,
+                  PRIMARY KEY (screening_id, seat_id),
+                  FOREIGN KEY (screening_id) REFERENCES screenings(id),
+                  FOREIGN KEY (seat_id) REFERENCES seats(id),
+                  FOREIGN KEY (booking_id) REFERENCES bookings(id) ON DELETE CASCADE
+                ) WITHOUT ROWID;
+            """);
+        }
+    }
+
+    @Override
+    public List<ChunkedBackfill> backfills() {
+        return List.of(new SeatClaimsBackfill());
+    }
+
+    // Claims for bookings written before seat_claims existed.
+    static final class SeatClaimsBackfill extends ChunkedBackfill {
+
+        @Override
+        public String name() {
+            return "seat_claims";
+        }
+
+        @Override
+        protected long maxKey(Connection conn) throws SQLException {
+            return maxId(conn, "bookings");
+        }
+
+        @Override
+        protected void processRange(Connection conn, long fromExclusive, long toInclusive) throws SQLException {
+            try (PreparedStatement ps = conn.prepareStatement("""
+                INSERT OR IGNORE INTO seat_claims(screening_id, seat_id, booking_id)
+                SELECT b.screening_id, bi.seat_id, b.id
+                FROM bookings b
+                JOIN booking_items bi ON bi.booking_id = b.id
+                WHERE b.id > ? AND b.id <= ?
+                  AND b.status IN ('CREATED','PAID')
+            """)) {
+                ps.setLong(1, fromExclusive);
+                ps.setLong(2, toInclusive);
+                ps.executeUpdate();
+            }
+        }
+    }
+}
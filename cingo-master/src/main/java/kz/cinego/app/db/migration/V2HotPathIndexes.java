@@ -0,0 +1,30 @@
+package kz.cinego.app.db.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Access paths of the booking hot path; QueryPlanCheck verifies they are used.
+final class V2HotPathIndexes implements Migration {
+
+    @Override
+    public int version() {
+        return 2;
+    }
+
+    @Override
+    public String description() {
+        return "hot-path indexes";
+    }
+
+    @Override
+    public void apply(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE INDEX IF NOT EXISTS idx_bookings_screening_status ON bookings(screening_id, status)");
+            st.execute("CREATE INDEX IF NOT EXISTS idx_booking_items_seat ON booking_items(seat_id, booking_id)");
+            st.execute("CREATE INDEX IF NOT EXISTS idx_screenings_movie_start ON screenings(movie_id, start_time)");
+            st.execute("CREATE INDEX IF NOT EXISTS idx_seat_claims_booking ON seat_claims(booking_id)");
+            st.execute("CREATE INDEX IF NOT EXISTS idx_seat_holds_expires ON seat_holds(expires_at)");
+        }
+    }
+}
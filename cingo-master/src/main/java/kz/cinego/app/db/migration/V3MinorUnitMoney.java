@@ -0,0 +1,76 @@
+package kz.cinego.app.db.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Money moves to INTEGER tiyn columns. The NUMERIC columns stay and are
+ * still written (derived from the tiyn value) for readers that predate
+ * this version; the application only reads the *_minor columns.
+ */
+final class V3MinorUnitMoney implements Migration {
+
+    @Override
+    public int version() {
+        return 3;
+    }
+
+    @Override
+    public String description() {
+        return "money in minor units";
+    }
+
+    @Override
+    public void apply(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("ALTER TABLE screenings ADD COLUMN base_price_minor INTEGER");
+            st.execute("ALTER TABLE bookings ADD COLUMN total_minor INTEGER");
+            st.execute("ALTER TABLE bookings ADD COLUMN refund_minor INTEGER NOT NULL DEFAULT 0");
+            st.execute("ALTER TABLE booking_items ADD COLUMN price_minor INTEGER");
+        }
+    }
+
+    @Override
+    public List<ChunkedBackfill> backfills() {
+        return List.of(
+                new ToMinorUnits("screenings", "base_price_minor = CAST(ROUND(base_price * 100) AS INTEGER)"),
+                new ToMinorUnits("bookings", """
+                    total_minor = CAST(ROUND(total_price * 100) AS INTEGER),
+                    refund_minor = CAST(ROUND(COALESCE(refund_amount, 0) * 100) AS INTEGER)"""),
+                new ToMinorUnits("booking_items", "price_minor = CAST(ROUND(price * 100) AS INTEGER)")
+        );
+    }
+
+    private static final class ToMinorUnits extends ChunkedBackfill {
+        private final String table;
+        private final String assignments;
+
+        ToMinorUnits(String table, String assignments) {
+            this.table = table;
+            this.assignments = assignments;
+        }
+
+        @Override
+        public String name() {
+            return table + "_minor_units";
+        }
+
+        @Override
+        protected long maxKey(Connection conn) throws SQLException {
+            return maxId(conn, table);
+        }
+
+        @Override
+        protected void processRange(Connection conn, long fromExclusive, long toInclusive) throws SQLException {
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "UPDATE " + table + " SET " + assignments + " WHERE id > ? AND id <= ?")) {
+                ps.setLong(1, fromExclusive);
+                ps.setLong(2, toInclusive);
+                ps.executeUpdate();
+            }
+        }
+    }
+}
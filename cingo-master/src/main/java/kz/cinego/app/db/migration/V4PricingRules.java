@@ -0,0 +1,35 @@
+package kz.cinego.app.db.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Seeds the two multipliers PricingService used to hard-code, so prices do not move.
+final class V4PricingRules implements Migration {
+
+    @Override
+    public int version() {
+        return 4;
+    }
+
+    @Override
+    public String description() {
+        return "pricing rules";
+    }
+
+    @Override
+    public void apply(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS pricing_rules (
+                  id INTEGER PRIMARY KEY AUTOINCREMENT,
+                  kind TEXT NOT NULL,
+                  param TEXT NOT NULL,
+                  percent INTEGER NOT NULL CHECK (percent > 0)
+                );
+            """);
+            st.execute("INSERT INTO pricing_rules(kind, param, percent) VALUES ('SEAT_TYPE', 'VIP', 130)");
+            st.execute("INSERT INTO pricing_rules(kind, param, percent) VALUES ('TIME_BAND', '18:00-22:00', 120)");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package kz.cinego.app.db.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * One row per external payment ID and its final outcome, so a repeated
+ * callback returns the recorded result instead of paying twice. No foreign
+ * key on booking_id: rejections for unknown bookings are recorded too.
+ */
+final class V5Payments implements Migration {
+
+    @Override
+    public int version() {
+        return 5;
+    }
+
+    @Override
+    public String description() {
+        return "payments";
+    }
+
+    @Override
+    public void apply(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS payments (
+                  payment_id TEXT PRIMARY KEY,
+                  booking_id INTEGER NOT NULL,
+                  amount_minor INTEGER,
+                  status TEXT NOT NULL,
+                  error TEXT,
+                  processed_at TEXT NOT NULL
+                ) WITHOUT ROWID;
+            """);
+            st.execute("CREATE INDEX IF NOT EXISTS idx_payments_booking ON payments(booking_id)");
+        }
+    }
+}
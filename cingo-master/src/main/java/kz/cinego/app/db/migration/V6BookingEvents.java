@@ -0,0 +1,135 @@
+package kz.cinego.app.db.migration;
+
+import kz.cinego.app.entity.BookingEvent;
+import kz.cinego.app.entity.BookingEvent.BookingCancelled;
+import kz.cinego.app.entity.BookingEvent.BookingCreated;
+import kz.cinego.app.entity.BookingEvent.BookingPaid;
+import kz.cinego.app.entity.Money;
+import kz.cinego.app.repository.BookingEventRepository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The booking journal and projection snapshots. Bookings that predate the
+ * journal get synthetic events from their current row, so replaying the
+ * journal from zero reproduces today's state.
+ */
+final class V6BookingEvents implements Migration {
+
+    @Override
+    public int version() {
+        return 6;
+    }
+
+    @Override
+    public String description() {
+        return "booking event journal";
+    }
+
+    @Override
+    public void apply(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS booking_events (
+                  seq INTEGER PRIMARY KEY AUTOINCREMENT,
+                  type INTEGER NOT NULL,
+                  booking_id INTEGER NOT NULL,
+                  user_id INTEGER NOT NULL,
+                  screening_id INTEGER NOT NULL,
+                  amount_minor INTEGER NOT NULL,
+                  points INTEGER NOT NULL,
+                  flag INTEGER NOT NULL,
+                  seats BLOB,
+                  occurred_at TEXT NOT NULL
+                );
+            """);
+            st.execute("CREATE INDEX IF NOT EXISTS idx_booking_events_booking ON booking_events(booking_id)");
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS projection_snapshots (
+                  name TEXT PRIMARY KEY,
+                  seq INTEGER NOT NULL,
+                  data BLOB NOT NULL,
+                  taken_at TEXT NOT NULL
+                );
+            """);
+        }
+    }
+
+    @Override
+    public List<ChunkedBackfill> backfills() {
+        return List.of(new JournalBackfill());
+    }
+
+    private static final class JournalBackfill extends ChunkedBackfill {
+
+        private final BookingEventRepository events = new BookingEventRepository();
+
+        @Override
+        public String name() {
+            return "booking_events";
+        }
+
+        @Override
+        protected long maxKey(Connection conn) throws SQLException {
+            return maxId(conn, "bookings");
+        }
+
+        @Override
+        protected void processRange(Connection conn, long fromExclusive, long toInclusive) throws SQLException {
+            List<BookingEvent> batch = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement("""
+                SELECT b.*, (SELECT group_concat(bi.seat_id) FROM booking_items bi WHERE bi.booking_id = b.id) AS seat_ids
+                FROM bookings b
+                WHERE b.id > ? AND b.id <= ?
+                ORDER BY b.id
+            """)) {
+                ps.setLong(1, fromExclusive);
+                ps.setLong(2, toInclusive);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) addEvents(rs, batch);
+                }
+            }
+            events.appendAll(conn, batch);
+        }
+
+        private static void addEvents(ResultSet rs, List<BookingEvent> into) throws SQLException {
+            long id = rs.getLong("id");
+            long userId = rs.getLong("user_id");
+            long screeningId = rs.getLong("screening_id");
+            long[] seats = parseIds(rs.getString("seat_ids"));
+            Money total = Money.ofMinor(rs.getLong("total_minor"));
+            String paidAt = rs.getString("paid_at");
+            String cancelledAt = rs.getString("cancelled_at");
+
+            into.add(new BookingCreated(0, id, userId, screeningId, seats, total, 0,
+                    LocalDateTime.parse(rs.getString("created_at"))));
+            if (paidAt != null) {
+                // Earn rate as of this version: one point per 100 tenge.
+                into.add(new BookingPaid(0, id, userId, screeningId, seats, total,
+                        (int) (total.minor() / 10_000), LocalDateTime.parse(paidAt)));
+            }
+            if ("CANCELLED".equals(rs.getString("status"))) {
+                LocalDateTime at = cancelledAt != null
+                        ? LocalDateTime.parse(cancelledAt)
+                        : LocalDateTime.parse(rs.getString("created_at"));
+                into.add(new BookingCancelled(0, id, userId, screeningId, seats,
+                        Money.ofMinor(rs.getLong("refund_minor")), paidAt != null, at));
+            }
+        }
+
+        private static long[] parseIds(String csv) {
+            if (csv == null || csv.isEmpty()) return new long[0];
+            String[] parts = csv.split(",");
+            long[] ids = new long[parts.length];
+            for (int i = 0; i < parts.length; i++) ids[i] = Long.parseLong(parts[i]);
+            return ids;
+        }
+    }
+}
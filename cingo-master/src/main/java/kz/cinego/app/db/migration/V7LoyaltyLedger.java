@@ -0,0 +1,92 @@
+package kz.cinego.app.db.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Loyalty points become a ledger. users.loyalty_points is kept as the
+ * balance reconciled up to users.points_seq; the live balance is that plus
+ * the ledger entries after it. Existing balances get an opening entry.
+ */
+final class V7LoyaltyLedger implements Migration {
+
+    @Override
+    public int version() {
+        return 7;
+    }
+
+    @Override
+    public String description() {
+        return "loyalty points ledger";
+    }
+
+    @Override
+    public void apply(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS loyalty_ledger (
+                  id INTEGER PRIMARY KEY AUTOINCREMENT,
+                  user_id INTEGER NOT NULL,
+                  booking_id INTEGER,
+                  kind INTEGER NOT NULL,
+                  points INTEGER NOT NULL,
+                  held INTEGER NOT NULL,
+                  created_at TEXT NOT NULL
+                );
+            """);
+            st.execute("CREATE INDEX IF NOT EXISTS idx_loyalty_ledger_user ON loyalty_ledger(user_id, id)");
+            st.execute("""
+                CREATE INDEX IF NOT EXISTS idx_loyalty_ledger_booking
+                ON loyalty_ledger(booking_id) WHERE booking_id IS NOT NULL
+            """);
+            st.execute("ALTER TABLE users ADD COLUMN points_seq INTEGER NOT NULL DEFAULT 0");
+        }
+    }
+
+    @Override
+    public List<ChunkedBackfill> backfills() {
+        return List.of(new OpeningBalances());
+    }
+
+    private static final class OpeningBalances extends ChunkedBackfill {
+
+        @Override
+        public String name() {
+            return "loyalty_opening_balances";
+        }
+
+        @Override
+        protected long maxKey(Connection conn) throws SQLException {
+            return maxId(conn, "users");
+        }
+
+        @Override
+        protected void processRange(Connection conn, long fromExclusive, long toInclusive) throws SQLException {
+            // Kind 0 is LoyaltyEntry.Kind.OPENING.
+            try (PreparedStatement open = conn.prepareStatement("""
+                INSERT INTO loyalty_ledger(user_id, booking_id, kind, points, held, created_at)
+                SELECT id, NULL, 0, loyalty_points, 0, ?
+                FROM users
+                WHERE id > ? AND id <= ? AND loyalty_points <> 0 AND points_seq = 0
+                ORDER BY id
+            """);
+                 PreparedStatement mark = conn.prepareStatement("""
+                UPDATE users
+                SET points_seq = COALESCE((SELECT MAX(l.id) FROM loyalty_ledger l WHERE l.user_id = users.id), 0)
+                WHERE id > ? AND id <= ?
+            """)) {
+                open.setString(1, LocalDateTime.now().toString());
+                open.setLong(2, fromExclusive);
+                open.setLong(3, toInclusive);
+                open.executeUpdate();
+                mark.setLong(1, fromExclusive);
+                mark.setLong(2, toInclusive);
+                mark.executeUpdate();
+            }
+        }
+    }
+}
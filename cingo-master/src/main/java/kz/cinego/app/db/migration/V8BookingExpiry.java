@@ -0,0 +1,29 @@
+package kz.cinego.app.db.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Partial index over unpaid bookings only: the expiry sweep reads them oldest first.
+final class V8BookingExpiry implements Migration {
+
+    @Override
+    public int version() {
+        return 8;
+    }
+
+    @Override
+    public String description() {
+        return "unpaid booking expiry index";
+    }
+
+    @Override
+    public void apply(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("""
+                CREATE INDEX IF NOT EXISTS idx_bookings_unpaid_created
+                ON bookings(created_at) WHERE status = 'CREATED'
+            """);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package kz.cinego.app.db.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Screenings of one hall in a time range: overlap checks of the schedule importer.
+final class V9ScreeningHallIndex implements Migration {
+
+    @Override
+    public int version() {
+        return 9;
+    }
+
+    @Override
+    public String description() {
+        return "screenings by hall and start";
+    }
+
+    @Override
+    public void apply(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE INDEX IF NOT EXISTS idx_screenings_hall_start ON screenings(hall_id, start_time)");
+        }
+    }
+}
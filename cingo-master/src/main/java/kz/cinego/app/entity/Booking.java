@@ -1,6 +1,5 @@
 package kz.cinego.app.entity;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 public record Booking(
@@ -8,9 +7,9 @@ public record Booking(
         long userId,
         long screeningId,
         String status,
-        BigDecimal totalPrice,
+        Money totalPrice,
         LocalDateTime createdAt,
         LocalDateTime paidAt,
         LocalDateTime cancelledAt,
-        BigDecimal refundAmount
+        Money refundAmount
 ) {}
@@ -0,0 +1,85 @@
+package kz.cinego.app.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entry of the append-only booking journal. seq is the journal position,
+ * 0 until the event has been appended. Every event carries the seat IDs it
+ * concerns so projections never have to look the booking up.
+ */
+public sealed interface BookingEvent {
+
+    long seq();
+
+    long bookingId();
+
+    long userId();
+
+    long screeningId();
+
+    long[] seatIds();
+
+    LocalDateTime occurredAt();
+
+    BookingEvent withSeq(long seq);
+
+    record BookingCreated(
+            long seq,
+            long bookingId,
+            long userId,
+            long screeningId,
+            long[] seatIds,
+            Money total,
+            int pointsUsed,
+            LocalDateTime occurredAt
+    ) implements BookingEvent {
+        public BookingCreated withSeq(long seq) {
+            return new BookingCreated(seq, bookingId, userId, screeningId, seatIds, total, pointsUsed, occurredAt);
+        }
+    }
+
+    record BookingPaid(
+            long seq,
+            long bookingId,
+            long userId,
+            long screeningId,
+            long[] seatIds,
+            Money amount,
+            int pointsEarned,
+            LocalDateTime occurredAt
+    ) implements BookingEvent {
+        public BookingPaid withSeq(long seq) {
+            return new BookingPaid(seq, bookingId, userId, screeningId, seatIds, amount, pointsEarned, occurredAt);
+        }
+    }
+
+    // wasPaid tells projections which side of the sale the seats leave.
+    record BookingCancelled(
+            long seq,
+            long bookingId,
+            long userId,
+            long screeningId,
+            long[] seatIds,
+            Money refund,
+            boolean wasPaid,
+            LocalDateTime occurredAt
+    ) implements BookingEvent {
+        public BookingCancelled withSeq(long seq) {
+            return new BookingCancelled(seq, bookingId, userId, screeningId, seatIds, refund, wasPaid, occurredAt);
+        }
+    }
+
+    // An unpaid booking released by the expiry sweep; nothing is refunded.
+    record BookingExpired(
+            long seq,
+            long bookingId,
+            long userId,
+            long screeningId,
+            long[] seatIds,
+            LocalDateTime occurredAt
+    ) implements BookingEvent {
+        public BookingExpired withSeq(long seq) {
+            return new BookingExpired(seq, bookingId, userId, screeningId, seatIds, occurredAt);
+        }
+    }
+}
@@ -0,0 +1,3 @@
+package kz.cinego.app.entity;
+
+public record Hall(long id, String name, int rowsCount, int colsCount) {}
@@ -0,0 +1,34 @@
+package kz.cinego.app.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * One loyalty_ledger row. {@code points} is the change to the spendable
+ * balance and {@code held} the change to the points reserved for
+ * {@code bookingId}:
+ *
+ * <pre>
+ * OPENING   +balance   0    balance carried over from users.loyalty_points
+ * EARN      +n         0    points earned by a payment
+ * RESERVE   -n         +n   points set aside when a booking is created
+ * COMMIT    0          -n   reserved points spent when the booking is paid
+ * RELEASE   +n         -n   reserved points returned when it is cancelled unpaid
+ * </pre>
+ *
+ * {@code bookingId} is null for OPENING.
+ */
+public record LoyaltyEntry(
+        long id,
+        long userId,
+        Long bookingId,
+        Kind kind,
+        int points,
+        int held,
+        LocalDateTime createdAt
+) {
+
+    // Stored by ordinal: append only.
+    public enum Kind {
+        OPENING, EARN, RESERVE, COMMIT, RELEASE
+    }
+}
@@ -0,0 +1,76 @@
+package kz.cinego.app.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * An amount in tenge held as a long of tiyn (1/100). Rates are expressed as
+ * a numerator over a denominator and rounded HALF_UP to the tiyn, which is
+ * what the BigDecimal code did with setScale(2, HALF_UP). The static
+ * methods work on raw minor units so hot loops never allocate.
+ */
+public record Money(long minor) implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    private static final int SCALE = 100;
+
+    public static Money ofMinor(long minor) {
+        return minor == 0 ? ZERO : new Money(minor);
+    }
+
+    // Accepts "1500", "1500.5" and "1500.50"; anything finer is rejected
+    // rather than silently rounded.
+    public static Money parse(String text) {
+        try {
+            return ofMinor(new BigDecimal(text.trim()).movePointRight(2).longValueExact());
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + text);
+        }
+    }
+
+    public Money times(long numerator, long denominator) {
+        return ofMinor(mulDivHalfUp(minor, numerator, denominator));
+    }
+
+    public boolean isZero() {
+        return minor == 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minor, other.minor);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(24);
+        appendTo(sb, minor);
+        return sb.toString();
+    }
+
+    // Plain "1234.50" form, the same text BigDecimal.toPlainString gave.
+    public static void appendTo(StringBuilder out, long minor) {
+        if (minor < 0) {
+            out.append('-');
+        }
+        long abs = Math.abs(minor);
+        long cents = abs % SCALE;
+        out.append(abs / SCALE).append('.');
+        if (cents < 10) {
+            out.append('0');
+        }
+        out.append(cents);
+    }
+
+    public static long mulDivHalfUp(long value, long numerator, long denominator) {
+        if (denominator <= 0) {
+            throw new IllegalArgumentException("Denominator must be positive: " + denominator);
+        }
+        long product = Math.multiplyExact(value, numerator);
+        long half = denominator / 2;
+        // HALF_UP rounds ties away from zero on both sides.
+        return product >= 0
+                ? (product + half) / denominator
+                : -((-product + half) / denominator);
+    }
+}
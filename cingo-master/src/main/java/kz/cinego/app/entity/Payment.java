@@ -0,0 +1,13 @@
+package kz.cinego.app.entity;
+
+import java.time.LocalDateTime;
+
+// status: SUCCEEDED or REJECTED; amount is null when the callback carried none.
+public record Payment(
+        String paymentId,
+        long bookingId,
+        Money amount,
+        String status,
+        String error,
+        LocalDateTime processedAt
+) {}
@@ -0,0 +1,25 @@
+package kz.cinego.app.entity;
+
+/**
+ * One multiplier of the pricing engine, stored as text so new rules need no
+ * schema change. {@code param} depends on the kind:
+ *
+ * <pre>
+ * SEAT_TYPE   VIP                 seats of that type
+ * TIME_BAND   18:00-22:00         screenings starting in [from, to), may wrap midnight
+ * WEEKDAY     SAT,SUN             screenings on those days
+ * HALL        3                   screenings in that hall
+ * MOVIE       7                   screenings of that movie
+ * EARLY_BIRD  P7D                 bookings made at least that long before the start
+ * SURGE       80                  screenings at least that percent occupied
+ * </pre>
+ *
+ * Percent 120 means x1.20. All matching rules multiply, except that only the
+ * longest matching EARLY_BIRD and the highest matching SURGE apply.
+ */
+public record PricingRule(long id, Kind kind, String param, int percent) {
+
+    public enum Kind {
+        SEAT_TYPE, TIME_BAND, WEEKDAY, HALL, MOVIE, EARLY_BIRD, SURGE
+    }
+}
@@ -0,0 +1,6 @@
+package kz.cinego.app.entity;
+
+import java.time.Instant;
+import java.util.List;
+
+public record SeatHold(String token, long userId, long screeningId, List<Seat> seats, Instant expiresAt) {}
@@ -0,0 +1,423 @@
+package kz.cinego.app.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import kz.cinego.app.config.HttpConfig;
+import kz.cinego.app.controller.AnalyticsController;
+import kz.cinego.app.controller.BookingController;
+import kz.cinego.app.controller.MovieController;
+import kz.cinego.app.controller.PaymentController;
+import kz.cinego.app.controller.PricingController;
+import kz.cinego.app.controller.ScreeningController;
+import kz.cinego.app.entity.Money;
+import kz.cinego.app.entity.Payment;
+import kz.cinego.app.entity.PricingRule;
+import kz.cinego.app.metrics.Metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Embedded HTTP front end over the controllers. Parameters come from the
+ * query string or a form-encoded body; responses are JSON. Pages are
+ * {"items": [...], "next": cursor}; pass next back as after (or before)
+ * for the following page.
+ *
+ * <pre>
+ * GET    /movies                 [limit], [after]   a page when either is given
+ * GET    /movies/{id}/screenings [limit], [after]   a page when either is given, else all, streamed by page
+ * GET    /halls/{id}/screenings  [from], [to]   ISO dates, inclusive; today by default
+ * GET    /screenings/{id}/seats
+ * GET    /screenings/{id}/seat-map   types, states and prices of every seat
+ * POST   /holds                  userId, screeningId, seats=1,1 1,2
+ * DELETE /holds/{token}
+ * POST   /bookings               userId, screeningId, seats | holdToken, points
+ * POST   /bookings/{id}/pay
+ * POST   /bookings/{id}/cancel
+ * POST   /bookings/{id}/checkout  [amount]   charge via the local provider, returns paymentId
+ * POST   /payments               paymentId, bookingId, [amount]   provider callback, idempotent
+ * GET    /payments/{paymentId}
+ * GET    /users/{id}/points      spendable balance and recent ledger entries
+ * GET    /users/{id}/bookings    [limit], [before]   newest first; a page when either is given, else all, streamed by page
+ * GET    /pricing/rules
+ * POST   /pricing/rules          kind, param, percent
+ * DELETE /pricing/rules/{id}
+ * GET    /analytics/screenings/{id}   revenue, fill rate, VIP share, refunds
+ * GET    /analytics/movies
+ * GET    /analytics/halls
+ * GET    /analytics/daily        [from], [to]   ISO dates, inclusive
+ * POST   /analytics/recompute    rebuild from the booking journal
+ * GET    /metrics                timers and counters, see Metrics
+ * </pre>
+ */
+public class HttpApi implements AutoCloseable {
+
+    private final MovieController movieController;
+    private final ScreeningController screeningController;
+    private final BookingController bookingController;
+    private final PricingController pricingController;
+    private final PaymentController paymentController;
+    private final AnalyticsController analyticsController;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public HttpApi(
+            MovieController movieController,
+            ScreeningController screeningController,
+            BookingController bookingController,
+            PricingController pricingController,
+            PaymentController paymentController,
+            AnalyticsController analyticsController
+    ) {
+        this.movieController = movieController;
+        this.screeningController = screeningController;
+        this.bookingController = bookingController;
+        this.pricingController = pricingController;
+        this.paymentController = paymentController;
+        this.analyticsController = analyticsController;
+    }
+
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), HttpConfig.BACKLOG);
+        executor = requestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) server.stop(1);
+        if (executor != null) executor.shutdown();
+    }
+
+    // A fixed pool of platform threads. Virtual threads would need JDK 21+; this builds for 17.
+    static ExecutorService requestExecutor() {
+        AtomicInteger n = new AtomicInteger();
+        return Executors.newFixedThreadPool(HttpConfig.THREADS, r -> {
+            Thread t = new Thread(r, "http-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            int status = 200;
+            Object body;
+            try {
+                body = route(exchange.getRequestMethod(), pathSegments(exchange), params(exchange));
+                if (body instanceof Stream<?> items) {
+                    sendStream(exchange, items);
+                    return;
+                }
+                if (body == null) status = 404;
+                if (body == null) body = Map.of("error", "Not found");
+            } catch (Exception e) {
+                Throwable cause = rootCause(e);
+                status = statusOf(cause);
+                body = Map.of("error", String.valueOf(e.getMessage()));
+            }
+            send(exchange, status, Json.write(body));
+        }
+    }
+
+    private Object route(String method, List<String> path, Map<String, String> params) {
+        int n = path.size();
+
+        if ("GET".equals(method)) {
+            if (n == 1 && path.get(0).equals("metrics")) {
+                return Metrics.snapshot();
+            }
+            if (n == 1 && path.get(0).equals("movies")) {
+                if (paged(params, "after")) return movieController.listMovies(params.get("after"), limitParam(params));
+                return movieController.listMovies();
+            }
+            if (n == 3 && path.get(0).equals("movies") && path.get(2).equals("screenings")) {
+                long movieId = parseLong(path.get(1), "movieId");
+                if (paged(params, "after")) {
+                    return screeningController.listByMovie(movieId, params.get("after"), limitParam(params));
+                }
+                return screeningController.streamByMovie(movieId);
+            }
+            if (n == 3 && path.get(0).equals("halls") && path.get(2).equals("screenings")) {
+                return screeningController.listByHall(
+                        parseLong(path.get(1), "hallId"), dateParam(params, "from"), dateParam(params, "to")
+                );
+            }
+            if (n == 3 && path.get(0).equals("screenings") && path.get(2).equals("seats")) {
+                return bookingController.seatMap(parseLong(path.get(1), "screeningId"));
+            }
+            if (n == 3 && path.get(0).equals("screenings") && path.get(2).equals("seat-map")) {
+                return screeningController.pricedSeatMap(parseLong(path.get(1), "screeningId"));
+            }
+            if (n == 2 && path.get(0).equals("pricing") && path.get(1).equals("rules")) {
+                return pricingController.listRules();
+            }
+            if (n == 3 && path.get(0).equals("users") && path.get(2).equals("points")) {
+                return bookingController.points(parseLong(path.get(1), "userId"));
+            }
+            if (n == 3 && path.get(0).equals("users") && path.get(2).equals("bookings")) {
+                long userId = parseLong(path.get(1), "userId");
+                if (paged(params, "before")) {
+                    return bookingController.listByUser(userId, params.get("before"), limitParam(params));
+                }
+                return bookingController.streamByUser(userId);
+            }
+            if (n == 2 && path.get(0).equals("payments")) {
+                Payment payment = paymentController.find(path.get(1));
+                if (payment == null) {
+                    throw new IllegalArgumentException("Payment not found: " + path.get(1));
+                }
+                return payment;
+            }
+            if (n == 3 && path.get(0).equals("analytics") && path.get(1).equals("screenings")) {
+                return analyticsController.screening(parseLong(path.get(2), "screeningId"));
+            }
+            if (n == 2 && path.get(0).equals("analytics") && path.get(1).equals("movies")) {
+                return analyticsController.byMovie();
+            }
+            if (n == 2 && path.get(0).equals("analytics") && path.get(1).equals("halls")) {
+                return analyticsController.byHall();
+            }
+            if (n == 2 && path.get(0).equals("analytics") && path.get(1).equals("daily")) {
+                return analyticsController.daily(dateParam(params, "from"), dateParam(params, "to"));
+            }
+        }
+
+        if ("POST".equals(method)) {
+            if (n == 1 && path.get(0).equals("holds")) {
+                return bookingController.hold(
+                        longParam(params, "userId"),
+                        longParam(params, "screeningId"),
+                        parseSeats(required(params, "seats"))
+                );
+            }
+            if (n == 1 && path.get(0).equals("bookings")) {
+                long userId = longParam(params, "userId");
+                int points = params.containsKey("points") ? Integer.parseInt(params.get("points")) : 0;
+                if (params.containsKey("holdToken")) {
+                    return bookingController.createFromHold(userId, params.get("holdToken"), points);
+                }
+                return bookingController.create(
+                        userId,
+                        longParam(params, "screeningId"),
+                        parseSeats(required(params, "seats")),
+                        points
+                );
+            }
+            if (n == 3 && path.get(0).equals("bookings") && path.get(2).equals("pay")) {
+                return bookingController.pay(parseLong(path.get(1), "bookingId"));
+            }
+            if (n == 3 && path.get(0).equals("bookings") && path.get(2).equals("cancel")) {
+                return bookingController.cancel(parseLong(path.get(1), "bookingId"));
+            }
+            if (n == 3 && path.get(0).equals("bookings") && path.get(2).equals("checkout")) {
+                String paymentId = paymentController.checkout(
+                        parseLong(path.get(1), "bookingId"),
+                        moneyParam(params, "amount")
+                );
+                return Map.of("paymentId", paymentId);
+            }
+            if (n == 1 && path.get(0).equals("payments")) {
+                return paymentController.confirm(
+                        required(params, "paymentId"),
+                        longParam(params, "bookingId"),
+                        moneyParam(params, "amount")
+                );
+            }
+            if (n == 2 && path.get(0).equals("pricing") && path.get(1).equals("rules")) {
+                return pricingController.addRule(
+                        parseKind(required(params, "kind")),
+                        required(params, "param"),
+                        (int) longParam(params, "percent")
+                );
+            }
+            if (n == 2 && path.get(0).equals("analytics") && path.get(1).equals("recompute")) {
+                return analyticsController.recompute();
+            }
+        }
+
+        if ("DELETE".equals(method) && n == 2 && path.get(0).equals("holds")) {
+            bookingController.releaseHold(path.get(1));
+            return Map.of("released", path.get(1));
+        }
+        if ("DELETE".equals(method) && n == 3 && path.get(0).equals("pricing") && path.get(1).equals("rules")) {
+            long id = parseLong(path.get(2), "ruleId");
+            if (!pricingController.removeRule(id)) {
+                throw new IllegalArgumentException("Pricing rule not found: " + id);
+            }
+            return Map.of("removed", id);
+        }
+
+        return null;
+    }
+
+    private static List<String> pathSegments(HttpExchange exchange) {
+        List<String> segments = new ArrayList<>();
+        for (String part : exchange.getRequestURI().getPath().split("/")) {
+            if (!part.isEmpty()) segments.add(part);
+        }
+        return segments;
+    }
+
+    private static Map<String, String> params(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        try (InputStream in = exchange.getRequestBody()) {
+            String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            parseForm(body, params);
+        }
+        return params;
+    }
+
+    private static void parseForm(String encoded, Map<String, String> into) {
+        if (encoded == null || encoded.isBlank()) return;
+        for (String pair : encoded.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            into.put(
+                    URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8)
+            );
+        }
+    }
+
+    private static List<int[]> parseSeats(String input) {
+        List<int[]> seats = new ArrayList<>();
+        for (String part : input.trim().split("[\\s;]+")) {
+            String[] rc = part.split(",");
+            if (rc.length != 2) {
+                throw new IllegalArgumentException("Bad seat: " + part);
+            }
+            seats.add(new int[]{Integer.parseInt(rc[0]), Integer.parseInt(rc[1])});
+        }
+        return seats;
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static long longParam(Map<String, String> params, String name) {
+        return parseLong(required(params, name), name);
+    }
+
+    private static long parseLong(String value, String name) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad " + name + ": " + value);
+        }
+    }
+
+    private static boolean paged(Map<String, String> params, String cursor) {
+        return params.containsKey("limit") || params.containsKey(cursor);
+    }
+
+    private static Integer limitParam(Map<String, String> params) {
+        String value = params.get("limit");
+        if (value == null || value.isBlank()) return null;
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad limit: " + value);
+        }
+    }
+
+    private static Money moneyParam(Map<String, String> params, String name) {
+        String value = params.get(name);
+        return value == null || value.isBlank() ? null : Money.parse(value);
+    }
+
+    private static LocalDate dateParam(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) return null;
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Bad " + name + ": " + value);
+        }
+    }
+
+    private static PricingRule.Kind parseKind(String value) {
+        try {
+            return PricingRule.Kind.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Bad kind: " + value);
+        }
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && cause.getCause() != cause) cause = cause.getCause();
+        return cause;
+    }
+
+    private static int statusOf(Throwable cause) {
+        if (cause instanceof IllegalArgumentException) {
+            String msg = String.valueOf(cause.getMessage());
+            return msg.contains("not found") ? 404 : 400;
+        }
+        if (cause instanceof IllegalStateException) return 409;
+        return 500;
+    }
+
+    // A JSON array written item by item, chunked, as the stream reads page after page;
+    // no connection is held while the client reads. The status is sent first, so a
+    // failure half way through only cuts the response short.
+    private static void sendStream(HttpExchange exchange, Stream<?> items) throws IOException {
+        try (items) {
+            Iterator<?> it = items.iterator();
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, 0);
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+                out.write('[');
+                boolean first = true;
+                while (it.hasNext()) {
+                    if (!first) out.write(',');
+                    first = false;
+                    out.write(Json.write(it.next()));
+                }
+                out.write(']');
+            }
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package kz.cinego.app.http;
+
+import kz.cinego.app.entity.Money;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.time.temporal.TemporalAccessor;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Minimal JSON writer for the entity and result records: records become
+ * objects keyed by component name, collections and arrays become arrays,
+ * dates are ISO strings and money stays an exact decimal.
+ */
+public final class Json {
+    private Json() {}
+
+    private static final Map<Class<?>, RecordComponent[]> COMPONENTS = new ConcurrentHashMap<>();
+
+    public static String write(Object value) {
+        StringBuilder out = new StringBuilder(256);
+        write(out, value);
+        return out.toString();
+    }
+
+    private static void write(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof String s) {
+            string(out, s);
+        } else if (value instanceof BigDecimal d) {
+            out.append(d.toPlainString());
+        } else if (value instanceof Money m) {
+            Money.appendTo(out, m.minor());
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.append(value);
+        } else if (value instanceof Character || value instanceof Enum<?> || value instanceof TemporalAccessor) {
+            string(out, value.toString());
+        } else if (value instanceof Map<?, ?> map) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                if (!first) out.append(',');
+                first = false;
+                string(out, String.valueOf(e.getKey()));
+                out.append(':');
+                write(out, e.getValue());
+            }
+            out.append('}');
+        } else if (value instanceof Collection<?> list) {
+            out.append('[');
+            boolean first = true;
+            for (Object item : list) {
+                if (!first) out.append(',');
+                first = false;
+                write(out, item);
+            }
+            out.append(']');
+        } else if (value instanceof long[] longs) {
+            // Primitive arrays without boxing; seat maps are mostly these.
+            out.append('[');
+            for (int i = 0; i < longs.length; i++) {
+                if (i > 0) out.append(',');
+                out.append(longs[i]);
+            }
+            out.append(']');
+        } else if (value instanceof byte[] bytes) {
+            out.append('[');
+            for (int i = 0; i < bytes.length; i++) {
+                if (i > 0) out.append(',');
+                out.append(bytes[i]);
+            }
+            out.append(']');
+        } else if (value.getClass().isArray()) {
+            out.append('[');
+            int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                if (i > 0) out.append(',');
+                write(out, Array.get(value, i));
+            }
+            out.append(']');
+        } else if (value instanceof Record record) {
+            record(out, record);
+        } else {
+            string(out, value.toString());
+        }
+    }
+
+    private static void record(StringBuilder out, Record record) {
+        RecordComponent[] components = COMPONENTS.computeIfAbsent(record.getClass(), c -> {
+            RecordComponent[] rc = c.getRecordComponents();
+            for (RecordComponent component : rc) component.getAccessor().setAccessible(true);
+            return rc;
+        });
+
+        out.append('{');
+        for (int i = 0; i < components.length; i++) {
+            if (i > 0) out.append(',');
+            string(out, components[i].getName());
+            out.append(':');
+            Method accessor = components[i].getAccessor();
+            try {
+                write(out, accessor.invoke(record));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot read " + components[i].getName(), e);
+            }
+        }
+        out.append('}');
+    }
+
+    private static void string(StringBuilder out, String s) {
+        out.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+                    else out.append(c);
+                }
+            }
+        }
+        out.append('"');
+    }
+}
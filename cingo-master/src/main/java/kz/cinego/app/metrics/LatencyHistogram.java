@@ -0,0 +1,95 @@
+package kz.cinego.app.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram in nanoseconds. Each power of two is split into
+ * 16 linear sub-buckets (as in HdrHistogram), so a bucket is at most 1/16 of its
+ * value wide; percentiles are interpolated within the bucket.
+ * Recording is a couple of atomic increments and never allocates.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    // Values below SUB_BUCKETS get a bucket each; then SUB_BUCKETS per power of two up to 2^62.
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets.incrementAndGet(bucketOf(nanos));
+        count.incrementAndGet();
+        sum.addAndGet(nanos);
+
+        long current;
+        while (nanos > (current = max.get())) {
+            if (max.compareAndSet(current, nanos)) break;
+        }
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = buckets.get(i);
+            total += copy[i];
+        }
+        long mean = total == 0 ? 0 : sum.get() / total;
+        long maxNanos = max.get();
+        return new Snapshot(
+                total,
+                mean,
+                Math.min(percentile(copy, total, 0.50), maxNanos),
+                Math.min(percentile(copy, total, 0.90), maxNanos),
+                Math.min(percentile(copy, total, 0.99), maxNanos),
+                maxNanos
+        );
+    }
+
+    static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) return (int) nanos;
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int shift = exponent - SUB_BITS;
+        int sub = (int) (nanos >>> shift) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + shift * SUB_BUCKETS + sub;
+    }
+
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        int sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub) << shift;
+    }
+
+    static long width(int bucket) {
+        return bucket < SUB_BUCKETS ? 1 : 1L << ((bucket - SUB_BUCKETS) / SUB_BUCKETS);
+    }
+
+    // Spreads the bucket's samples evenly over its width and picks the requested rank.
+    private static long percentile(long[] buckets, long total, double q) {
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(total * q));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            if (seen + buckets[i] >= rank) {
+                double fraction = (double) (rank - seen) / buckets[i];
+                long offset = (long) Math.ceil(width(i) * fraction) - 1;
+                return lowerBound(i) + Math.max(0, offset);
+            }
+            seen += buckets[i];
+        }
+        return Long.MAX_VALUE;
+    }
+
+    public record Snapshot(long count, long meanNanos, long p50Nanos, long p90Nanos, long p99Nanos, long maxNanos) {}
+}
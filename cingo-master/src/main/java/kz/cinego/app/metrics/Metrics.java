@@ -0,0 +1,88 @@
+package kz.cinego.app.metrics;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide registry of timers, counters and gauges. Look them up once, at
+ * construction or class init, and keep the reference: lookups may
+ * allocate, recording does not.
+ *
+ * <pre>
+ * repository.&lt;Class&gt;.&lt;method&gt;   every prepared statement, open to close
+ * booking.&lt;operation&gt;            BookingService calls, failures by reason
+ * db.acquire.{read,write}         connection checkout
+ * db.pool.{read,write}.{active,idle,waits,waitMs}   pool occupancy, checkouts that had to wait
+ * db.txn.{commit,rollback}        transaction duration, BEGIN to COMMIT/ROLLBACK
+ * db.txn.abandoned                transactions rolled back when the connection came back
+ * db.txn.{retries,gaveUp,afterCommitFailed}   TransactionExecutor replays, deadlines, failed after-commit steps
+ * db.busy, db.locked              SQLITE_BUSY / SQLITE_LOCKED errors
+ * cache.&lt;name&gt;.{hits,misses,evictions,size}   read-through caches
+ * payment.{batches,processed,replays,queued,afterCommitFailed}   PaymentService callbacks
+ * </pre>
+ */
+public final class Metrics {
+
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> GAUGES = new ConcurrentHashMap<>();
+
+    public static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(name, Timer::new);
+    }
+
+    public static LongAdder counter(String name) {
+        return COUNTERS.computeIfAbsent(name, n -> new LongAdder());
+    }
+
+    // A value read when metrics are reported; registering a name again replaces the old one.
+    public static void gauge(String name, LongSupplier value) {
+        GAUGES.put(name, value);
+    }
+
+    // Name to Timer.Snapshot, counter or gauge value, sorted by name.
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> all = new TreeMap<>();
+        TIMERS.forEach((name, timer) -> all.put(name, timer.snapshot()));
+        COUNTERS.forEach((name, counter) -> all.put(name, counter.sum()));
+        GAUGES.forEach((name, gauge) -> all.put(name, gauge.getAsLong()));
+        return all;
+    }
+
+    /**
+     * One line per metric, for the dump file:
+     * {@code name count=.. failures=.. mean_us=.. p50_us=.. p90_us=.. p99_us=.. max_us=..},
+     * {@code name value} for counters and gauges, and one {@code name{reason="..."} n}
+     * line per failure reason.
+     */
+    public static void writeText(Appendable out) throws IOException {
+        for (Map.Entry<String, Object> e : snapshot().entrySet()) {
+            if (e.getValue() instanceof Timer.Snapshot t) {
+                LatencyHistogram.Snapshot l = t.latency();
+                out.append(e.getKey())
+                        .append(" count=").append(Long.toString(l.count()))
+                        .append(" failures=").append(Long.toString(t.failures()))
+                        .append(" mean_us=").append(Long.toString(l.meanNanos() / 1_000))
+                        .append(" p50_us=").append(Long.toString(l.p50Nanos() / 1_000))
+                        .append(" p90_us=").append(Long.toString(l.p90Nanos() / 1_000))
+                        .append(" p99_us=").append(Long.toString(l.p99Nanos() / 1_000))
+                        .append(" max_us=").append(Long.toString(l.maxNanos() / 1_000))
+                        .append('\n');
+                for (Map.Entry<String, Long> r : t.reasons().entrySet()) {
+                    out.append(e.getKey()).append("{reason=\"").append(r.getKey()).append("\"} ")
+                            .append(Long.toString(r.getValue())).append('\n');
+                }
+            } else {
+                out.append(e.getKey()).append(' ').append(String.valueOf(e.getValue())).append('\n');
+            }
+        }
+    }
+
+    private Metrics() {
+        throw new AssertionError("Cannot instantiate utility class");
+    }
+}
@@ -0,0 +1,75 @@
+package kz.cinego.app.metrics;
+
+import kz.cinego.app.config.MetricsConfig;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rewrites {@link MetricsConfig#DUMP_FILE} with {@link Metrics#writeText}
+ * every {@link MetricsConfig#DUMP_INTERVAL_MS}, and once more on close.
+ * The file is replaced atomically, so a reader never sees half a dump.
+ */
+public class MetricsDumper implements AutoCloseable {
+
+    private final Path file;
+    private ScheduledExecutorService scheduler;
+
+    public MetricsDumper(Path file) {
+        this.file = file;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(
+                this::dumpQuietly,
+                MetricsConfig.DUMP_INTERVAL_MS,
+                MetricsConfig.DUMP_INTERVAL_MS,
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+            dumpQuietly();
+        }
+    }
+
+    public void dump() throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                out.append("# ").append(LocalDateTime.now().toString()).append('\n');
+                Metrics.writeText(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private void dumpQuietly() {
+        try {
+            dump();
+        } catch (IOException | RuntimeException e) {
+            // The next run rewrites the whole file.
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package kz.cinego.app.metrics;
+
+import kz.cinego.app.config.MetricsConfig;
+import org.sqlite.SQLiteException;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency of one operation plus how often, and why, it failed. Callers
+ * keep the start from System.nanoTime() in a local and report it back;
+ * the success path never allocates.
+ */
+public final class Timer {
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder failures = new LongAdder();
+    private final Map<String, LongAdder> reasons = new ConcurrentHashMap<>();
+
+    Timer(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    public void record(long startNanos) {
+        latency.record(System.nanoTime() - startNanos);
+    }
+
+    public void fail(long startNanos, Throwable e) {
+        latency.record(System.nanoTime() - startNanos);
+        failures.increment();
+        LongAdder counter = reasons.get(reasonOf(e));
+        if (counter == null) {
+            String reason = reasons.size() < MetricsConfig.MAX_REASONS ? reasonOf(e) : "other";
+            counter = reasons.computeIfAbsent(reason, r -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    public Snapshot snapshot() {
+        Map<String, Long> byReason = new TreeMap<>();
+        reasons.forEach((reason, n) -> byReason.put(reason, n.sum()));
+        return new Snapshot(latency.snapshot(), failures.sum(), byReason);
+    }
+
+    /**
+     * The first validation message in the cause chain with its variable
+     * tail cut off ("Seat already booked: row=3 col=4" counts as "Seat
+     * already booked"), or the SQLite result code, or the exception type.
+     */
+    static String reasonOf(Throwable e) {
+        Throwable root = e;
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof IllegalStateException || t instanceof IllegalArgumentException) {
+                return trim(t.getMessage(), t);
+            }
+            root = t;
+            if (t.getCause() == t) break;
+        }
+        if (root instanceof SQLiteException sqlite) return sqlite.getResultCode().name();
+        if (root instanceof SQLException) return trim(root.getMessage(), root);
+        return root.getClass().getSimpleName();
+    }
+
+    private static String trim(String message, Throwable t) {
+        if (message == null || message.isBlank()) return t.getClass().getSimpleName();
+        int end = 0;
+        while (end < message.length() && end < 64) {
+            char c = message.charAt(end);
+            if (c == ':' || c == '.' || c == '=' || Character.isDigit(c)) break;
+            end++;
+        }
+        String reason = message.substring(0, end).strip();
+        return reason.isEmpty() ? t.getClass().getSimpleName() : reason;
+    }
+
+    public record Snapshot(LatencyHistogram.Snapshot latency, long failures, Map<String, Long> reasons) {}
+}
@@ -0,0 +1,203 @@
+package kz.cinego.app.repository;
+
+import kz.cinego.app.entity.BookingEvent;
+import kz.cinego.app.entity.BookingEvent.BookingCancelled;
+import kz.cinego.app.entity.BookingEvent.BookingCreated;
+import kz.cinego.app.entity.BookingEvent.BookingExpired;
+import kz.cinego.app.entity.BookingEvent.BookingPaid;
+import kz.cinego.app.entity.Money;
+
+import java.nio.ByteBuffer;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * booking_events rows: type code, the IDs, one amount, one points value and
+ * the seat IDs packed as a blob of 8-byte longs. flag is wasPaid for
+ * cancellations and 0 otherwise.
+ */
+public class BookingEventRepository {
+
+    static final String AFTER_SQL = """
+            SELECT * FROM booking_events
+            WHERE seq > ?
+            ORDER BY seq
+            LIMIT ?
+            """;
+
+    static final String RANGE_SQL = """
+            SELECT * FROM booking_events
+            WHERE seq > ? AND seq <= ?
+            ORDER BY seq
+            LIMIT ?
+            """;
+
+    private static final int CREATED = 1;
+    private static final int PAID = 2;
+    private static final int CANCELLED = 3;
+    private static final int EXPIRED = 4;
+
+    public record Snapshot(String name, long seq, byte[] data) {}
+
+    public long append(Connection conn, BookingEvent event) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("""
+            INSERT INTO booking_events(type, booking_id, user_id, screening_id, amount_minor, points, flag, seats, occurred_at)
+            VALUES(?,?,?,?,?,?,?,?,?)
+        """, Statement.RETURN_GENERATED_KEYS)) {
+            bind(ps, event);
+            ps.executeUpdate();
+
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (keys.next()) return keys.getLong(1);
+                throw new SQLException("No generated key for booking event");
+            }
+        }
+    }
+
+    // For backfills: no generated keys needed, one batch per call.
+    public void appendAll(Connection conn, List<BookingEvent> events) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("""
+            INSERT INTO booking_events(type, booking_id, user_id, screening_id, amount_minor, points, flag, seats, occurred_at)
+            VALUES(?,?,?,?,?,?,?,?,?)
+        """)) {
+            for (BookingEvent event : events) {
+                bind(ps, event);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    // Seq of the last row this connection inserted.
+    public long lastSeq(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT last_insert_rowid()")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    public List<BookingEvent> findAfter(Connection conn, long afterSeq, int limit) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(AFTER_SQL)) {
+            ps.setLong(1, afterSeq);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                List<BookingEvent> list = new ArrayList<>();
+                while (rs.next()) list.add(map(rs));
+                return list;
+            }
+        }
+    }
+
+    // Events in (afterSeq, toSeq], at most limit of them.
+    public List<BookingEvent> findBetween(Connection conn, long afterSeq, long toSeq, int limit) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(RANGE_SQL)) {
+            ps.setLong(1, afterSeq);
+            ps.setLong(2, toSeq);
+            ps.setInt(3, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                List<BookingEvent> list = new ArrayList<>();
+                while (rs.next()) list.add(map(rs));
+                return list;
+            }
+        }
+    }
+
+    public long maxSeq(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT COALESCE(MAX(seq), 0) FROM booking_events");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    public Snapshot findSnapshot(Connection conn, String name) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT * FROM projection_snapshots WHERE name=?")) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                return new Snapshot(rs.getString("name"), rs.getLong("seq"), rs.getBytes("data"));
+            }
+        }
+    }
+
+    public void saveSnapshot(Connection conn, Snapshot snapshot) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("""
+            INSERT INTO projection_snapshots(name, seq, data, taken_at) VALUES(?,?,?,?)
+            ON CONFLICT(name) DO UPDATE SET seq=excluded.seq, data=excluded.data, taken_at=excluded.taken_at
+        """)) {
+            ps.setString(1, snapshot.name());
+            ps.setLong(2, snapshot.seq());
+            ps.setBytes(3, snapshot.data());
+            ps.setString(4, LocalDateTime.now().toString());
+            ps.executeUpdate();
+        }
+    }
+
+    private static void bind(PreparedStatement ps, BookingEvent event) throws SQLException {
+        long amount;
+        int points = 0;
+        int flag = 0;
+        int type;
+        if (event instanceof BookingCreated e) {
+            type = CREATED;
+            amount = e.total().minor();
+            points = e.pointsUsed();
+        } else if (event instanceof BookingPaid e) {
+            type = PAID;
+            amount = e.amount().minor();
+            points = e.pointsEarned();
+        } else if (event instanceof BookingCancelled e) {
+            type = CANCELLED;
+            amount = e.refund().minor();
+            flag = e.wasPaid() ? 1 : 0;
+        } else {
+            type = EXPIRED;
+            amount = 0;
+        }
+        ps.setInt(1, type);
+        ps.setLong(2, event.bookingId());
+        ps.setLong(3, event.userId());
+        ps.setLong(4, event.screeningId());
+        ps.setLong(5, amount);
+        ps.setInt(6, points);
+        ps.setInt(7, flag);
+        ps.setBytes(8, packSeats(event.seatIds()));
+        ps.setString(9, event.occurredAt().toString());
+    }
+
+    private static BookingEvent map(ResultSet rs) throws SQLException {
+        long seq = rs.getLong("seq");
+        long bookingId = rs.getLong("booking_id");
+        long userId = rs.getLong("user_id");
+        long screeningId = rs.getLong("screening_id");
+        Money amount = Money.ofMinor(rs.getLong("amount_minor"));
+        int points = rs.getInt("points");
+        long[] seats = unpackSeats(rs.getBytes("seats"));
+        LocalDateTime at = LocalDateTime.parse(rs.getString("occurred_at"));
+
+        return switch (rs.getInt("type")) {
+            case CREATED -> new BookingCreated(seq, bookingId, userId, screeningId, seats, amount, points, at);
+            case PAID -> new BookingPaid(seq, bookingId, userId, screeningId, seats, amount, points, at);
+            case CANCELLED -> new BookingCancelled(seq, bookingId, userId, screeningId, seats, amount, rs.getInt("flag") != 0, at);
+            case EXPIRED -> new BookingExpired(seq, bookingId, userId, screeningId, seats, at);
+            default -> throw new SQLException("Unknown booking event type at seq " + seq);
+        };
+    }
+
+    public static byte[] packSeats(long[] seatIds) {
+        ByteBuffer buf = ByteBuffer.allocate(seatIds.length * Long.BYTES);
+        for (long id : seatIds) buf.putLong(id);
+        return buf.array();
+    }
+
+    public static long[] unpackSeats(byte[] data) {
+        if (data == null) return new long[0];
+        ByteBuffer buf = ByteBuffer.wrap(data);
+        long[] ids = new long[data.length / Long.BYTES];
+        for (int i = 0; i < ids.length; i++) ids[i] = buf.getLong();
+        return ids;
+    }
+}
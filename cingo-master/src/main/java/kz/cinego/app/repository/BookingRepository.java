@@ -1,23 +1,50 @@
 package kz.cinego.app.repository;
 
+import kz.cinego.app.config.QueryConfig;
+import kz.cinego.app.db.Database;
 import kz.cinego.app.entity.Booking;
+import kz.cinego.app.entity.Money;
+import kz.cinego.app.entity.Seat;
 
-import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
 
 public class BookingRepository {
 
-    public long insertBooking(Connection conn, long userId, long screeningId, BigDecimal totalPrice) throws SQLException {
+    static final String DELETE_CLAIMS_SQL = "DELETE FROM seat_claims WHERE booking_id=?";
+    static final String DELETE_CLAIMS_BATCH_SQL =
+            "DELETE FROM seat_claims WHERE booking_id IN (SELECT value FROM json_each(?))";
+    static final String EXPIRABLE_SQL = """
+            SELECT id, user_id, screening_id FROM bookings
+            WHERE status = 'CREATED' AND created_at < ?
+            ORDER BY created_at
+            LIMIT ?
+            """;
+    // Newest first over idx_bookings_user.
+    static final String USER_PAGE_SQL = """
+            SELECT * FROM bookings
+            WHERE user_id = ? AND id < ?
+            ORDER BY id DESC
+            LIMIT ?
+            """;
+    private static final String INSERT_ITEM_SQL =
+            "INSERT INTO booking_items(booking_id, seat_id, price_minor, price) VALUES(?,?,?,? / 100.0)";
+
+    // The NUMERIC columns next to the *_minor ones are legacy (see V3MinorUnitMoney).
+    public long insertBooking(Connection conn, long userId, long screeningId, long totalMinor) throws SQLException {
         try (PreparedStatement ps = conn.prepareStatement("""
-            INSERT INTO bookings(user_id, screening_id, status, total_price, created_at)
-            VALUES(?, ?, 'CREATED', ?, ?)
+            INSERT INTO bookings(user_id, screening_id, status, total_minor, total_price, created_at)
+            VALUES(?, ?, 'CREATED', ?, ? / 100.0, ?)
         """, Statement.RETURN_GENERATED_KEYS)) {
 
             ps.setLong(1, userId);
             ps.setLong(2, screeningId);
-            ps.setBigDecimal(3, totalPrice);
-            ps.setString(4, LocalDateTime.now().toString());
+            ps.setLong(3, totalMinor);
+            ps.setLong(4, totalMinor);
+            ps.setString(5, LocalDateTime.now().toString());
             ps.executeUpdate();
 
             try (ResultSet keys = ps.getGeneratedKeys()) {
@@ -27,12 +54,38 @@ public class BookingRepository {
         }
     }
 
-    public void insertBookingItem(Connection conn, long bookingId, long seatId, BigDecimal price) throws SQLException {
+    public void insertBookingItems(Connection conn, long bookingId, List<Seat> seats, long[] pricesMinor) throws SQLException {
+        if (seats.size() != pricesMinor.length) {
+            throw new IllegalArgumentException("Seats and prices differ in size: " + seats.size() + " vs " + pricesMinor.length);
+        }
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_ITEM_SQL)) {
+            for (int i = 0; i < pricesMinor.length; i++) {
+                ps.setLong(1, bookingId);
+                ps.setLong(2, seats.get(i).id());
+                ps.setLong(3, pricesMinor[i]);
+                ps.setLong(4, pricesMinor[i]);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    public void insertSeatClaims(Connection conn, long screeningId, long bookingId, List<Seat> seats) throws SQLException {
         try (PreparedStatement ps = conn.prepareStatement(
-                "INSERT INTO booking_items(booking_id, seat_id, price) VALUES(?,?,?)")) {
+                "INSERT INTO seat_claims(screening_id, seat_id, booking_id) VALUES(?,?,?)")) {
+            for (Seat seat : seats) {
+                ps.setLong(1, screeningId);
+                ps.setLong(2, seat.id());
+                ps.setLong(3, bookingId);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    public void deleteSeatClaims(Connection conn, long bookingId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(DELETE_CLAIMS_SQL)) {
             ps.setLong(1, bookingId);
-            ps.setLong(2, seatId);
-            ps.setBigDecimal(3, price);
             ps.executeUpdate();
         }
     }
@@ -42,30 +95,34 @@ public class BookingRepository {
             ps.setLong(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (!rs.next()) return null;
+                return map(rs);
+            }
+        }
+    }
 
-                LocalDateTime created = LocalDateTime.parse(rs.getString("created_at"));
-                String paidStr = rs.getString("paid_at");
-                String cancelledStr = rs.getString("cancelled_at");
-
-                LocalDateTime paidAt = paidStr == null ? null : LocalDateTime.parse(paidStr);
-                LocalDateTime cancelledAt = cancelledStr == null ? null : LocalDateTime.parse(cancelledStr);
-
-                BigDecimal refund = rs.getBigDecimal("refund_amount");
-                if (refund == null) refund = BigDecimal.ZERO;
-
-                return new Booking(
-                        rs.getLong("id"),
-                        rs.getLong("user_id"),
-                        rs.getLong("screening_id"),
-                        rs.getString("status"),
-                        rs.getBigDecimal("total_price"),
-                        created,
-                        paidAt,
-                        cancelledAt,
-                        refund
-                );
+    // Newest first. Cursor: ID of the last booking on the previous page; null for the first page.
+    public Page<Booking> findPageByUser(Connection conn, long userId, String before, int limit) throws SQLException {
+        List<Booking> list = new ArrayList<>(limit + 1);
+        try (PreparedStatement ps = conn.prepareStatement(USER_PAGE_SQL)) {
+            ps.setLong(1, userId);
+            ps.setLong(2, before == null ? Long.MAX_VALUE : Page.idCursor(before));
+            ps.setInt(3, limit + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) list.add(map(rs));
             }
         }
+        return Page.of(list, limit, b -> Long.toString(b.id()));
+    }
+
+    // All of the user's bookings, newest first, read a page at a time as the stream is consumed.
+    public Stream<Booking> streamByUser(long userId) {
+        return Page.walk(before -> {
+            try (Connection conn = Database.getConnection()) {
+                return findPageByUser(conn, userId, before, QueryConfig.MAX_PAGE_SIZE);
+            } catch (SQLException e) {
+                throw new RuntimeException("BookingRepository.streamByUser failed: " + e.getMessage(), e);
+            }
+        });
     }
 
     public void markPaid(Connection conn, long bookingId) throws SQLException {
@@ -77,13 +134,79 @@ public class BookingRepository {
         }
     }
 
-    public void markCancelled(Connection conn, long bookingId, BigDecimal refund) throws SQLException {
-        try (PreparedStatement ps = conn.prepareStatement(
-                "UPDATE bookings SET status='CANCELLED', cancelled_at=?, refund_amount=? WHERE id=?")) {
+    public record Expirable(long id, long userId, long screeningId) {}
+
+    // Oldest unpaid bookings created before the cutoff.
+    public List<Expirable> findExpirable(Connection conn, LocalDateTime cutoff, int limit) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(EXPIRABLE_SQL)) {
+            ps.setString(1, cutoff.toString());
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                List<Expirable> list = new ArrayList<>();
+                while (rs.next()) {
+                    list.add(new Expirable(rs.getLong("id"), rs.getLong("user_id"), rs.getLong("screening_id")));
+                }
+                return list;
+            }
+        }
+    }
+
+    // Set-based: one statement per call however many IDs. Skips anything no longer CREATED.
+    public int markExpired(Connection conn, long[] bookingIds) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("""
+            UPDATE bookings SET status='EXPIRED', cancelled_at=?
+            WHERE id IN (SELECT value FROM json_each(?)) AND status='CREATED'
+        """)) {
+            ps.setString(1, LocalDateTime.now().toString());
+            ps.setString(2, idArray(bookingIds));
+            return ps.executeUpdate();
+        }
+    }
+
+    public void deleteSeatClaims(Connection conn, long[] bookingIds) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(DELETE_CLAIMS_BATCH_SQL)) {
+            ps.setString(1, idArray(bookingIds));
+            ps.executeUpdate();
+        }
+    }
+
+    // A JSON array of IDs, for binding a whole set as one json_each(?) parameter.
+    public static String idArray(long[] ids) {
+        StringBuilder sb = new StringBuilder(ids.length * 8 + 2).append('[');
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(ids[i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    public void markCancelled(Connection conn, long bookingId, Money refund) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("""
+            UPDATE bookings
+            SET status='CANCELLED', cancelled_at=?, refund_minor=?, refund_amount=? / 100.0
+            WHERE id=?
+        """)) {
             ps.setString(1, LocalDateTime.now().toString());
-            ps.setBigDecimal(2, refund);
-            ps.setLong(3, bookingId);
+            ps.setLong(2, refund.minor());
+            ps.setLong(3, refund.minor());
+            ps.setLong(4, bookingId);
             ps.executeUpdate();
         }
     }
+
+    private Booking map(ResultSet rs) throws SQLException {
+        String paidStr = rs.getString("paid_at");
+        String cancelledStr = rs.getString("cancelled_at");
+        return new Booking(
+                rs.getLong("id"),
+                rs.getLong("user_id"),
+                rs.getLong("screening_id"),
+                rs.getString("status"),
+                Money.ofMinor(rs.getLong("total_minor")),
+                LocalDateTime.parse(rs.getString("created_at")),
+                paidStr == null ? null : LocalDateTime.parse(paidStr),
+                cancelledStr == null ? null : LocalDateTime.parse(cancelledStr),
+                Money.ofMinor(rs.getLong("refund_minor"))
+        );
+    }
 }
@@ -0,0 +1,37 @@
+package kz.cinego.app.repository;
+
+import kz.cinego.app.cache.ReadThroughCache;
+import kz.cinego.app.config.CacheConfig;
+import kz.cinego.app.entity.Movie;
+
+import java.util.List;
+
+public class CachedMovieRepository extends MovieRepository {
+
+    private static final String ALL = "all";
+
+    private final ReadThroughCache<String, List<Movie>> allMovies =
+            new ReadThroughCache<>("movies.all", 1, CacheConfig.CATALOGUE_TTL);
+    private final ReadThroughCache<Long, Movie> byId =
+            new ReadThroughCache<>("movies.byId", CacheConfig.MOVIE_CACHE_SIZE, CacheConfig.CATALOGUE_TTL);
+
+    @Override
+    public List<Movie> findAll() {
+        return allMovies.get(ALL, k -> List.copyOf(super.findAll()));
+    }
+
+    @Override
+    public Movie findById(long id) {
+        return byId.get(id, super::findById);
+    }
+
+    public void invalidate(long movieId) {
+        byId.invalidate(movieId);
+        allMovies.invalidateAll();
+    }
+
+    public void invalidateAll() {
+        byId.invalidateAll();
+        allMovies.invalidateAll();
+    }
+}
@@ -0,0 +1,35 @@
+package kz.cinego.app.repository;
+
+import kz.cinego.app.cache.ReadThroughCache;
+import kz.cinego.app.config.CacheConfig;
+import kz.cinego.app.entity.Screening;
+
+import java.util.List;
+
+public class CachedScreeningRepository extends ScreeningRepository {
+
+    private final ReadThroughCache<Long, Screening> byId =
+            new ReadThroughCache<>("screenings.byId", CacheConfig.SCREENING_CACHE_SIZE, CacheConfig.CATALOGUE_TTL);
+    private final ReadThroughCache<Long, List<Screening>> byMovie =
+            new ReadThroughCache<>("screenings.byMovie", CacheConfig.SCREENING_LIST_CACHE_SIZE, CacheConfig.CATALOGUE_TTL);
+
+    @Override
+    public List<Screening> findByMovie(long movieId) {
+        return byMovie.get(movieId, id -> List.copyOf(super.findByMovie(id)));
+    }
+
+    @Override
+    public Screening findById(long id) {
+        return byId.get(id, super::findById);
+    }
+
+    public void invalidate(Screening screening) {
+        byId.invalidate(screening.id());
+        byMovie.invalidate(screening.movieId());
+    }
+
+    public void invalidateAll() {
+        byId.invalidateAll();
+        byMovie.invalidateAll();
+    }
+}
@@ -0,0 +1,37 @@
+package kz.cinego.app.repository;
+
+import kz.cinego.app.entity.Hall;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+
+public class HallRepository {
+
+    public Hall findById(Connection conn, long id) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT * FROM halls WHERE id=?")) {
+            ps.setLong(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                return new Hall(
+                        rs.getLong("id"),
+                        rs.getString("name"),
+                        rs.getInt("rows_count"),
+                        rs.getInt("cols_count")
+                );
+            }
+        }
+    }
+
+    public Set<Long> findAllIds(Connection conn) throws SQLException {
+        Set<Long> ids = new HashSet<>();
+        try (PreparedStatement ps = conn.prepareStatement("SELECT id FROM halls");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) ids.add(rs.getLong(1));
+        }
+        return ids;
+    }
+}
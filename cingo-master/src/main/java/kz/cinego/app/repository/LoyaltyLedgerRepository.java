@@ -0,0 +1,140 @@
+package kz.cinego.app.repository;
+
+import kz.cinego.app.entity.LoyaltyEntry;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LoyaltyLedgerRepository {
+
+    private static final LoyaltyEntry.Kind[] KINDS = LoyaltyEntry.Kind.values();
+
+    static final String BALANCE_SQL = """
+            SELECT u.loyalty_points
+                     + COALESCE((SELECT SUM(l.points) FROM loyalty_ledger l
+                                 WHERE l.user_id = u.id AND l.id > u.points_seq), 0) AS balance,
+                   COALESCE((SELECT MAX(l.id) FROM loyalty_ledger l
+                             WHERE l.user_id = u.id AND l.id > u.points_seq), u.points_seq) AS seq
+            FROM users u
+            WHERE u.id = ?
+            """;
+
+    static final String HELD_SQL = "SELECT COALESCE(SUM(held), 0) FROM loyalty_ledger WHERE booking_id = ?";
+    // A booking has one user, so grouping by booking alone keeps the index order (no temp B-tree).
+    static final String HELD_FOR_ALL_SQL = """
+            SELECT booking_id, user_id, SUM(held) AS held
+            FROM loyalty_ledger
+            WHERE booking_id IN (SELECT value FROM json_each(?))
+            GROUP BY booking_id
+            HAVING SUM(held) > 0
+            """;
+
+    // Live balance and the last ledger entry it includes; null for an unknown user.
+    public record Balance(long userId, long points, long seq) {}
+
+    public long append(Connection conn, long userId, long bookingId, LoyaltyEntry.Kind kind, int points, int held)
+            throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("""
+            INSERT INTO loyalty_ledger(user_id, booking_id, kind, points, held, created_at)
+            VALUES(?,?,?,?,?,?)
+        """, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setLong(1, userId);
+            ps.setLong(2, bookingId);
+            ps.setInt(3, kind.ordinal());
+            ps.setInt(4, points);
+            ps.setInt(5, held);
+            ps.setString(6, LocalDateTime.now().toString());
+            ps.executeUpdate();
+
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (keys.next()) return keys.getLong(1);
+                throw new SQLException("No generated key for ledger entry");
+            }
+        }
+    }
+
+    public Balance balance(Connection conn, long userId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(BALANCE_SQL)) {
+            ps.setLong(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                return new Balance(userId, rs.getLong("balance"), rs.getLong("seq"));
+            }
+        }
+    }
+
+    // Points still reserved for the booking.
+    public int heldFor(Connection conn, long bookingId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(HELD_SQL)) {
+            ps.setLong(1, bookingId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    public record Held(long bookingId, long userId, int points) {}
+
+    // Bookings of the set that still have points reserved.
+    public List<Held> heldForAll(Connection conn, long[] bookingIds) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(HELD_FOR_ALL_SQL)) {
+            ps.setString(1, BookingRepository.idArray(bookingIds));
+            try (ResultSet rs = ps.executeQuery()) {
+                List<Held> list = new ArrayList<>();
+                while (rs.next()) {
+                    list.add(new Held(rs.getLong("booking_id"), rs.getLong("user_id"), rs.getInt("held")));
+                }
+                return list;
+            }
+        }
+    }
+
+    public List<LoyaltyEntry> findByUser(Connection conn, long userId, int limit) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("""
+            SELECT * FROM loyalty_ledger
+            WHERE user_id = ?
+            ORDER BY id DESC
+            LIMIT ?
+        """)) {
+            ps.setLong(1, userId);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                List<LoyaltyEntry> list = new ArrayList<>();
+                while (rs.next()) {
+                    long bookingId = rs.getLong("booking_id");
+                    Long booking = rs.wasNull() ? null : bookingId;
+                    list.add(new LoyaltyEntry(
+                            rs.getLong("id"),
+                            rs.getLong("user_id"),
+                            booking,
+                            KINDS[rs.getInt("kind")],
+                            rs.getInt("points"),
+                            rs.getInt("held"),
+                            LocalDateTime.parse(rs.getString("created_at"))
+                    ));
+                }
+                return list;
+            }
+        }
+    }
+
+    // Folds the ledger into users.loyalty_points; never moves a user's watermark backwards.
+    public void reconcile(Connection conn, List<Balance> balances) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("""
+            UPDATE users SET loyalty_points = ?, points_seq = ?
+            WHERE id = ? AND points_seq <= ?
+        """)) {
+            for (Balance b : balances) {
+                ps.setLong(1, b.points());
+                ps.setLong(2, b.seq());
+                ps.setLong(3, b.userId());
+                ps.setLong(4, b.seq());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+}
@@ -5,25 +5,21 @@ import kz.cinego.app.entity.Movie;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class MovieRepository {
 
+    static final String PAGE_SQL = "SELECT * FROM movies WHERE id > ? ORDER BY id LIMIT ?";
+
     public List<Movie> findAll() {
         List<Movie> list = new ArrayList<>();
         try (Connection conn = Database.getConnection();
              PreparedStatement ps = conn.prepareStatement("SELECT * FROM movies ORDER BY id");
              ResultSet rs = ps.executeQuery()) {
 
-            while (rs.next()) {
-                list.add(new Movie(
-                        rs.getLong("id"),
-                        rs.getString("title"),
-                        rs.getString("genre"),
-                        rs.getInt("duration_min"),
-                        rs.getString("age_rating")
-                ));
-            }
+            while (rs.next()) list.add(map(rs));
             return list;
         } catch (SQLException e) {
             throw new RuntimeException("MovieRepository.findAll failed: " + e.getMessage(), e);
@@ -36,16 +32,46 @@ public class MovieRepository {
             ps.setLong(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (!rs.next()) return null;
-                return new Movie(
-                        rs.getLong("id"),
-                        rs.getString("title"),
-                        rs.getString("genre"),
-                        rs.getInt("duration_min"),
-                        rs.getString("age_rating")
-                );
+                return map(rs);
             }
         } catch (SQLException e) {
             throw new RuntimeException("MovieRepository.findById failed: " + e.getMessage(), e);
         }
     }
+
+    // Cursor: ID of the last movie on the previous page; null for the first page.
+    public Page<Movie> findPage(String after, int limit) {
+        List<Movie> list = new ArrayList<>(limit + 1);
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(PAGE_SQL)) {
+            ps.setLong(1, after == null ? 0 : Page.idCursor(after));
+            ps.setInt(2, limit + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) list.add(map(rs));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("MovieRepository.findPage failed: " + e.getMessage(), e);
+        }
+        return Page.of(list, limit, m -> Long.toString(m.id()));
+    }
+
+    // Running time in minutes by movie ID.
+    public Map<Long, Integer> findDurations(Connection conn) throws SQLException {
+        Map<Long, Integer> durations = new HashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement("SELECT id, duration_min FROM movies");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) durations.put(rs.getLong(1), rs.getInt(2));
+        }
+        return durations;
+    }
+
+    private Movie map(ResultSet rs) throws SQLException {
+        return new Movie(
+                rs.getLong("id"),
+                rs.getString("title"),
+                rs.getString("genre"),
+                rs.getInt("duration_min"),
+                rs.getString("age_rating")
+        );
+    }
 }
@@ -0,0 +1,75 @@
+package kz.cinego.app.repository;
+
+import kz.cinego.app.config.QueryConfig;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * One page of a keyset-paginated listing. {@code next} is the cursor to
+ * pass back for the following page, or null on the last one. Cursors are
+ * opaque to callers; each listing decides what goes into its own.
+ */
+public record Page<T>(List<T> items, String next) {
+
+    // The default page size for null, capped at QueryConfig.MAX_PAGE_SIZE.
+    public static int limit(Integer requested) {
+        if (requested == null) return QueryConfig.PAGE_SIZE;
+        if (requested < 1) throw new IllegalArgumentException("Bad limit: " + requested);
+        return Math.min(requested, QueryConfig.MAX_PAGE_SIZE);
+    }
+
+    // Queries fetch limit + 1 rows; the extra one only says whether there is a next page.
+    static <T> Page<T> of(List<T> rows, int limit, Function<T, String> cursor) {
+        if (rows.size() <= limit) return new Page<>(rows, null);
+        List<T> items = rows.subList(0, limit);
+        return new Page<>(List.copyOf(items), cursor.apply(items.get(limit - 1)));
+    }
+
+    /*
+     * Every item of a listing, read one page at a time as the stream is
+     * consumed. Each page borrows and returns its own connection, so a slow
+     * consumer holds no connection between pages. The first page is read
+     * right away so that errors surface before anything is consumed.
+     */
+    static <T> Stream<T> walk(Function<String, Page<T>> fetch) {
+        Page<T> first = fetch.apply(null);
+        Iterator<T> items = new Iterator<>() {
+            private Page<T> page = first;
+            private int i;
+
+            @Override
+            public boolean hasNext() {
+                while (i >= page.items().size()) {
+                    if (page.next() == null) return false;
+                    page = fetch.apply(page.next());
+                    i = 0;
+                }
+                return true;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return page.items().get(i++);
+            }
+        };
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(items, Spliterator.ORDERED | Spliterator.NONNULL), false
+        );
+    }
+
+    static long idCursor(String cursor) {
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad cursor: " + cursor);
+        }
+    }
+}
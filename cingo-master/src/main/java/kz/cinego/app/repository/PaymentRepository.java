@@ -0,0 +1,45 @@
+package kz.cinego.app.repository;
+
+import kz.cinego.app.entity.Money;
+import kz.cinego.app.entity.Payment;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+
+public class PaymentRepository {
+
+    public Payment findById(Connection conn, String paymentId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT * FROM payments WHERE payment_id=?")) {
+            ps.setString(1, paymentId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                long amountMinor = rs.getLong("amount_minor");
+                Money amount = rs.wasNull() ? null : Money.ofMinor(amountMinor);
+                return new Payment(
+                        rs.getString("payment_id"),
+                        rs.getLong("booking_id"),
+                        amount,
+                        rs.getString("status"),
+                        rs.getString("error"),
+                        LocalDateTime.parse(rs.getString("processed_at"))
+                );
+            }
+        }
+    }
+
+    public void insert(Connection conn, Payment payment) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("""
+            INSERT INTO payments(payment_id, booking_id, amount_minor, status, error, processed_at)
+            VALUES(?,?,?,?,?,?)
+        """)) {
+            ps.setString(1, payment.paymentId());
+            ps.setLong(2, payment.bookingId());
+            if (payment.amount() == null) ps.setNull(3, Types.INTEGER);
+            else ps.setLong(3, payment.amount().minor());
+            ps.setString(4, payment.status());
+            ps.setString(5, payment.error());
+            ps.setString(6, payment.processedAt().toString());
+            ps.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package kz.cinego.app.repository;
+
+import kz.cinego.app.entity.PricingRule;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PricingRuleRepository {
+
+    public List<PricingRule> findAll(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT * FROM pricing_rules ORDER BY id");
+             ResultSet rs = ps.executeQuery()) {
+            List<PricingRule> list = new ArrayList<>();
+            while (rs.next()) {
+                list.add(new PricingRule(
+                        rs.getLong("id"),
+                        PricingRule.Kind.valueOf(rs.getString("kind")),
+                        rs.getString("param"),
+                        rs.getInt("percent")
+                ));
+            }
+            return list;
+        }
+    }
+
+    public long insert(Connection conn, PricingRule.Kind kind, String param, int percent) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO pricing_rules(kind, param, percent) VALUES(?,?,?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, kind.name());
+            ps.setString(2, param);
+            ps.setInt(3, percent);
+            ps.executeUpdate();
+
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (keys.next()) return keys.getLong(1);
+                throw new SQLException("No generated key for pricing rule");
+            }
+        }
+    }
+
+    public boolean delete(Connection conn, long id) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("DELETE FROM pricing_rules WHERE id=?")) {
+            ps.setLong(1, id);
+            return ps.executeUpdate() > 0;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package kz.cinego.app.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs EXPLAIN QUERY PLAN over the hot-path queries and fails if any of them
+ * falls back to a full scan or a temp B-tree sort.
+ */
+public final class QueryPlanCheck {
+    private QueryPlanCheck() {}
+
+    private static final Map<String, String> HOT_QUERIES = new LinkedHashMap<>();
+
+    static {
+        HOT_QUERIES.put("SeatRepository.isSeatClaimedByOther", SeatRepository.CLAIMED_BY_OTHER_SQL);
+        HOT_QUERIES.put("SeatRepository.findActiveSeatStates", SeatRepository.ACTIVE_SEAT_STATES_SQL);
+        HOT_QUERIES.put("SeatRepository.findByBooking", SeatRepository.BY_BOOKING_SQL);
+        HOT_QUERIES.put("ScreeningRepository.findByMovie", ScreeningRepository.BY_MOVIE_SQL);
+        HOT_QUERIES.put("ScreeningRepository.findByHallBetween", ScreeningRepository.HALL_RANGE_SQL);
+        HOT_QUERIES.put("ScreeningRepository.findPageByMovie", ScreeningRepository.MOVIE_PAGE_SQL);
+        HOT_QUERIES.put("MovieRepository.findPage", MovieRepository.PAGE_SQL);
+        HOT_QUERIES.put("BookingRepository.deleteSeatClaims", BookingRepository.DELETE_CLAIMS_SQL);
+        HOT_QUERIES.put("BookingRepository.deleteSeatClaims[]", BookingRepository.DELETE_CLAIMS_BATCH_SQL);
+        HOT_QUERIES.put("SeatHoldRepository.deleteExpired", SeatHoldRepository.DELETE_EXPIRED_SQL);
+        HOT_QUERIES.put("BookingEventRepository.findAfter", BookingEventRepository.AFTER_SQL);
+        HOT_QUERIES.put("BookingRepository.findExpirable", BookingRepository.EXPIRABLE_SQL);
+        HOT_QUERIES.put("BookingRepository.findPageByUser", BookingRepository.USER_PAGE_SQL);
+        HOT_QUERIES.put("LoyaltyLedgerRepository.balance", LoyaltyLedgerRepository.BALANCE_SQL);
+        HOT_QUERIES.put("LoyaltyLedgerRepository.heldFor", LoyaltyLedgerRepository.HELD_SQL);
+        HOT_QUERIES.put("LoyaltyLedgerRepository.heldForAll", LoyaltyLedgerRepository.HELD_FOR_ALL_SQL);
+    }
+
+    public static void verify(Connection conn) throws SQLException {
+        List<String> problems = new ArrayList<>();
+        for (Map.Entry<String, String> query : HOT_QUERIES.entrySet()) {
+            for (String step : explain(conn, query.getValue())) {
+                // json_each over a bound ID list is the input, not a table scan.
+                boolean scan = step.startsWith("SCAN ") && !step.startsWith("SCAN json_each");
+                if (scan || step.contains("USE TEMP B-TREE")) {
+                    problems.add(query.getKey() + ": " + step);
+                }
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException(
+                    "Hot-path queries without an index:\n  " + String.join("\n  ", problems)
+            );
+        }
+    }
+
+    public static List<String> explain(Connection conn, String sql) throws SQLException {
+        List<String> steps = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) steps.add(rs.getString("detail"));
+        }
+        return steps;
+    }
+}
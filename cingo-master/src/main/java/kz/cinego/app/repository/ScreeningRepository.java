@@ -1,21 +1,37 @@
 package kz.cinego.app.repository;
 
+import kz.cinego.app.config.QueryConfig;
 import kz.cinego.app.db.Database;
+import kz.cinego.app.entity.Money;
 import kz.cinego.app.entity.Screening;
 
-import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class ScreeningRepository {
 
+    static final String BY_MOVIE_SQL = "SELECT * FROM screenings WHERE movie_id=? ORDER BY start_time";
+    static final String HALL_RANGE_SQL = """
+            SELECT * FROM screenings
+            WHERE hall_id = ? AND start_time >= ? AND start_time < ?
+            ORDER BY start_time
+            """;
+    // Row-value keyset over idx_screenings_movie_start, whose entries end in the rowid.
+    static final String MOVIE_PAGE_SQL = """
+            SELECT * FROM screenings
+            WHERE movie_id = ? AND (start_time, id) > (?, ?)
+            ORDER BY start_time, id
+            LIMIT ?
+            """;
+
     public List<Screening> findByMovie(long movieId) {
         List<Screening> list = new ArrayList<>();
         try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(
-                     "SELECT * FROM screenings WHERE movie_id=? ORDER BY start_time")) {
+             PreparedStatement ps = conn.prepareStatement(BY_MOVIE_SQL)) {
             ps.setLong(1, movieId);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) list.add(map(rs));
@@ -26,16 +42,98 @@ public class ScreeningRepository {
         }
     }
 
-    public Screening findById(long id) {
+    // Cursor: start time and ID of the last screening on the previous page; null for the first page.
+    public Page<Screening> findPageByMovie(long movieId, String after, int limit) {
+        String afterStart = "";
+        long afterId = 0;
+        if (after != null) {
+            int sep = after.lastIndexOf('_');
+            if (sep < 0) throw new IllegalArgumentException("Bad cursor: " + after);
+            try {
+                afterStart = LocalDateTime.parse(after.substring(0, sep)).toString();
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Bad cursor: " + after);
+            }
+            afterId = Page.idCursor(after.substring(sep + 1));
+        }
+
+        List<Screening> list = new ArrayList<>(limit + 1);
         try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement("SELECT * FROM screenings WHERE id=?")) {
+             PreparedStatement ps = conn.prepareStatement(MOVIE_PAGE_SQL)) {
+            ps.setLong(1, movieId);
+            ps.setString(2, afterStart);
+            ps.setLong(3, afterId);
+            ps.setInt(4, limit + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) list.add(map(rs));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("ScreeningRepository.findPageByMovie failed: " + e.getMessage(), e);
+        }
+        return Page.of(list, limit, s -> s.startTime() + "_" + s.id());
+    }
+
+    // All screenings of the movie in page order, read a page at a time as the stream is consumed.
+    public Stream<Screening> streamByMovie(long movieId) {
+        return Page.walk(after -> findPageByMovie(movieId, after, QueryConfig.MAX_PAGE_SIZE));
+    }
+
+    public Screening findById(long id) {
+        try (Connection conn = Database.getConnection()) {
+            return findById(conn, id);
+        } catch (SQLException e) {
+            throw new RuntimeException("ScreeningRepository.findById failed: " + e.getMessage(), e);
+        }
+    }
+
+    public Screening findById(Connection conn, long id) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT * FROM screenings WHERE id=?")) {
             ps.setLong(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (!rs.next()) return null;
                 return map(rs);
             }
+        }
+    }
+
+    // Screenings of the hall starting in [from, to).
+    public List<Screening> findByHallBetween(Connection conn, long hallId, LocalDateTime from, LocalDateTime to)
+            throws SQLException {
+        List<Screening> list = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(HALL_RANGE_SQL)) {
+            ps.setLong(1, hallId);
+            ps.setString(2, from.toString());
+            ps.setString(3, to.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) list.add(map(rs));
+            }
+        }
+        return list;
+    }
+
+    public List<Screening> findByHallBetween(long hallId, LocalDateTime from, LocalDateTime to) {
+        try (Connection conn = Database.getConnection()) {
+            return findByHallBetween(conn, hallId, from, to);
         } catch (SQLException e) {
-            throw new RuntimeException("ScreeningRepository.findById failed: " + e.getMessage(), e);
+            throw new RuntimeException("ScreeningRepository.findByHallBetween failed: " + e.getMessage(), e);
+        }
+    }
+
+    // IDs of the given screenings are ignored; one batch per call.
+    public void insertAll(Connection conn, List<Screening> screenings) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("""
+            INSERT INTO screenings(movie_id, hall_id, start_time, base_price_minor, base_price)
+            VALUES(?,?,?,?,? / 100.0)
+        """)) {
+            for (Screening s : screenings) {
+                ps.setLong(1, s.movieId());
+                ps.setLong(2, s.hallId());
+                ps.setString(3, s.startTime().toString());
+                ps.setLong(4, s.basePrice().minor());
+                ps.setLong(5, s.basePrice().minor());
+                ps.addBatch();
+            }
+            ps.executeBatch();
         }
     }
 
@@ -44,7 +142,7 @@ public class ScreeningRepository {
         long movieId = rs.getLong("movie_id");
         long hallId = rs.getLong("hall_id");
         LocalDateTime start = LocalDateTime.parse(rs.getString("start_time"));
-        BigDecimal base = rs.getBigDecimal("base_price");
+        Money base = Money.ofMinor(rs.getLong("base_price_minor"));
         return new Screening(id, movieId, hallId, start, base);
     }
 }
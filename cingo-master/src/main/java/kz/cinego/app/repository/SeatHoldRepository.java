@@ -0,0 +1,75 @@
+package kz.cinego.app.repository;
+
+import kz.cinego.app.entity.Seat;
+import kz.cinego.app.entity.SeatHold;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SeatHoldRepository {
+
+    static final String DELETE_EXPIRED_SQL = "DELETE FROM seat_holds WHERE expires_at <= ?";
+
+    public void insert(Connection conn, SeatHold hold) throws SQLException {
+        StringBuilder coords = new StringBuilder();
+        for (Seat seat : hold.seats()) {
+            if (coords.length() > 0) coords.append(' ');
+            coords.append(seat.rowNum()).append(',').append(seat.colNum());
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO seat_holds(token, user_id, screening_id, seats, expires_at) VALUES(?,?,?,?,?)")) {
+            ps.setString(1, hold.token());
+            ps.setLong(2, hold.userId());
+            ps.setLong(3, hold.screeningId());
+            ps.setString(4, coords.toString());
+            ps.setLong(5, hold.expiresAt().toEpochMilli());
+            ps.executeUpdate();
+        }
+    }
+
+    public void delete(Connection conn, String token) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("DELETE FROM seat_holds WHERE token=?")) {
+            ps.setString(1, token);
+            ps.executeUpdate();
+        }
+    }
+
+    public int deleteExpired(Connection conn, long nowMillis) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(DELETE_EXPIRED_SQL)) {
+            ps.setLong(1, nowMillis);
+            return ps.executeUpdate();
+        }
+    }
+
+    public List<StoredHold> findActive(Connection conn, long nowMillis) throws SQLException {
+        List<StoredHold> list = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT * FROM seat_holds WHERE expires_at > ? ORDER BY expires_at")) {
+            ps.setLong(1, nowMillis);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    List<int[]> coords = new ArrayList<>();
+                    for (String part : rs.getString("seats").split(" ")) {
+                        String[] rc = part.split(",");
+                        coords.add(new int[]{Integer.parseInt(rc[0]), Integer.parseInt(rc[1])});
+                    }
+                    list.add(new StoredHold(
+                            rs.getString("token"),
+                            rs.getLong("user_id"),
+                            rs.getLong("screening_id"),
+                            coords,
+                            rs.getLong("expires_at")
+                    ));
+                }
+            }
+        }
+        return list;
+    }
+
+    public record StoredHold(String token, long userId, long screeningId, List<int[]> seats, long expiresAtMillis) {}
+}
@@ -6,42 +6,114 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class SeatRepository {
 
-    public Seat findByHallRowCol(Connection conn, long hallId, int row, int col) throws SQLException {
+    static final String CLAIMED_BY_OTHER_SQL =
+            "SELECT 1 FROM seat_claims WHERE screening_id=? AND seat_id=? AND booking_id<>?";
+
+    static final String BY_BOOKING_SQL = """
+            SELECT s.*
+            FROM booking_items bi
+            JOIN seats s ON s.id = bi.seat_id
+            WHERE bi.booking_id = ?
+            """;
+
+    static final String ACTIVE_SEAT_STATES_SQL = """
+            SELECT s.row_num, s.col_num, b.status
+            FROM bookings b
+            JOIN booking_items bi ON bi.booking_id = b.id
+            JOIN seats s ON s.id = bi.seat_id
+            WHERE b.screening_id = ?
+              AND b.status IN ('CREATED','PAID')
+            """;
+
+    public List<Seat> findByHall(Connection conn, long hallId) throws SQLException {
+        List<Seat> list = new ArrayList<>();
         try (PreparedStatement ps = conn.prepareStatement(
-                "SELECT * FROM seats WHERE hall_id=? AND row_num=? AND col_num=?")) {
+                "SELECT * FROM seats WHERE hall_id=? ORDER BY row_num, col_num")) {
             ps.setLong(1, hallId);
-            ps.setInt(2, row);
-            ps.setInt(3, col);
             try (ResultSet rs = ps.executeQuery()) {
-                if (!rs.next()) return null;
-                return new Seat(
-                        rs.getLong("id"),
-                        rs.getLong("hall_id"),
-                        rs.getInt("row_num"),
-                        rs.getInt("col_num"),
-                        rs.getString("seat_type")
-                );
+                while (rs.next()) list.add(map(rs));
+            }
+        }
+        return list;
+    }
+
+    public boolean isSeatClaimedByOther(Connection conn, long screeningId, long seatId, long bookingId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(CLAIMED_BY_OTHER_SQL)) {
+            ps.setLong(1, screeningId);
+            ps.setLong(2, seatId);
+            ps.setLong(3, bookingId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    public List<Seat> findByBooking(Connection conn, long bookingId) throws SQLException {
+        List<Seat> list = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(BY_BOOKING_SQL)) {
+            ps.setLong(1, bookingId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) list.add(map(rs));
             }
         }
+        return list;
     }
 
-    public boolean isSeatBookedForScreening(Connection conn, long screeningId, long seatId) throws SQLException {
+    // Seats of each booking, keyed by booking ID, in one query.
+    public Map<Long, List<Seat>> findByBookings(Connection conn, long[] bookingIds) throws SQLException {
+        Map<Long, List<Seat>> byBooking = new HashMap<>();
         try (PreparedStatement ps = conn.prepareStatement("""
-            SELECT COUNT(*)
+            SELECT bi.booking_id, s.*
             FROM booking_items bi
-            JOIN bookings b ON b.id = bi.booking_id
-            WHERE b.screening_id = ?
-              AND bi.seat_id = ?
-              AND b.status IN ('CREATED','PAID')
+            JOIN seats s ON s.id = bi.seat_id
+            WHERE bi.booking_id IN (SELECT value FROM json_each(?))
         """)) {
+            ps.setString(1, BookingRepository.idArray(bookingIds));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    byBooking.computeIfAbsent(rs.getLong("booking_id"), id -> new ArrayList<>()).add(map(rs));
+                }
+            }
+        }
+        return byBooking;
+    }
+
+    public List<SeatState> findActiveSeatStates(Connection conn, long screeningId) throws SQLException {
+        List<SeatState> list = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(ACTIVE_SEAT_STATES_SQL)) {
             ps.setLong(1, screeningId);
-            ps.setLong(2, seatId);
             try (ResultSet rs = ps.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
+                while (rs.next()) {
+                    list.add(new SeatState(
+                            rs.getInt("row_num"),
+                            rs.getInt("col_num"),
+                            "PAID".equals(rs.getString("status"))
+                    ));
+                }
             }
         }
+        return list;
     }
+
+    private Seat map(ResultSet rs) throws SQLException {
+        return new Seat(
+                rs.getLong("id"),
+                rs.getLong("hall_id"),
+                rs.getInt("row_num"),
+                rs.getInt("col_num"),
+                rs.getString("seat_type")
+        );
+    }
+
+    // Seats in request order plus every coordinate that did not resolve.
+    public record SeatLookup(List<Seat> seats, List<int[]> missing) {}
+
+    public record SeatState(int rowNum, int colNum, boolean paid) {}
 }
@@ -40,22 +40,4 @@ public class UserRepository {
             }
         }
     }
-
-    public void addPoints(Connection conn, long userId, int add) throws SQLException {
-        try (PreparedStatement ps = conn.prepareStatement(
-                "UPDATE users SET loyalty_points = loyalty_points + ? WHERE id=?")) {
-            ps.setInt(1, add);
-            ps.setLong(2, userId);
-            ps.executeUpdate();
-        }
-    }
-
-    public void subtractPoints(Connection conn, long userId, int sub) throws SQLException {
-        try (PreparedStatement ps = conn.prepareStatement(
-                "UPDATE users SET loyalty_points = MAX(loyalty_points - ?, 0) WHERE id=?")) {
-            ps.setInt(1, sub);
-            ps.setLong(2, userId);
-            ps.executeUpdate();
-        }
-    }
 }
@@ -0,0 +1,69 @@
+package kz.cinego.app.schedule;
+
+import kz.cinego.app.entity.Money;
+import kz.cinego.app.entity.Screening;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * movie_id,hall_id,start_time,base_price per line, e.g.
+ * {@code 3,1,2026-03-01T19:30,1500.00}. A header line, blank lines and
+ * lines starting with # are skipped.
+ */
+public class CsvScheduleReader implements ScheduleReader {
+
+    private final BufferedReader in;
+    private int line;
+    private boolean pastHeader;
+
+    public CsvScheduleReader(BufferedReader in) {
+        this.in = in;
+    }
+
+    @Override
+    public Screening next() throws IOException {
+        String text;
+        while ((text = in.readLine()) != null) {
+            line++;
+            text = text.strip();
+            if (text.isEmpty() || text.startsWith("#")) continue;
+            // The first line that is not blank or a comment may be a header.
+            boolean first = !pastHeader;
+            pastHeader = true;
+            if (first && !Character.isDigit(text.charAt(0))) continue;
+            return parse(text);
+        }
+        return null;
+    }
+
+    @Override
+    public String position() {
+        return "line " + line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private static Screening parse(String text) {
+        String[] cols = text.split(",", -1);
+        if (cols.length != 4) {
+            throw new IllegalArgumentException("Expected 4 columns, got " + cols.length);
+        }
+        try {
+            return new Screening(
+                    0,
+                    Long.parseLong(cols[0].strip()),
+                    Long.parseLong(cols[1].strip()),
+                    LocalDateTime.parse(cols[2].strip()),
+                    Money.parse(cols[3])
+            );
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid row: " + e.getMessage(), e);
+        }
+    }
+}
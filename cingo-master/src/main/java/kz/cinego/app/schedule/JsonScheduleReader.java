@@ -0,0 +1,187 @@
+package kz.cinego.app.schedule;
+
+import kz.cinego.app.entity.Money;
+import kz.cinego.app.entity.Screening;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A JSON array of flat objects, read one object at a time:
+ *
+ * <pre>
+ * [{"movieId": 3, "hallId": 1, "startTime": "2026-03-01T19:30", "basePrice": "1500.00"}, ...]
+ * </pre>
+ *
+ * snake_case keys are accepted too and unknown keys are ignored. Values
+ * must be strings, numbers, booleans or null; nested values are a syntax
+ * error.
+ */
+public class JsonScheduleReader implements ScheduleReader {
+
+    private final Reader in;
+    private int peeked = -2;
+    private int row;
+    private boolean started;
+    private boolean finished;
+
+    public JsonScheduleReader(Reader in) {
+        this.in = in;
+    }
+
+    @Override
+    public Screening next() throws IOException {
+        if (finished) return null;
+        if (!started) {
+            expect('[');
+            started = true;
+            if (peekToken() == ']') {
+                read();
+                finished = true;
+                return null;
+            }
+        } else {
+            int c = readToken();
+            if (c == ']') {
+                finished = true;
+                return null;
+            }
+            if (c != ',') throw syntax("',' or ']'", c);
+        }
+
+        row++;
+        return toScreening(readObject());
+    }
+
+    @Override
+    public String position() {
+        return "row " + row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private Map<String, String> readObject() throws IOException {
+        Map<String, String> fields = new HashMap<>();
+        expect('{');
+        if (peekToken() == '}') {
+            read();
+            return fields;
+        }
+        while (true) {
+            expect('"');
+            String key = readString();
+            expect(':');
+            fields.put(key, readScalar());
+
+            int c = readToken();
+            if (c == '}') return fields;
+            if (c != ',') throw syntax("',' or '}'", c);
+        }
+    }
+
+    private String readScalar() throws IOException {
+        int c = readToken();
+        if (c == '"') return readString();
+
+        StringBuilder sb = new StringBuilder();
+        while (c != -1 && c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+            if (c == '{' || c == '[') throw syntax("a scalar value", c);
+            sb.append((char) c);
+            c = read();
+        }
+        peeked = c;
+        if (sb.isEmpty()) throw syntax("a value", c);
+        String literal = sb.toString();
+        return literal.equals("null") ? null : literal;
+    }
+
+    private String readString() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            int c = read();
+            if (c == -1) throw syntax("'\"'", c);
+            if (c == '"') return sb.toString();
+            if (c != '\\') {
+                sb.append((char) c);
+                continue;
+            }
+            int e = read();
+            switch (e) {
+                case '"', '\\', '/' -> sb.append((char) e);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    char[] hex = new char[4];
+                    for (int i = 0; i < 4; i++) hex[i] = (char) read();
+                    sb.append((char) Integer.parseInt(new String(hex), 16));
+                }
+                default -> throw syntax("an escape", e);
+            }
+        }
+    }
+
+    private static Screening toScreening(Map<String, String> fields) {
+        try {
+            return new Screening(
+                    0,
+                    Long.parseLong(field(fields, "movieId", "movie_id")),
+                    Long.parseLong(field(fields, "hallId", "hall_id")),
+                    LocalDateTime.parse(field(fields, "startTime", "start_time")),
+                    Money.parse(field(fields, "basePrice", "base_price"))
+            );
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid row: " + e.getMessage(), e);
+        }
+    }
+
+    private static String field(Map<String, String> fields, String name, String alias) {
+        String value = fields.containsKey(name) ? fields.get(name) : fields.get(alias);
+        if (value == null) throw new IllegalArgumentException("Missing " + name);
+        return value;
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = readToken();
+        if (c != expected) throw syntax("'" + expected + "'", c);
+    }
+
+    private int peekToken() throws IOException {
+        int c = readToken();
+        peeked = c;
+        return c;
+    }
+
+    // Next character that is not whitespace.
+    private int readToken() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != -1 && Character.isWhitespace(c));
+        return c;
+    }
+
+    private int read() throws IOException {
+        if (peeked != -2) {
+            int c = peeked;
+            peeked = -2;
+            return c;
+        }
+        return in.read();
+    }
+
+    // An IOException, so it aborts the import like a read failure rather than rejecting one row.
+    private IOException syntax(String expected, int found) {
+        String what = found == -1 ? "end of input" : "'" + (char) found + "'";
+        return new IOException("Malformed schedule JSON at row " + row + ": expected " + expected + ", found " + what);
+    }
+}
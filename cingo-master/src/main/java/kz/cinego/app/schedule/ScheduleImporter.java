@@ -0,0 +1,170 @@
+package kz.cinego.app.schedule;
+
+import kz.cinego.app.config.ImportConfig;
+import kz.cinego.app.db.Database;
+import kz.cinego.app.entity.Screening;
+import kz.cinego.app.repository.CachedScreeningRepository;
+import kz.cinego.app.repository.HallRepository;
+import kz.cinego.app.repository.MovieRepository;
+import kz.cinego.app.repository.ScreeningRepository;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Streams a schedule into the screenings table. Every row is checked
+ * against the halls and movies and against the screenings already in its
+ * hall, including earlier rows of the same import; a screening occupies
+ * its hall for the movie's duration_min plus
+ * {@link ImportConfig#TURNAROUND_MINUTES}. Rows are validated on a reader
+ * connection and valid ones written in writer transactions of
+ * {@link ImportConfig#BATCH_SIZE}, so live bookings only wait for the
+ * inserts. Invalid rows are skipped and reported.
+ */
+public class ScheduleImporter {
+
+    private final ScreeningRepository screeningRepo;
+    private final HallRepository hallRepo;
+    private final MovieRepository movieRepo;
+
+    public ScheduleImporter(ScreeningRepository screeningRepo, HallRepository hallRepo, MovieRepository movieRepo) {
+        this.screeningRepo = screeningRepo;
+        this.hallRepo = hallRepo;
+        this.movieRepo = movieRepo;
+    }
+
+    public record ImportResult(int imported, int rejected, List<String> errors, long elapsedMillis) {}
+
+    // One import at a time: rows are checked against what earlier batches committed.
+    public synchronized ImportResult importFrom(ScheduleReader reader) {
+        long started = System.nanoTime();
+        Batch batch = new Batch();
+        List<String> errors = new ArrayList<>();
+        int imported = 0;
+        int rejected = 0;
+
+        try (Connection conn = Database.getConnection()) {
+            Set<Long> halls = hallRepo.findAllIds(conn);
+            Map<Long, Integer> durations = movieRepo.findDurations(conn);
+            int maxMinutes = durations.values().stream().mapToInt(Integer::intValue).max().orElse(0)
+                    + ImportConfig.TURNAROUND_MINUTES;
+
+            while (true) {
+                Screening s;
+                try {
+                    s = reader.next();
+                    if (s == null) break;
+                    validate(conn, s, halls, durations, maxMinutes, batch);
+                } catch (IllegalArgumentException e) {
+                    if (rejected++ < ImportConfig.MAX_REPORTED_ERRORS) {
+                        errors.add(reader.position() + ": " + e.getMessage());
+                    }
+                    continue;
+                }
+
+                batch.add(s, end(s, durations));
+                if (batch.size() == ImportConfig.BATCH_SIZE) {
+                    imported += batch.flush();
+                }
+            }
+            imported += batch.flush();
+
+        } catch (SQLException | IOException e) {
+            throw new RuntimeException("Schedule import failed after " + imported + " screenings: " + e.getMessage(), e);
+        } finally {
+            // Only reaches a cache in this process; a running server sees the import after CATALOGUE_TTL.
+            if (imported > 0 && screeningRepo instanceof CachedScreeningRepository cached) {
+                cached.invalidateAll();
+            }
+        }
+
+        long elapsed = (System.nanoTime() - started) / 1_000_000;
+        return new ImportResult(imported, rejected, Collections.unmodifiableList(errors), elapsed);
+    }
+
+    private void validate(
+            Connection conn,
+            Screening s,
+            Set<Long> halls,
+            Map<Long, Integer> durations,
+            int maxMinutes,
+            Batch batch
+    ) throws SQLException {
+        if (!halls.contains(s.hallId())) {
+            throw new IllegalArgumentException("Hall not found: " + s.hallId());
+        }
+        if (!durations.containsKey(s.movieId())) {
+            throw new IllegalArgumentException("Movie not found: " + s.movieId());
+        }
+        if (s.basePrice().minor() <= 0) {
+            throw new IllegalArgumentException("Base price must be positive: " + s.basePrice());
+        }
+
+        LocalDateTime start = s.startTime();
+        LocalDateTime end = end(s, durations);
+        // Anything that starts later than this before our start has ended by then.
+        LocalDateTime earliest = start.minusMinutes(maxMinutes);
+
+        for (Screening other : screeningRepo.findByHallBetween(conn, s.hallId(), earliest, end)) {
+            if (end(other, durations).isAfter(start)) throw overlap(s, other.startTime());
+        }
+        LocalDateTime clash = batch.overlapping(s.hallId(), earliest, start, end);
+        if (clash != null) throw overlap(s, clash);
+    }
+
+    private static LocalDateTime end(Screening s, Map<Long, Integer> durations) {
+        return s.startTime().plusMinutes(durations.getOrDefault(s.movieId(), 0) + ImportConfig.TURNAROUND_MINUTES);
+    }
+
+    private static IllegalArgumentException overlap(Screening s, LocalDateTime otherStart) {
+        return new IllegalArgumentException(
+                "Hall " + s.hallId() + " is busy at " + s.startTime() + " (screening at " + otherStart + ")"
+        );
+    }
+
+    // Rows accepted since the last flush, indexed by hall and start for the overlap check.
+    private final class Batch {
+        private final List<Screening> rows = new ArrayList<>();
+        private final Map<Long, TreeMap<LocalDateTime, LocalDateTime>> byHall = new HashMap<>();
+
+        void add(Screening s, LocalDateTime end) {
+            rows.add(s);
+            byHall.computeIfAbsent(s.hallId(), h -> new TreeMap<>()).put(s.startTime(), end);
+        }
+
+        int size() {
+            return rows.size();
+        }
+
+        LocalDateTime overlapping(long hallId, LocalDateTime earliest, LocalDateTime start, LocalDateTime end) {
+            TreeMap<LocalDateTime, LocalDateTime> hall = byHall.get(hallId);
+            if (hall == null) return null;
+            for (Map.Entry<LocalDateTime, LocalDateTime> e : hall.subMap(earliest, true, end, false).entrySet()) {
+                if (e.getValue().isAfter(start)) return e.getKey();
+            }
+            return null;
+        }
+
+        int flush() throws SQLException {
+            int n = rows.size();
+            if (n == 0) return 0;
+            try (Connection conn = Database.getWriteConnection()) {
+                conn.setAutoCommit(false);
+                screeningRepo.insertAll(conn, rows);
+                conn.commit();
+            }
+            rows.clear();
+            byHall.clear();
+            return n;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package kz.cinego.app.schedule;
+
+import kz.cinego.app.entity.Screening;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A pull-based stream of screenings to import, one row at a time, so a
+ * schedule file is never held in memory. Returned screenings have id 0.
+ *
+ * next() throws IllegalArgumentException for a row with bad values; the
+ * reader stays usable and the caller may skip the row. Any other exception
+ * means the input cannot be read further.
+ */
+public interface ScheduleReader extends AutoCloseable {
+
+    // Null at the end of the input.
+    Screening next() throws IOException;
+
+    // Where the last row came from, for error messages.
+    String position();
+
+    @Override
+    void close() throws IOException;
+
+    // .json is read as a JSON array of rows, anything else as CSV.
+    static ScheduleReader open(Path file) throws IOException {
+        BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        return file.getFileName().toString().endsWith(".json")
+                ? new JsonScheduleReader(in)
+                : new CsvScheduleReader(in);
+    }
+}
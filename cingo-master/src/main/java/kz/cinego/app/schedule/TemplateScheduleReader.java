@@ -0,0 +1,146 @@
+package kz.cinego.app.schedule;
+
+import kz.cinego.app.entity.Money;
+import kz.cinego.app.entity.Screening;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Expands recurring schedule templates into screenings, lazily, one
+ * template line at a time:
+ *
+ * <pre>
+ * movie_id,hall_id,from,to,days,times,base_price
+ * 3,1,2026-03-01,2026-05-31,MON|TUE|FRI,10:00|13:30|19:30,1500.00
+ * 4,2,2026-03-01,2026-03-31,*,21:00,1800.00
+ * </pre>
+ *
+ * from and to are inclusive; days is * for every day. A header line, blank
+ * lines and lines starting with # are skipped.
+ */
+public class TemplateScheduleReader implements ScheduleReader {
+
+    private final BufferedReader in;
+    private int line;
+    private boolean pastHeader;
+
+    private Template current;
+    private LocalDate date;
+    private int timeIndex;
+
+    public TemplateScheduleReader(BufferedReader in) {
+        this.in = in;
+    }
+
+    private record Template(
+            long movieId,
+            long hallId,
+            LocalDate from,
+            LocalDate to,
+            Set<DayOfWeek> days,
+            List<LocalTime> times,
+            Money basePrice
+    ) {}
+
+    @Override
+    public Screening next() throws IOException {
+        while (true) {
+            if (current == null) {
+                String text = nextLine();
+                if (text == null) return null;
+                current = parse(text);
+                date = current.from();
+                timeIndex = 0;
+            }
+
+            while (!date.isAfter(current.to())) {
+                if (!current.days().contains(date.getDayOfWeek()) || timeIndex == current.times().size()) {
+                    date = date.plusDays(1);
+                    timeIndex = 0;
+                    continue;
+                }
+                LocalTime time = current.times().get(timeIndex++);
+                return new Screening(0, current.movieId(), current.hallId(), date.atTime(time), current.basePrice());
+            }
+            current = null;
+        }
+    }
+
+    @Override
+    public String position() {
+        return "template line " + line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private String nextLine() throws IOException {
+        String text;
+        while ((text = in.readLine()) != null) {
+            line++;
+            text = text.strip();
+            if (text.isEmpty() || text.startsWith("#")) continue;
+            // The first line that is not blank or a comment may be a header.
+            boolean first = !pastHeader;
+            pastHeader = true;
+            if (first && !Character.isDigit(text.charAt(0))) continue;
+            return text;
+        }
+        return null;
+    }
+
+    private static Template parse(String text) {
+        String[] cols = text.split(",", -1);
+        if (cols.length != 7) {
+            throw new IllegalArgumentException("Expected 7 columns, got " + cols.length);
+        }
+        try {
+            LocalDate from = LocalDate.parse(cols[2].strip());
+            LocalDate to = LocalDate.parse(cols[3].strip());
+            if (to.isBefore(from)) throw new IllegalArgumentException("Template ends before it starts");
+
+            List<LocalTime> times = new ArrayList<>();
+            for (String t : cols[5].split("\\|")) times.add(LocalTime.parse(t.strip()));
+            times.sort(null);
+
+            return new Template(
+                    Long.parseLong(cols[0].strip()),
+                    Long.parseLong(cols[1].strip()),
+                    from,
+                    to,
+                    parseDays(cols[4].strip()),
+                    List.copyOf(times),
+                    Money.parse(cols[6])
+            );
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid template: " + e.getMessage(), e);
+        }
+    }
+
+    private static Set<DayOfWeek> parseDays(String text) {
+        if (text.equals("*")) return EnumSet.allOf(DayOfWeek.class);
+
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (String d : text.split("\\|")) {
+            String name = d.strip().toUpperCase();
+            DayOfWeek match = null;
+            for (DayOfWeek day : DayOfWeek.values()) {
+                if (day.name().startsWith(name) && name.length() >= 3) match = day;
+            }
+            if (match == null) throw new IllegalArgumentException("Unknown day: " + d);
+            days.add(match);
+        }
+        return days;
+    }
+}
@@ -0,0 +1,161 @@
+package kz.cinego.app.service;
+
+import kz.cinego.app.config.BookingConfig;
+import kz.cinego.app.db.TransactionExecutor;
+import kz.cinego.app.entity.BookingEvent;
+import kz.cinego.app.entity.Seat;
+import kz.cinego.app.repository.BookingRepository;
+import kz.cinego.app.repository.SeatRepository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expires CREATED bookings that stayed unpaid for
+ * {@link BookingConfig#UNPAID_EXPIRY}: status EXPIRED, seat claims dropped,
+ * reserved loyalty points released. Works in set-based batches of
+ * {@link BookingConfig#EXPIRY_BATCH_SIZE}, one short writer transaction
+ * each, pausing between batches so live bookings get the writer.
+ */
+public class BookingExpiryService implements AutoCloseable {
+
+    private final BookingRepository bookingRepo;
+    private final SeatRepository seatRepo;
+    private final SeatOccupancyIndex occupancy;
+    private final LoyaltyLedger loyalty;
+    private final BookingJournal journal;
+    private final TransactionExecutor tx = new TransactionExecutor();
+
+    private ScheduledExecutorService sweeper;
+
+    public BookingExpiryService(
+            BookingRepository bookingRepo,
+            SeatRepository seatRepo,
+            SeatOccupancyIndex occupancy,
+            LoyaltyLedger loyalty,
+            BookingJournal journal
+    ) {
+        this.bookingRepo = bookingRepo;
+        this.seatRepo = seatRepo;
+        this.occupancy = occupancy;
+        this.loyalty = loyalty;
+        this.journal = journal;
+    }
+
+    public synchronized void start() {
+        if (sweeper != null) return;
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "booking-expiry");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(
+                this::sweepQuietly,
+                BookingConfig.EXPIRY_SWEEP_INTERVAL_MS,
+                BookingConfig.EXPIRY_SWEEP_INTERVAL_MS,
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    @Override
+    public synchronized void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+    }
+
+    // Expires everything past the window; returns how many bookings.
+    public int sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(BookingConfig.UNPAID_EXPIRY);
+        int total = 0;
+        while (true) {
+            int expired = expireBatch(cutoff);
+            total += expired;
+            if (expired < BookingConfig.EXPIRY_BATCH_SIZE) return total;
+
+            try {
+                Thread.sleep(BookingConfig.EXPIRY_BATCH_PAUSE_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return total;
+            }
+        }
+    }
+
+    private record Expired(
+            List<BookingRepository.Expirable> batch,
+            Map<Long, List<Seat>> seats,
+            List<LoyaltyLedger.Posting> released,
+            List<BookingEvent> events
+    ) {}
+
+    private int expireBatch(LocalDateTime cutoff) {
+        try {
+            Expired expired = tx.write(conn -> expire(conn, cutoff), (conn, e) -> afterCommit(e));
+            return expired.batch().size();
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Booking expiry failed: " + e.getMessage(), e);
+        }
+    }
+
+    // As BookingService does after a commit: every event is published, and caches that
+    // could not take the change are dropped so they reload from the tables.
+    private void afterCommit(Expired e) {
+        try {
+            loyalty.apply(e.released());
+            for (BookingRepository.Expirable b : e.batch()) {
+                SeatOccupancyIndex.ScreeningOccupancy seatMap = occupancy.getIfLoaded(b.screeningId());
+                if (seatMap != null) seatMap.release(e.seats().getOrDefault(b.id(), List.of()));
+            }
+        } catch (RuntimeException failed) {
+            for (BookingRepository.Expirable b : e.batch()) {
+                loyalty.evict(b.userId());
+                occupancy.invalidate(b.screeningId());
+            }
+            throw failed;
+        } finally {
+            for (BookingEvent event : e.events()) journal.publish(event);
+        }
+    }
+
+    private Expired expire(Connection conn, LocalDateTime cutoff) throws SQLException {
+        List<BookingRepository.Expirable> batch =
+                bookingRepo.findExpirable(conn, cutoff, BookingConfig.EXPIRY_BATCH_SIZE);
+        if (batch.isEmpty()) return new Expired(batch, Map.of(), List.of(), List.of());
+
+        long[] ids = new long[batch.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = batch.get(i).id();
+
+        Map<Long, List<Seat>> seats = seatRepo.findByBookings(conn, ids);
+        bookingRepo.markExpired(conn, ids);
+        bookingRepo.deleteSeatClaims(conn, ids);
+        List<LoyaltyLedger.Posting> released = loyalty.releaseAll(conn, ids);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingEvent> events = new ArrayList<>(batch.size());
+        for (BookingRepository.Expirable b : batch) {
+            List<Seat> bookingSeats = seats.getOrDefault(b.id(), List.of());
+            long[] seatIds = new long[bookingSeats.size()];
+            for (int i = 0; i < seatIds.length; i++) seatIds[i] = bookingSeats.get(i).id();
+            events.add(new BookingEvent.BookingExpired(0, b.id(), b.userId(), b.screeningId(), seatIds, now));
+        }
+        return new Expired(batch, seats, released, journal.appendAll(conn, events));
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            // Retried on the next run.
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package kz.cinego.app.service;
+
+import kz.cinego.app.config.JournalConfig;
+import kz.cinego.app.db.Database;
+import kz.cinego.app.entity.BookingEvent;
+import kz.cinego.app.repository.BookingEventRepository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only journal of booking state changes. Events are appended inside
+ * the transaction that makes the change, so journal and tables never
+ * disagree, and handed to the projections after the commit. Projections
+ * are snapshotted every {@link JournalConfig#SNAPSHOT_EVERY} events and
+ * rebuilt at startup from their latest snapshot plus the events after it.
+ */
+public class BookingJournal implements AutoCloseable {
+
+    private final BookingEventRepository repo;
+    private final List<BookingProjection> projections = new CopyOnWriteArrayList<>();
+    private final AtomicInteger sinceSnapshot = new AtomicInteger();
+    private final ExecutorService snapshotter = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "journal-snapshot");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public BookingJournal(BookingEventRepository repo) {
+        this.repo = repo;
+    }
+
+    public void register(BookingProjection projection) {
+        projections.add(projection);
+    }
+
+    public BookingEvent append(Connection conn, BookingEvent event) throws SQLException {
+        for (BookingProjection p : projections) p.prepare(conn, event);
+        return event.withSeq(repo.append(conn, event));
+    }
+
+    /**
+     * Appends a batch in one statement. Seqs are assigned from the last
+     * inserted rowid: AUTOINCREMENT hands out consecutive values within the
+     * writer's transaction.
+     */
+    public List<BookingEvent> appendAll(Connection conn, List<BookingEvent> events) throws SQLException {
+        if (events.isEmpty()) return List.of();
+        for (BookingEvent event : events) {
+            for (BookingProjection p : projections) p.prepare(conn, event);
+        }
+        repo.appendAll(conn, events);
+        long first = repo.lastSeq(conn) - events.size() + 1;
+        List<BookingEvent> appended = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) appended.add(events.get(i).withSeq(first + i));
+        return appended;
+    }
+
+    /**
+     * Call after the commit while still holding the writer connection: the
+     * writer is what orders publishers, so projections see events in seq order.
+     */
+    public void publish(BookingEvent event) {
+        for (BookingProjection p : projections) p.apply(event);
+        if (sinceSnapshot.incrementAndGet() >= JournalConfig.SNAPSHOT_EVERY) {
+            sinceSnapshot.set(0);
+            snapshotter.execute(this::snapshotQuietly);
+        }
+    }
+
+    // Returns the number of events replayed on top of the snapshots.
+    public long replay() {
+        long replayed = 0;
+        try (Connection conn = Database.getConnection()) {
+            long from = Long.MAX_VALUE;
+            for (BookingProjection p : projections) {
+                BookingEventRepository.Snapshot snapshot = repo.findSnapshot(conn, p.name());
+                if (snapshot != null) p.restore(snapshot.seq(), snapshot.data());
+                from = Math.min(from, p.position());
+            }
+            if (projections.isEmpty()) return 0;
+
+            while (true) {
+                List<BookingEvent> chunk = repo.findAfter(conn, from, JournalConfig.REPLAY_CHUNK);
+                if (chunk.isEmpty()) break;
+                for (BookingEvent event : chunk) {
+                    for (BookingProjection p : projections) {
+                        if (event.seq() > p.position()) p.apply(event);
+                    }
+                }
+                replayed += chunk.size();
+                from = chunk.get(chunk.size() - 1).seq();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Journal replay failed: " + e.getMessage(), e);
+        }
+        return replayed;
+    }
+
+    public void snapshot() {
+        try (Connection conn = Database.getWriteConnection()) {
+            for (BookingProjection p : projections) {
+                BookingEventRepository.Snapshot snapshot;
+                synchronized (p) {
+                    snapshot = new BookingEventRepository.Snapshot(p.name(), p.position(), p.snapshot());
+                }
+                repo.saveSnapshot(conn, snapshot);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Journal snapshot failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        snapshotter.shutdown();
+        snapshot();
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            // Replay just starts from the previous snapshot.
+        }
+    }
+}
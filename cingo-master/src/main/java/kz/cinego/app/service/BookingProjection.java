@@ -0,0 +1,34 @@
+package kz.cinego.app.service;
+
+import kz.cinego.app.entity.BookingEvent;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * In-memory state derived from the booking journal. Events arrive in seq
+ * order, exactly once, from a single thread at a time; snapshot() and
+ * restore() use the projection's own compact encoding. The journal reads
+ * position() and snapshot() while holding the projection's monitor, so
+ * implementations synchronize on themselves.
+ *
+ * apply() runs under the writer connection and must not do I/O. Anything
+ * it needs from the tables is loaded in prepare(), which runs inside the
+ * transaction that appends the event, on that transaction's connection.
+ */
+public interface BookingProjection {
+
+    String name();
+
+    default void prepare(Connection conn, BookingEvent event) throws SQLException {
+    }
+
+    void apply(BookingEvent event);
+
+    // Seq of the last applied event, 0 for none.
+    long position();
+
+    byte[] snapshot();
+
+    void restore(long position, byte[] data);
+}
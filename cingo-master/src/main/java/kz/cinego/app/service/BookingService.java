@@ -1,147 +1,439 @@
 package kz.cinego.app.service;
 
 import kz.cinego.app.db.Database;
+import kz.cinego.app.db.TransactionExecutor;
 import kz.cinego.app.entity.Booking;
+import kz.cinego.app.entity.BookingEvent;
+import kz.cinego.app.entity.LoyaltyEntry;
+import kz.cinego.app.entity.Money;
 import kz.cinego.app.entity.Screening;
 import kz.cinego.app.entity.Seat;
+import kz.cinego.app.entity.SeatHold;
 import kz.cinego.app.entity.User;
+import kz.cinego.app.metrics.Metrics;
+import kz.cinego.app.metrics.Timer;
 import kz.cinego.app.repository.BookingRepository;
+import kz.cinego.app.repository.Page;
 import kz.cinego.app.repository.ScreeningRepository;
 import kz.cinego.app.repository.SeatRepository;
 import kz.cinego.app.repository.UserRepository;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class BookingService {
 
+    private static final Timer HOLD = Metrics.timer("booking.hold");
+    private static final Timer RELEASE_HOLD = Metrics.timer("booking.releaseHold");
+    private static final Timer CREATE = Metrics.timer("booking.create");
+    private static final Timer PAY = Metrics.timer("booking.pay");
+    private static final Timer CANCEL = Metrics.timer("booking.cancel");
+    private static final Timer POINTS = Metrics.timer("booking.points");
+    private static final Timer SEAT_MAP = Metrics.timer("booking.seatMap");
+    private static final Timer PRICED_SEAT_MAP = Metrics.timer("booking.pricedSeatMap");
+
     private final ScreeningRepository screeningRepo;
     private final SeatRepository seatRepo;
     private final BookingRepository bookingRepo;
     private final UserRepository userRepo;
     private final PricingService pricing;
+    private final PricingEngine priceTables;
+    private final SeatOccupancyIndex occupancy;
+    private final SeatHoldService holds;
+    private final BookingJournal journal;
+    private final LoyaltyLedger loyalty;
+    // create, pay and cancel are replayed when another writer holds the database.
+    private final TransactionExecutor tx = new TransactionExecutor();
 
     public BookingService(
             ScreeningRepository screeningRepo,
             SeatRepository seatRepo,
             BookingRepository bookingRepo,
             UserRepository userRepo,
-            PricingService pricing
+            PricingService pricing,
+            PricingEngine priceTables,
+            SeatOccupancyIndex occupancy,
+            SeatHoldService holds,
+            BookingJournal journal,
+            LoyaltyLedger loyalty
     ) {
         this.screeningRepo = screeningRepo;
         this.seatRepo = seatRepo;
         this.bookingRepo = bookingRepo;
         this.userRepo = userRepo;
         this.pricing = pricing;
+        this.priceTables = priceTables;
+        this.occupancy = occupancy;
+        this.holds = holds;
+        this.journal = journal;
+        this.loyalty = loyalty;
     }
 
     public record CreateBookingResult(
             long bookingId,
-            BigDecimal totalBeforePoints,
-            BigDecimal totalAfterPoints,
+            Money totalBeforePoints,
+            Money totalAfterPoints,
             int usedPoints
     ) {}
 
+    // One string per row: '.' free, 'H' held, 'B' booked, 'P' paid.
+    public record SeatMap(long screeningId, int rows, int cols, List<String> grid) {}
+
+    /**
+     * Whole-hall seat map in row-major arrays of rows * cols cells.
+     * seatType indexes into seatTypes (-1: no seat), state is one of the
+     * SeatOccupancyIndex constants (HELD included) and priceMinor is the
+     * current price in tiyn (-1: no seat). The arrays may be shared with
+     * the caches behind them and must not be modified.
+     */
+    public record PricedSeatMap(
+            long screeningId,
+            int rows,
+            int cols,
+            List<String> seatTypes,
+            byte[] seatType,
+            byte[] state,
+            long[] priceMinor
+    ) {}
+
+    public SeatHold holdSeats(long userId, long screeningId, List<int[]> seatCoords) {
+        long started = System.nanoTime();
+        try {
+            SeatHold hold = holds.hold(userId, screeningId, seatCoords);
+            HOLD.record(started);
+            return hold;
+        } catch (RuntimeException e) {
+            HOLD.fail(started, e);
+            throw e;
+        }
+    }
+
+    public void releaseHold(String holdToken) {
+        long started = System.nanoTime();
+        try {
+            holds.release(holdToken);
+            RELEASE_HOLD.record(started);
+        } catch (RuntimeException e) {
+            RELEASE_HOLD.fail(started, e);
+            throw e;
+        }
+    }
+
     public CreateBookingResult createBooking(
             long userId,
             long screeningId,
             List<int[]> seatCoords,
             int pointsToUse
     ) {
-        try (Connection conn = Database.getConnection()) {
-            conn.setAutoCommit(false);
+        long started = System.nanoTime();
+        SeatHold hold;
+        try {
+            hold = holds.holdForBooking(userId, screeningId, seatCoords);
+            holds.beginConversion(hold.token(), userId);
+        } catch (Exception e) {
+            CREATE.fail(started, e);
+            throw new RuntimeException("Create booking failed: " + e.getMessage(), e);
+        }
 
-            Screening screening = getScreening(screeningId);
-            User user = getUser(conn, userId);
+        try {
+            return book(hold, pointsToUse, started);
+        } finally {
+            holds.release(hold.token());
+        }
+    }
 
-            List<Seat> seats = getSeats(conn, screening, seatCoords);
-            checkSeatsAvailability(conn, screeningId, seats);
+    public CreateBookingResult createBookingFromHold(long userId, String holdToken, int pointsToUse) {
+        long started = System.nanoTime();
+        SeatHold hold;
+        try {
+            hold = holds.beginConversion(holdToken, userId);
+        } catch (Exception e) {
+            CREATE.fail(started, e);
+            throw new RuntimeException("Create booking failed: " + e.getMessage(), e);
+        }
 
-            List<BigDecimal> seatPrices = new ArrayList<>();
-            BigDecimal total = calculateTotal(screening, seats, seatPrices);
+        boolean booked = false;
+        try {
+            CreateBookingResult result = book(hold, pointsToUse, started);
+            booked = true;
+            return result;
+        } finally {
+            if (booked) holds.release(holdToken);
+            else holds.abortConversion(holdToken);
+        }
+    }
 
-            BigDecimal afterPoints = pricing
-                    .applyPointsDiscount(total, user.loyaltyPoints(), pointsToUse)
-                    .setScale(2, RoundingMode.HALF_UP);
+    private record Booked(
+            CreateBookingResult result,
+            Screening screening,
+            List<Seat> seats,
+            BookingEvent event,
+            List<LoyaltyLedger.Posting> postings
+    ) {}
 
-            int usedPoints = total.subtract(afterPoints).intValue();
+    // The hold already resolved the seats and reserved them against the occupancy index.
+    private CreateBookingResult book(SeatHold hold, int pointsToUse, long started) {
+        try {
+            Booked booked = tx.write(conn -> {
+                Screening screening = getScreening(hold.screeningId());
+                User user = getUser(conn, hold.userId());
+                List<Seat> seats = hold.seats();
 
-            long bookingId = bookingRepo.insertBooking(conn, userId, screeningId, afterPoints);
+                long[] seatPrices = new long[seats.size()];
+                long total = calculateTotal(conn, screening, seats, seatPrices);
 
-            for (int i = 0; i < seats.size(); i++) {
-                bookingRepo.insertBookingItem(conn, bookingId, seats.get(i).id(), seatPrices.get(i));
-            }
+                long afterPoints = pricing.applyPointsDiscount(total, loyalty.available(conn, user.id()), pointsToUse);
 
-            if (usedPoints > 0) {
-                userRepo.subtractPoints(conn, userId, usedPoints);
-            }
+                int usedPoints = pricing.usedPoints(total, afterPoints);
+
+                long bookingId = bookingRepo.insertBooking(conn, user.id(), screening.id(), afterPoints);
 
-            conn.commit();
-            return new CreateBookingResult(bookingId, total, afterPoints, usedPoints);
+                claimSeats(conn, screening, bookingId, seats);
+                bookingRepo.insertBookingItems(conn, bookingId, seats, seatPrices);
+
+                List<LoyaltyLedger.Posting> reserved = loyalty.reserve(conn, user.id(), bookingId, usedPoints);
+
+                BookingEvent created = journal.append(conn, new BookingEvent.BookingCreated(
+                        0, bookingId, user.id(), screening.id(), seatIds(seats),
+                        Money.ofMinor(afterPoints), usedPoints, LocalDateTime.now()
+                ));
+                CreateBookingResult result = new CreateBookingResult(
+                        bookingId, Money.ofMinor(total), Money.ofMinor(afterPoints), usedPoints
+                );
+                return new Booked(result, screening, seats, created, reserved);
+            }, (conn, b) -> afterCommit(b.event(), () -> {
+                loyalty.apply(b.postings());
+                SeatOccupancyIndex.ScreeningOccupancy seatMap = occupancy.getIfLoaded(b.screening().id());
+                if (seatMap != null) seatMap.markBooked(b.seats());
+            }));
+            CREATE.record(started);
+            return booked.result();
 
         } catch (Exception e) {
+            CREATE.fail(started, e);
             throw new RuntimeException("Create booking failed: " + e.getMessage(), e);
         }
     }
 
     public Booking pay(long bookingId) {
-        try (Connection conn = Database.getConnection()) {
-            conn.setAutoCommit(false);
+        long started = System.nanoTime();
+        try {
+            PaidBooking paid = tx.write(conn -> {
+                Booking booking = bookingRepo.findById(conn, bookingId);
+                if (booking == null) {
+                    throw new IllegalArgumentException("Booking not found: " + bookingId);
+                }
+                if (!"CREATED".equals(booking.status())) {
+                    throw new IllegalStateException("Only CREATED can be paid. Current=" + booking.status());
+                }
+                return applyPayment(conn, booking);
+            }, (conn, p) -> afterPaymentCommit(p));
+            PAY.record(started);
+            return paid.booking();
 
-            Booking booking = bookingRepo.findById(conn, bookingId);
-            if (booking == null) {
-                conn.rollback();
-                throw new IllegalArgumentException("Booking not found: " + bookingId);
-            }
-            if (!"CREATED".equals(booking.status())) {
-                conn.rollback();
-                throw new IllegalStateException("Only CREATED can be paid. Current=" + booking.status());
-            }
+        } catch (Exception e) {
+            PAY.fail(started, e);
+            throw new RuntimeException("Pay failed: " + e.getMessage(), e);
+        }
+    }
 
-            bookingRepo.markPaid(conn, bookingId);
+    record PaidBooking(
+            Booking booking,
+            SeatOccupancyIndex.ScreeningOccupancy seatMap,
+            List<Seat> seats,
+            BookingEvent event,
+            List<LoyaltyLedger.Posting> postings
+    ) {}
 
-            int earned = pricing.earnedPoints(booking.totalPrice());
-            userRepo.addPoints(conn, booking.userId(), earned);
+    // The writes of a payment inside the caller's transaction; the booking must be CREATED.
+    PaidBooking applyPayment(Connection conn, Booking booking) throws SQLException {
+        bookingRepo.markPaid(conn, booking.id());
 
-            Booking updated = bookingRepo.findById(conn, bookingId);
-            conn.commit();
-            return updated;
+        int earned = pricing.earnedPoints(booking.totalPrice());
+        List<LoyaltyLedger.Posting> postings = loyalty.commit(conn, booking.userId(), booking.id(), earned);
 
-        } catch (Exception e) {
-            throw new RuntimeException("Pay failed: " + e.getMessage(), e);
+        Booking updated = bookingRepo.findById(conn, booking.id());
+        List<Seat> seats = seatRepo.findByBooking(conn, booking.id());
+        BookingEvent event = journal.append(conn, new BookingEvent.BookingPaid(
+                0, booking.id(), booking.userId(), booking.screeningId(), seatIds(seats),
+                booking.totalPrice(), earned, updated.paidAt()
+        ));
+        return new PaidBooking(updated, occupancy.getIfLoaded(booking.screeningId()), seats, event, postings);
+    }
+
+    void afterPaymentCommit(PaidBooking paid) {
+        afterCommit(paid.event(), () -> {
+            loyalty.apply(paid.postings());
+            if (paid.seatMap() != null) paid.seatMap().markPaid(paid.seats());
+        });
+    }
+
+    /*
+     * After the commit, still on the writer connection (see BookingJournal.publish).
+     * The event is published whatever happens to the caches: a projection that missed
+     * it would skip it for good once a later event moved its position on. Caches that
+     * could not take the change are dropped and reload from the tables.
+     */
+    private void afterCommit(BookingEvent event, Runnable caches) {
+        try {
+            caches.run();
+        } catch (RuntimeException e) {
+            loyalty.evict(event.userId());
+            occupancy.invalidate(event.screeningId());
+            throw e;
+        } finally {
+            journal.publish(event);
         }
     }
 
+    private record Cancelled(Booking booking, List<Seat> seats, BookingEvent event, List<LoyaltyLedger.Posting> postings) {}
+
     public Booking cancel(long bookingId) {
+        long started = System.nanoTime();
+        try {
+            Cancelled cancelled = tx.write(conn -> {
+                Booking booking = bookingRepo.findById(conn, bookingId);
+                if (booking == null) {
+                    throw new IllegalArgumentException("Booking not found: " + bookingId);
+                }
+                if ("CANCELLED".equals(booking.status())) {
+                    throw new IllegalStateException("Already cancelled");
+                }
+                if ("EXPIRED".equals(booking.status())) {
+                    throw new IllegalStateException("Booking expired unpaid");
+                }
+
+                Screening screening = getScreening(booking.screeningId());
+
+                Money refund = computeRefund(booking.totalPrice(), screening.startTime());
+                bookingRepo.markCancelled(conn, bookingId, refund);
+                bookingRepo.deleteSeatClaims(conn, bookingId);
+                List<LoyaltyLedger.Posting> released = "CREATED".equals(booking.status())
+                        ? loyalty.release(conn, booking.userId(), bookingId)
+                        : List.of();
+
+                Booking updated = bookingRepo.findById(conn, bookingId);
+                List<Seat> seats = seatRepo.findByBooking(conn, bookingId);
+                BookingEvent event = journal.append(conn, new BookingEvent.BookingCancelled(
+                        0, bookingId, booking.userId(), booking.screeningId(), seatIds(seats),
+                        refund, "PAID".equals(booking.status()), updated.cancelledAt()
+                ));
+                return new Cancelled(updated, seats, event, released);
+            }, (conn, c) -> afterCommit(c.event(), () -> {
+                loyalty.apply(c.postings());
+                SeatOccupancyIndex.ScreeningOccupancy seatMap = occupancy.getIfLoaded(c.booking().screeningId());
+                if (seatMap != null) seatMap.release(c.seats());
+            }));
+            CANCEL.record(started);
+            return cancelled.booking();
+
+        } catch (Exception e) {
+            CANCEL.fail(started, e);
+            throw new RuntimeException("Cancel failed: " + e.getMessage(), e);
+        }
+    }
+
+    // Newest first, one keyset page at a time.
+    public Page<Booking> listBookings(long userId, String before, int limit) {
         try (Connection conn = Database.getConnection()) {
-            conn.setAutoCommit(false);
+            return bookingRepo.findPageByUser(conn, userId, before, limit);
+        } catch (SQLException e) {
+            throw new RuntimeException("Booking list failed: " + e.getMessage(), e);
+        }
+    }
+
+    // Every booking of the user, newest first, a page at a time.
+    public Stream<Booking> streamBookings(long userId) {
+        return bookingRepo.streamByUser(userId);
+    }
+
+    public record LoyaltyBalance(long userId, long points, List<LoyaltyEntry> recent) {}
+
+    public LoyaltyBalance getLoyaltyBalance(long userId) {
+        long started = System.nanoTime();
+        try {
+            LoyaltyBalance balance = new LoyaltyBalance(userId, loyalty.balance(userId), loyalty.history(userId));
+            POINTS.record(started);
+            return balance;
+        } catch (RuntimeException e) {
+            POINTS.fail(started, e);
+            throw e;
+        }
+    }
+
+    public PricedSeatMap getPricedSeatMap(long screeningId) {
+        long started = System.nanoTime();
+        try {
+            Screening screening = getScreening(screeningId);
+            SeatOccupancyIndex.ScreeningOccupancy seatMap = occupancy.get(screening);
 
-            Booking booking = bookingRepo.findById(conn, bookingId);
-            if (booking == null) {
-                conn.rollback();
-                throw new IllegalArgumentException("Booking not found: " + bookingId);
+            byte[] states = seatMap.snapshot();
+            int occupied = 0;
+            for (byte state : states) {
+                if (state != SeatOccupancyIndex.FREE) occupied++;
             }
-            if ("CANCELLED".equals(booking.status())) {
-                conn.rollback();
-                throw new IllegalStateException("Already cancelled");
+            holds.markHeld(screeningId, states, seatMap.cols());
+
+            PricedSeatMap map;
+            try (Connection conn = Database.getConnection()) {
+                PricingEngine.PriceTable table = priceTables.table(conn, screening);
+                SeatLayoutCache.SeatLayout layout = table.layout();
+                map = new PricedSeatMap(
+                        screeningId,
+                        layout.rows(),
+                        layout.cols(),
+                        layout.seatTypes(),
+                        layout.seatTypeCodes(),
+                        states,
+                        table.prices(LocalDateTime.now(), occupied)
+                );
             }
+            PRICED_SEAT_MAP.record(started);
+            return map;
+        } catch (Exception e) {
+            PRICED_SEAT_MAP.fail(started, e);
+            throw new RuntimeException("Seat map failed: " + e.getMessage(), e);
+        }
+    }
 
-            Screening screening = getScreening(booking.screeningId());
-
-            BigDecimal refund = computeRefund(booking.totalPrice(), screening.startTime());
-            bookingRepo.markCancelled(conn, bookingId, refund);
+    public SeatMap getSeatMap(long screeningId) {
+        long started = System.nanoTime();
+        try {
+            Screening screening = getScreening(screeningId);
+            SeatOccupancyIndex.ScreeningOccupancy seatMap = occupancy.get(screening);
+
+            int rows = seatMap.rows();
+            int cols = seatMap.cols();
+            byte[] states = seatMap.snapshot();
+
+            char[][] grid = new char[rows][cols];
+            for (int i = 0; i < states.length; i++) {
+                grid[i / cols][i % cols] = switch (states[i]) {
+                    case SeatOccupancyIndex.BOOKED -> 'B';
+                    case SeatOccupancyIndex.PAID -> 'P';
+                    default -> '.';
+                };
+            }
+            for (Seat seat : holds.heldSeats(screeningId)) {
+                char[] row = grid[seat.rowNum() - 1];
+                if (row[seat.colNum() - 1] == '.') row[seat.colNum() - 1] = 'H';
+            }
 
-            Booking updated = bookingRepo.findById(conn, bookingId);
-            conn.commit();
-            return updated;
+            List<String> lines = new ArrayList<>(rows);
+            for (char[] row : grid) lines.add(new String(row));
+            SEAT_MAP.record(started);
+            return new SeatMap(screeningId, rows, cols, lines);
 
         } catch (Exception e) {
-            throw new RuntimeException("Cancel failed: " + e.getMessage(), e);
+            SEAT_MAP.fail(started, e);
+            throw new RuntimeException("Seat map failed: " + e.getMessage(), e);
         }
     }
 
@@ -153,7 +445,27 @@ public class BookingService {
         return screening;
     }
 
-    private User getUser(Connection conn, long id) {
+    // Storage-level guard: the seat_claims primary key rejects a seat that another
+    // writer (e.g. a second process) claimed behind this JVM's occupancy index.
+    private void claimSeats(Connection conn, Screening screening, long bookingId, List<Seat> seats) throws SQLException {
+        try {
+            bookingRepo.insertSeatClaims(conn, screening.id(), bookingId, seats);
+        } catch (SQLiteException e) {
+            if (e.getResultCode() != SQLiteErrorCode.SQLITE_CONSTRAINT_PRIMARYKEY) throw e;
+
+            occupancy.invalidate(screening.id());
+            for (Seat seat : seats) {
+                if (seatRepo.isSeatClaimedByOther(conn, screening.id(), seat.id(), bookingId)) {
+                    throw new IllegalStateException(
+                            "Seat already booked: row=" + seat.rowNum() + " col=" + seat.colNum(), e
+                    );
+                }
+            }
+            throw new IllegalStateException("Seat already booked", e);
+        }
+    }
+
+    private User getUser(Connection conn, long id) throws SQLException {
         User user = userRepo.findById(conn, id);
         if (user == null) {
             throw new IllegalArgumentException("User not found: " + id);
@@ -161,59 +473,47 @@ public class BookingService {
         return user;
     }
 
-    private List<Seat> getSeats(Connection conn, Screening screening, List<int[]> seatCoords) {
-        List<Seat> seats = new ArrayList<>();
-        for (int[] rc : seatCoords) {
-            Seat seat = seatRepo.findByHallRowCol(conn, screening.hallId(), rc[0], rc[1]);
-            if (seat == null) {
-                throw new IllegalArgumentException("Seat not found: row=" + rc[0] + " col=" + rc[1]);
-            }
-            seats.add(seat);
-        }
-        return seats;
-    }
-
-    private void checkSeatsAvailability(Connection conn, long screeningId, List<Seat> seats) {
-        for (Seat seat : seats) {
-            if (seatRepo.isSeatBookedForScreening(conn, screeningId, seat.id())) {
-                throw new IllegalStateException(
-                        "Seat already booked: row=" + seat.rowNum() + " col=" + seat.colNum()
-                );
-            }
-        }
+    private static long[] seatIds(List<Seat> seats) {
+        long[] ids = new long[seats.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = seats.get(i).id();
+        return ids;
     }
 
-    private BigDecimal calculateTotal(
+    // Surge tiers see the occupancy before this booking.
+    private long calculateTotal(
+            Connection conn,
             Screening screening,
             List<Seat> seats,
-            List<BigDecimal> seatPrices
-    ) {
-        BigDecimal total = BigDecimal.ZERO;
-
-        for (Seat seat : seats) {
-            BigDecimal price = pricing.seatPrice(
-                    screening.basePrice(),
-                    seat.seatType(),
-                    screening.startTime()
-            );
-            seatPrices.add(price);
-            total = total.add(price);
+            long[] seatPrices
+    ) throws SQLException {
+        PricingEngine.PriceTable table = priceTables.table(conn, screening);
+        int occupied = occupancy.get(conn, screening).occupiedCount();
+        long[] prices = table.prices(LocalDateTime.now(), occupied);
+        long total = 0;
+
+        for (int i = 0; i < seatPrices.length; i++) {
+            Seat seat = seats.get(i);
+            int index = table.index(seat.rowNum(), seat.colNum());
+            long price = index < 0 ? PricingEngine.NO_SEAT : prices[index];
+            if (price == PricingEngine.NO_SEAT) {
+                throw new IllegalStateException("No price for seat: row=" + seat.rowNum() + " col=" + seat.colNum());
+            }
+            seatPrices[i] = price;
+            total += price;
         }
 
-        return total.setScale(2, RoundingMode.HALF_UP);
+        return total;
     }
 
-    private BigDecimal computeRefund(BigDecimal total, LocalDateTime startTime) {
+    private Money computeRefund(Money total, LocalDateTime startTime) {
         LocalDateTime now = LocalDateTime.now();
         if (now.isAfter(startTime)) {
-            return BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
+            return Money.ZERO;
         }
 
         long minutes = Duration.between(now, startTime).toMinutes();
-        BigDecimal rate = minutes >= 120
-                ? new BigDecimal("0.90")
-                : new BigDecimal("0.50");
+        long percent = minutes >= 120 ? 90 : 50;
 
-        return total.multiply(rate).setScale(2, RoundingMode.HALF_UP);
+        return total.times(percent, 100);
     }
 }
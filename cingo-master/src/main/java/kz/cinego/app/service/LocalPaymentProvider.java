@@ -0,0 +1,71 @@
+package kz.cinego.app.service;
+
+import kz.cinego.app.config.PaymentConfig;
+import kz.cinego.app.entity.Money;
+
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stand-in for an external payment provider. A charge returns a payment ID
+ * at once and delivers the confirmation callback later, after a random
+ * delay, sometimes twice, the way real webhooks arrive. Declined charges
+ * never call back.
+ */
+public class LocalPaymentProvider implements AutoCloseable {
+
+    private final PaymentService payments;
+    private final ScheduledExecutorService callbacks;
+    private final long maxDelayMs;
+    private final double duplicateRate;
+    private final double declineRate;
+
+    public LocalPaymentProvider(PaymentService payments) {
+        this(payments, PaymentConfig.LOCAL_CALLBACK_MAX_DELAY_MS,
+                PaymentConfig.LOCAL_DUPLICATE_RATE, PaymentConfig.LOCAL_DECLINE_RATE);
+    }
+
+    public LocalPaymentProvider(PaymentService payments, long maxDelayMs, double duplicateRate, double declineRate) {
+        this.payments = payments;
+        this.maxDelayMs = maxDelayMs;
+        this.duplicateRate = duplicateRate;
+        this.declineRate = declineRate;
+        this.callbacks = Executors.newScheduledThreadPool(2, r -> {
+            Thread t = new Thread(r, "local-payment-callbacks");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public String charge(long bookingId, Money amount) {
+        String paymentId = "local-" + UUID.randomUUID();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < declineRate) {
+            return paymentId;
+        }
+        scheduleCallback(paymentId, bookingId, amount);
+        if (random.nextDouble() < duplicateRate) {
+            scheduleCallback(paymentId, bookingId, amount);
+        }
+        return paymentId;
+    }
+
+    @Override
+    public void close() {
+        callbacks.shutdownNow();
+    }
+
+    private void scheduleCallback(String paymentId, long bookingId, Money amount) {
+        long delay = maxDelayMs <= 0 ? 0 : ThreadLocalRandom.current().nextLong(maxDelayMs + 1);
+        callbacks.schedule(() -> {
+            try {
+                payments.submit(paymentId, bookingId, amount);
+            } catch (RuntimeException e) {
+                // A real provider would retry later; the stand-in just drops it.
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+}
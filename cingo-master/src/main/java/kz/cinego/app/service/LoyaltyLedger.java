@@ -0,0 +1,229 @@
+package kz.cinego.app.service;
+
+import kz.cinego.app.config.LoyaltyConfig;
+import kz.cinego.app.db.Database;
+import kz.cinego.app.db.TransactionExecutor;
+import kz.cinego.app.entity.LoyaltyEntry;
+import kz.cinego.app.repository.LoyaltyLedgerRepository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loyalty balances kept in memory over the append-only loyalty_ledger.
+ * Entries are appended inside the booking transaction; the cached balance
+ * is moved after the commit and written back to users.loyalty_points in
+ * batches, so a booking no longer updates the user row.
+ *
+ * Accounts are loaded and changed only while the caller holds the writer
+ * connection, which is what keeps a balance checked before the commit
+ * valid when the postings are applied after it. Reads are lock-free.
+ * Clean accounts beyond {@link LoyaltyConfig#MAX_CACHED_ACCOUNTS} are
+ * dropped after each reconcile.
+ */
+public class LoyaltyLedger implements AutoCloseable {
+
+    private final LoyaltyLedgerRepository repo;
+    private final ConcurrentHashMap<Long, Account> accounts = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final TransactionExecutor tx = new TransactionExecutor();
+    private ScheduledExecutorService reconciler;
+
+    public LoyaltyLedger(LoyaltyLedgerRepository repo) {
+        this.repo = repo;
+    }
+
+    // A balance change recorded in the ledger but not yet applied to the cache.
+    public record Posting(long userId, long seq, int points) {}
+
+    public synchronized void start() {
+        if (reconciler != null) return;
+        reconciler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "loyalty-reconciler");
+            t.setDaemon(true);
+            return t;
+        });
+        reconciler.scheduleWithFixedDelay(
+                this::reconcileQuietly,
+                LoyaltyConfig.RECONCILE_INTERVAL_MS,
+                LoyaltyConfig.RECONCILE_INTERVAL_MS,
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    @Override
+    public synchronized void close() {
+        if (reconciler != null) {
+            reconciler.shutdownNow();
+            reconciler = null;
+        }
+        reconcile();
+    }
+
+    // Spendable points; conn must be the writer.
+    public int available(Connection conn, long userId) throws SQLException {
+        return (int) account(conn, userId).available.get();
+    }
+
+    // Spendable points for display, without loading the account into the cache.
+    public long balance(long userId) {
+        Account account = accounts.get(userId);
+        if (account != null) return account.available.get();
+
+        try (Connection conn = Database.getConnection()) {
+            LoyaltyLedgerRepository.Balance balance = repo.balance(conn, userId);
+            if (balance == null) throw new IllegalArgumentException("User not found: " + userId);
+            return balance.points();
+        } catch (SQLException e) {
+            throw new RuntimeException("Loyalty balance failed: " + e.getMessage(), e);
+        }
+    }
+
+    public List<LoyaltyEntry> history(long userId) {
+        try (Connection conn = Database.getConnection()) {
+            return repo.findByUser(conn, userId, LoyaltyConfig.HISTORY_LIMIT);
+        } catch (SQLException e) {
+            throw new RuntimeException("Loyalty history failed: " + e.getMessage(), e);
+        }
+    }
+
+    public List<Posting> reserve(Connection conn, long userId, long bookingId, int points) throws SQLException {
+        if (points <= 0) return List.of();
+
+        long available = account(conn, userId).available.get();
+        if (available < points) {
+            throw new IllegalStateException("Not enough points: available=" + available + " requested=" + points);
+        }
+        long seq = repo.append(conn, userId, bookingId, LoyaltyEntry.Kind.RESERVE, -points, points);
+        return List.of(new Posting(userId, seq, -points));
+    }
+
+    // Spends what the booking reserved and credits what the payment earned.
+    public List<Posting> commit(Connection conn, long userId, long bookingId, int earned) throws SQLException {
+        account(conn, userId);
+        List<Posting> postings = new ArrayList<>(2);
+
+        int held = repo.heldFor(conn, bookingId);
+        if (held > 0) {
+            long seq = repo.append(conn, userId, bookingId, LoyaltyEntry.Kind.COMMIT, 0, -held);
+            postings.add(new Posting(userId, seq, 0));
+        }
+        if (earned > 0) {
+            long seq = repo.append(conn, userId, bookingId, LoyaltyEntry.Kind.EARN, earned, 0);
+            postings.add(new Posting(userId, seq, earned));
+        }
+        return postings;
+    }
+
+    // Returns the points an unpaid booking reserved.
+    public List<Posting> release(Connection conn, long userId, long bookingId) throws SQLException {
+        account(conn, userId);
+
+        int held = repo.heldFor(conn, bookingId);
+        if (held <= 0) return List.of();
+        long seq = repo.append(conn, userId, bookingId, LoyaltyEntry.Kind.RELEASE, held, -held);
+        return List.of(new Posting(userId, seq, held));
+    }
+
+    // release() for a batch of bookings; only those with points reserved cost a write.
+    public List<Posting> releaseAll(Connection conn, long[] bookingIds) throws SQLException {
+        List<Posting> postings = new ArrayList<>();
+        for (LoyaltyLedgerRepository.Held held : repo.heldForAll(conn, bookingIds)) {
+            account(conn, held.userId());
+            long seq = repo.append(
+                    conn, held.userId(), held.bookingId(), LoyaltyEntry.Kind.RELEASE, held.points(), -held.points()
+            );
+            postings.add(new Posting(held.userId(), seq, held.points()));
+        }
+        return postings;
+    }
+
+    // After the commit, still holding the writer.
+    public void apply(List<Posting> postings) {
+        for (Posting p : postings) {
+            Account account = accounts.get(p.userId());
+            if (account == null) continue;
+            account.available.addAndGet(p.points());
+            account.seq = Math.max(account.seq, p.seq());
+            dirty.add(p.userId());
+        }
+    }
+
+    // Drops a cached account that may have missed postings; the next writer reloads it from the ledger.
+    public void evict(long userId) {
+        accounts.remove(userId);
+        dirty.remove(userId);
+    }
+
+    // Writes dirty balances back in one writer transaction; returns how many.
+    public int reconcile() {
+        if (dirty.isEmpty()) return 0;
+
+        try {
+            // Postings only move accounts while the writer is held, so nothing changes under us here.
+            return tx.write(conn -> {
+                List<LoyaltyLedgerRepository.Balance> balances = new ArrayList<>(dirty.size());
+                for (Long userId : dirty) {
+                    Account account = accounts.get(userId);
+                    if (account == null) continue;
+                    balances.add(new LoyaltyLedgerRepository.Balance(userId, account.available.get(), account.seq));
+                }
+                repo.reconcile(conn, balances);
+                return balances;
+            }, (conn, balances) -> {
+                for (LoyaltyLedgerRepository.Balance b : balances) dirty.remove(b.userId());
+                trim();
+            }).size();
+        } catch (SQLException e) {
+            throw new RuntimeException("Loyalty reconcile failed: " + e.getMessage(), e);
+        }
+    }
+
+    // Still on the writer, so no posting is in flight for an account dropped here.
+    private void trim() {
+        int excess = accounts.size() - LoyaltyConfig.MAX_CACHED_ACCOUNTS;
+        for (Long userId : accounts.keySet()) {
+            if (excess <= 0) return;
+            if (dirty.contains(userId)) continue;
+            accounts.remove(userId);
+            excess--;
+        }
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            // The ledger is authoritative; the next run or a reload catches up.
+        }
+    }
+
+    private Account account(Connection conn, long userId) throws SQLException {
+        Account account = accounts.get(userId);
+        if (account != null) return account;
+
+        LoyaltyLedgerRepository.Balance balance = repo.balance(conn, userId);
+        if (balance == null) throw new IllegalArgumentException("User not found: " + userId);
+        account = new Account(balance.points(), balance.seq());
+        accounts.put(userId, account);
+        return account;
+    }
+
+    private static final class Account {
+        final AtomicLong available;
+        volatile long seq;
+
+        Account(long available, long seq) {
+            this.available = new AtomicLong(available);
+            this.seq = seq;
+        }
+    }
+}
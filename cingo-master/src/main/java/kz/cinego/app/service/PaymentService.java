@@ -0,0 +1,267 @@
+package kz.cinego.app.service;
+
+import kz.cinego.app.config.PaymentConfig;
+import kz.cinego.app.db.Database;
+import kz.cinego.app.db.TransactionExecutor;
+import kz.cinego.app.entity.Booking;
+import kz.cinego.app.entity.Money;
+import kz.cinego.app.entity.Payment;
+import kz.cinego.app.metrics.Metrics;
+import kz.cinego.app.repository.BookingRepository;
+import kz.cinego.app.repository.PaymentRepository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Idempotent payment confirmations keyed by the provider's payment ID.
+ * Callbacks are queued and a single processor thread applies whatever has
+ * accumulated in one write transaction, so a burst of webhooks costs one
+ * commit instead of one each. The outcome of every payment ID, success or
+ * rejection, is stored; a repeated callback gets the stored outcome back.
+ * Reported as payment.{batches,processed,replays,queued,afterCommitFailed}.
+ */
+public class PaymentService implements AutoCloseable {
+
+    public static final String SUCCEEDED = "SUCCEEDED";
+    public static final String REJECTED = "REJECTED";
+
+    private static final LongAdder BATCHES = Metrics.counter("payment.batches");
+    private static final LongAdder PROCESSED = Metrics.counter("payment.processed");
+    private static final LongAdder REPLAYS = Metrics.counter("payment.replays");
+    private static final LongAdder AFTER_COMMIT_FAILED = Metrics.counter("payment.afterCommitFailed");
+
+    private final BookingService bookings;
+    private final BookingRepository bookingRepo;
+    private final PaymentRepository paymentRepo;
+    private final BlockingQueue<Request> queue;
+    private final int batchSize;
+    private final TransactionExecutor tx = new TransactionExecutor();
+
+    private volatile boolean running;
+    private Thread processor;
+
+    public record PaymentResult(Payment payment, Booking booking, boolean replayed) {}
+
+    private record Request(String paymentId, long bookingId, Money amount, CompletableFuture<PaymentResult> result) {}
+
+    public PaymentService(BookingService bookings, BookingRepository bookingRepo, PaymentRepository paymentRepo) {
+        this(bookings, bookingRepo, paymentRepo, PaymentConfig.QUEUE_CAPACITY, PaymentConfig.BATCH_SIZE);
+    }
+
+    public PaymentService(
+            BookingService bookings,
+            BookingRepository bookingRepo,
+            PaymentRepository paymentRepo,
+            int queueCapacity,
+            int batchSize
+    ) {
+        this.bookings = bookings;
+        this.bookingRepo = bookingRepo;
+        this.paymentRepo = paymentRepo;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        Metrics.gauge("payment.queued", queue::size);
+    }
+
+    public synchronized void start() {
+        if (processor != null) return;
+        running = true;
+        processor = new Thread(this::processLoop, "payment-processor");
+        processor.setDaemon(true);
+        processor.start();
+    }
+
+    // Stops taking callbacks and finishes what is already queued.
+    @Override
+    public synchronized void close() {
+        if (processor == null) return;
+        running = false;
+        try {
+            processor.join(PaymentConfig.CONFIRM_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        processor = null;
+    }
+
+    /**
+     * Queues a confirmation. amount may be null; when present it must equal
+     * the booking total or the payment is rejected.
+     */
+    public CompletableFuture<PaymentResult> submit(String paymentId, long bookingId, Money amount) {
+        if (paymentId == null || paymentId.isBlank()) {
+            throw new IllegalArgumentException("Payment ID is required");
+        }
+        if (!running) {
+            throw new IllegalStateException("Payment processor is not running");
+        }
+        CompletableFuture<PaymentResult> result = new CompletableFuture<>();
+        if (!queue.offer(new Request(paymentId, bookingId, amount, result))) {
+            throw new IllegalStateException("Payment queue is full");
+        }
+        return result;
+    }
+
+    public PaymentResult confirm(String paymentId, long bookingId, Money amount) {
+        try {
+            return submit(paymentId, bookingId, amount).get(PaymentConfig.CONFIRM_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Payment failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Payment not processed in time: " + paymentId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for payment: " + paymentId);
+        }
+    }
+
+    public Payment find(String paymentId) {
+        try (Connection conn = Database.getConnection()) {
+            return paymentRepo.findById(conn, paymentId);
+        } catch (SQLException e) {
+            throw new RuntimeException("Payment lookup failed: " + e.getMessage(), e);
+        }
+    }
+
+    private void processLoop() {
+        List<Request> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Request first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        for (Request r = queue.poll(); r != null; r = queue.poll()) {
+            r.result().completeExceptionally(new IllegalStateException("Payment processor stopped"));
+        }
+    }
+
+    // One transaction for the whole batch; if it fails, each request is retried alone
+    // so a single bad request cannot fail its neighbours. Requests answered once the
+    // batch committed are not retried.
+    private void process(List<Request> batch) {
+        try {
+            applyAll(batch);
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(e);
+                return;
+            }
+            for (Request r : batch) {
+                if (r.result().isDone()) continue;
+                try {
+                    applyAll(List.of(r));
+                } catch (Exception single) {
+                    r.result().completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    private void applyAll(List<Request> batch) throws SQLException {
+        tx.write(conn -> decide(conn, batch), (conn, decided) -> {
+            for (BookingService.PaidBooking p : decided.paid()) afterCommit(p);
+            complete(batch, decided.results());
+        });
+    }
+
+    private record Decided(List<PaymentResult> results, List<BookingService.PaidBooking> paid) {}
+
+    // The writes for the batch; a null result marks a payment ID already used for another booking.
+    private Decided decide(Connection conn, List<Request> batch) throws SQLException {
+        List<PaymentResult> results = new ArrayList<>(batch.size());
+        List<BookingService.PaidBooking> paid = new ArrayList<>();
+        Map<String, Payment> decided = new HashMap<>();
+
+        for (Request r : batch) {
+            Payment existing = decided.get(r.paymentId());
+            if (existing == null) existing = paymentRepo.findById(conn, r.paymentId());
+
+            if (existing != null) {
+                if (existing.bookingId() != r.bookingId()) {
+                    results.add(null);
+                    continue;
+                }
+                results.add(new PaymentResult(existing, bookingRepo.findById(conn, r.bookingId()), true));
+                continue;
+            }
+
+            Booking booking = bookingRepo.findById(conn, r.bookingId());
+            String rejection = rejection(booking, r);
+            Payment payment;
+            if (rejection == null) {
+                BookingService.PaidBooking p = bookings.applyPayment(conn, booking);
+                paid.add(p);
+                booking = p.booking();
+                payment = new Payment(r.paymentId(), r.bookingId(), booking.totalPrice(), SUCCEEDED, null, LocalDateTime.now());
+            } else {
+                payment = new Payment(r.paymentId(), r.bookingId(), r.amount(), REJECTED, rejection, LocalDateTime.now());
+            }
+            paymentRepo.insert(conn, payment);
+            decided.put(r.paymentId(), payment);
+            results.add(new PaymentResult(payment, booking, false));
+        }
+        return new Decided(results, paid);
+    }
+
+    // The payment is committed, so a failed in-memory update must not fail the request.
+    // afterPaymentCommit has published the event regardless and dropped the caches it
+    // could not update, so they reload from the tables.
+    private void afterCommit(BookingService.PaidBooking paid) {
+        try {
+            bookings.afterPaymentCommit(paid);
+        } catch (RuntimeException e) {
+            AFTER_COMMIT_FAILED.increment();
+        }
+    }
+
+    private static void complete(List<Request> batch, List<PaymentResult> results) {
+        BATCHES.increment();
+        for (int i = 0; i < batch.size(); i++) {
+            Request r = batch.get(i);
+            PaymentResult result = results.get(i);
+            if (result == null) {
+                r.result().completeExceptionally(new IllegalStateException(
+                        "Payment ID " + r.paymentId() + " already used for another booking"));
+                continue;
+            }
+            PROCESSED.increment();
+            if (result.replayed()) REPLAYS.increment();
+            r.result().complete(result);
+        }
+    }
+
+    private static String rejection(Booking booking, Request r) {
+        if (booking == null) {
+            return "Booking not found: " + r.bookingId();
+        }
+        if (!"CREATED".equals(booking.status())) {
+            return "Only CREATED can be paid. Current=" + booking.status();
+        }
+        if (r.amount() != null && r.amount().minor() != booking.totalPrice().minor()) {
+            return "Amount mismatch: expected " + booking.totalPrice() + ", got " + r.amount();
+        }
+        return null;
+    }
+}
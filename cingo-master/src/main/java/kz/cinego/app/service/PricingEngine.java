@@ -0,0 +1,251 @@
+package kz.cinego.app.service;
+
+import kz.cinego.app.db.Database;
+import kz.cinego.app.entity.PricingRule;
+import kz.cinego.app.entity.Screening;
+import kz.cinego.app.entity.Seat;
+import kz.cinego.app.repository.PricingRuleRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiles the pricing rules into one price table per screening: a price in
+ * tiyn for every seat of the hall, per early-bird tier and surge tier. A
+ * table is built on first use and then serves every seat lookup and seat
+ * map of that screening with array reads.
+ *
+ * A rule change swaps in a new rule set and drops only the tables the rule
+ * can affect (a HALL rule only touches that hall's screenings); they are
+ * rebuilt lazily on next use. Tables of screenings that have started are
+ * dropped too, at most once a minute when a new table is built.
+ */
+public class PricingEngine {
+
+    public static final long NO_SEAT = -1;
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final SeatLayoutCache layouts;
+    private final PricingRuleRepository ruleRepo;
+    private final ConcurrentHashMap<Long, PriceTable> tables = new ConcurrentHashMap<>();
+    private volatile PricingRuleSet rules = new PricingRuleSet(List.of());
+    private volatile long lastSweep = System.nanoTime();
+
+    public PricingEngine(SeatLayoutCache layouts, PricingRuleRepository ruleRepo) {
+        this.layouts = layouts;
+        this.ruleRepo = ruleRepo;
+    }
+
+    public void load() {
+        try (Connection conn = Database.getConnection()) {
+            rules = new PricingRuleSet(ruleRepo.findAll(conn));
+            tables.clear();
+        } catch (SQLException e) {
+            throw new RuntimeException("Pricing rules load failed: " + e.getMessage(), e);
+        }
+    }
+
+    public List<PricingRule> rules() {
+        return rules.rules();
+    }
+
+    public PriceTable table(Connection conn, Screening screening) throws SQLException {
+        PriceTable table = tables.get(screening.id());
+        if (table != null) return table;
+
+        evictStarted();
+        PricingRuleSet ruleSet = rules;
+        table = build(conn, screening, ruleSet);
+        PriceTable existing = tables.putIfAbsent(screening.id(), table);
+        if (existing != null) return existing;
+        // A rule change may have swept the map between the build and the put.
+        if (ruleSet != rules) tables.remove(screening.id(), table);
+        return table;
+    }
+
+    public synchronized PricingRule addRule(PricingRule.Kind kind, String param, int percent) {
+        List<PricingRule> next = new ArrayList<>(rules.rules());
+        next.add(new PricingRule(0, kind, param, percent));
+        new PricingRuleSet(next); // validate before anything is written
+
+        try (Connection conn = Database.getWriteConnection()) {
+            long id = ruleRepo.insert(conn, kind, param, percent);
+            PricingRule rule = new PricingRule(id, kind, param, percent);
+            next.set(next.size() - 1, rule);
+            apply(next, rule);
+            return rule;
+        } catch (SQLException e) {
+            throw new RuntimeException("Add pricing rule failed: " + e.getMessage(), e);
+        }
+    }
+
+    public synchronized boolean removeRule(long id) {
+        PricingRule removed = null;
+        List<PricingRule> next = new ArrayList<>();
+        for (PricingRule rule : rules.rules()) {
+            if (rule.id() == id) removed = rule;
+            else next.add(rule);
+        }
+        if (removed == null) return false;
+
+        try (Connection conn = Database.getWriteConnection()) {
+            ruleRepo.delete(conn, id);
+            apply(next, removed);
+            return true;
+        } catch (SQLException e) {
+            throw new RuntimeException("Remove pricing rule failed: " + e.getMessage(), e);
+        }
+    }
+
+    public void invalidate(long screeningId) {
+        tables.remove(screeningId);
+    }
+
+    private void evictStarted() {
+        long now = System.nanoTime();
+        if (now - lastSweep < SWEEP_INTERVAL_NANOS) return;
+        lastSweep = now;
+        LocalDateTime cutoff = LocalDateTime.now();
+        tables.values().removeIf(t -> t.screening.startTime().isBefore(cutoff));
+    }
+
+    private void apply(List<PricingRule> next, PricingRule changed) {
+        rules = new PricingRuleSet(next);
+        tables.values().removeIf(t -> PricingRuleSet.affects(changed, t.screening));
+    }
+
+    private PriceTable build(Connection conn, Screening screening, PricingRuleSet ruleSet) throws SQLException {
+        SeatLayoutCache.SeatLayout layout = layouts.get(conn, screening.hallId());
+        Duration[] leads = ruleSet.earlyBirdLeads();
+        int[] thresholds = ruleSet.surgeThresholds();
+        int leadTiers = leads.length + 1;
+        int surgeTiers = thresholds.length + 1;
+
+        BigDecimal base = BigDecimal.valueOf(screening.basePrice().minor())
+                .multiply(ruleSet.screeningFactor(screening));
+        Map<String, BigDecimal> byType = new HashMap<>();
+        int seatCount = layout.rows() * layout.cols();
+        long[][] prices = new long[leadTiers * surgeTiers][seatCount];
+        int capacity = 0;
+
+        for (int lead = 0; lead < leadTiers; lead++) {
+            for (int surge = 0; surge < surgeTiers; surge++) {
+                BigDecimal variant = base
+                        .multiply(ruleSet.earlyBirdFactor(lead))
+                        .multiply(ruleSet.surgeFactor(surge));
+                long[] column = prices[lead * surgeTiers + surge];
+                byType.clear();
+                capacity = 0;
+                for (int i = 0; i < seatCount; i++) {
+                    Seat seat = layout.seat(i / layout.cols() + 1, i % layout.cols() + 1);
+                    if (seat == null) {
+                        column[i] = NO_SEAT;
+                        continue;
+                    }
+                    capacity++;
+                    column[i] = byType.computeIfAbsent(seat.seatType(), type -> variant
+                            .multiply(ruleSet.seatTypeFactor(type))
+                            .setScale(0, RoundingMode.HALF_UP)).longValueExact();
+                }
+            }
+        }
+
+        return new PriceTable(screening, layout, capacity, leads, thresholds, prices);
+    }
+
+    public static final class PriceTable {
+        private final Screening screening;
+        private final SeatLayoutCache.SeatLayout layout;
+        private final int rows;
+        private final int cols;
+        private final int capacity;
+        private final Duration[] leads;
+        private final int[] surgeThresholds;
+        private final long[][] prices;
+
+        PriceTable(
+                Screening screening,
+                SeatLayoutCache.SeatLayout layout,
+                int capacity,
+                Duration[] leads,
+                int[] surgeThresholds,
+                long[][] prices
+        ) {
+            this.screening = screening;
+            this.layout = layout;
+            this.rows = layout.rows();
+            this.cols = layout.cols();
+            this.capacity = capacity;
+            this.leads = leads;
+            this.surgeThresholds = surgeThresholds;
+            this.prices = prices;
+        }
+
+        public long screeningId() {
+            return screening.id();
+        }
+
+        // The layout the table was built from; indexes line up with prices().
+        public SeatLayoutCache.SeatLayout layout() {
+            return layout;
+        }
+
+        public int rows() {
+            return rows;
+        }
+
+        public int cols() {
+            return cols;
+        }
+
+        public int capacity() {
+            return capacity;
+        }
+
+        public int index(int row, int col) {
+            if (row < 1 || row > rows || col < 1 || col > cols) return -1;
+            return (row - 1) * cols + (col - 1);
+        }
+
+        /**
+         * Prices of every seat in row-major order at the given moment and
+         * occupancy, {@link #NO_SEAT} where the grid has no seat. The array
+         * is shared between callers and must not be modified.
+         */
+        public long[] prices(LocalDateTime now, int occupiedSeats) {
+            return prices[leadTier(now) * (surgeThresholds.length + 1) + surgeTier(occupiedSeats)];
+        }
+
+        public long price(int row, int col, LocalDateTime now, int occupiedSeats) {
+            int i = index(row, col);
+            return i < 0 ? NO_SEAT : prices(now, occupiedSeats)[i];
+        }
+
+        private int leadTier(LocalDateTime now) {
+            if (leads.length == 0) return 0;
+            Duration lead = Duration.between(now, screening.startTime());
+            for (int i = 0; i < leads.length; i++) {
+                if (lead.compareTo(leads[i]) >= 0) return i;
+            }
+            return leads.length;
+        }
+
+        private int surgeTier(int occupiedSeats) {
+            for (int i = 0; i < surgeThresholds.length; i++) {
+                if ((long) occupiedSeats * 100 >= (long) surgeThresholds[i] * capacity) return i;
+            }
+            return surgeThresholds.length;
+        }
+    }
+}
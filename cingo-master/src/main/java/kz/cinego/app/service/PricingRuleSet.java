@@ -0,0 +1,211 @@
+package kz.cinego.app.service;
+
+import kz.cinego.app.entity.PricingRule;
+import kz.cinego.app.entity.Screening;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Rules parsed once into lookup structures. Factors are exact decimals; the
+ * only rounding happens when PricingEngine turns a factor into a price.
+ * Immutable, so a rule change builds a new set and swaps it in.
+ */
+final class PricingRuleSet {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final List<PricingRule> rules;
+    private final Map<String, BigDecimal> seatTypes = new HashMap<>();
+    private final List<TimeBand> timeBands = new ArrayList<>();
+    private final BigDecimal[] weekdays = new BigDecimal[7];
+    private final Map<Long, BigDecimal> halls = new HashMap<>();
+    private final Map<Long, BigDecimal> movies = new HashMap<>();
+    // Both ordered strongest first; a table has one price column per tier plus "none".
+    private final Duration[] earlyBirdLeads;
+    private final BigDecimal[] earlyBirdFactors;
+    private final int[] surgeThresholds;
+    private final BigDecimal[] surgeFactors;
+
+    PricingRuleSet(List<PricingRule> rules) {
+        this.rules = List.copyOf(rules);
+        Arrays.fill(weekdays, BigDecimal.ONE);
+
+        List<PricingRule> earlyBird = new ArrayList<>();
+        List<PricingRule> surge = new ArrayList<>();
+        for (PricingRule rule : rules) {
+            if (rule.percent() <= 0) {
+                throw new IllegalArgumentException("Bad pricing rule percent: " + rule.percent());
+            }
+            BigDecimal factor = factor(rule.percent());
+            switch (rule.kind()) {
+                case SEAT_TYPE -> seatTypes.merge(seatTypeKey(rule.param()), factor, BigDecimal::multiply);
+                case TIME_BAND -> timeBands.add(TimeBand.parse(rule.param(), factor));
+                case WEEKDAY -> {
+                    for (DayOfWeek day : parseDays(rule.param())) {
+                        weekdays[day.ordinal()] = weekdays[day.ordinal()].multiply(factor);
+                    }
+                }
+                case HALL -> halls.merge(parseId(rule.param()), factor, BigDecimal::multiply);
+                case MOVIE -> movies.merge(parseId(rule.param()), factor, BigDecimal::multiply);
+                case EARLY_BIRD -> {
+                    parseLead(rule.param());
+                    earlyBird.add(rule);
+                }
+                case SURGE -> {
+                    parseOccupancy(rule.param());
+                    surge.add(rule);
+                }
+            }
+        }
+
+        earlyBird.sort(Comparator.comparing((PricingRule r) -> parseLead(r.param())).reversed());
+        earlyBirdLeads = new Duration[earlyBird.size()];
+        earlyBirdFactors = new BigDecimal[earlyBird.size()];
+        for (int i = 0; i < earlyBirdLeads.length; i++) {
+            earlyBirdLeads[i] = parseLead(earlyBird.get(i).param());
+            earlyBirdFactors[i] = factor(earlyBird.get(i).percent());
+        }
+
+        surge.sort(Comparator.comparingInt((PricingRule r) -> parseOccupancy(r.param())).reversed());
+        surgeThresholds = new int[surge.size()];
+        surgeFactors = new BigDecimal[surge.size()];
+        for (int i = 0; i < surgeThresholds.length; i++) {
+            surgeThresholds[i] = parseOccupancy(surge.get(i).param());
+            surgeFactors[i] = factor(surge.get(i).percent());
+        }
+    }
+
+    List<PricingRule> rules() {
+        return rules;
+    }
+
+    // Everything that depends only on the screening, not on the seat or the moment of booking.
+    BigDecimal screeningFactor(Screening screening) {
+        BigDecimal factor = weekdays[screening.startTime().getDayOfWeek().ordinal()];
+        LocalTime start = screening.startTime().toLocalTime();
+        for (TimeBand band : timeBands) {
+            if (band.contains(start)) factor = factor.multiply(band.factor());
+        }
+        factor = factor.multiply(halls.getOrDefault(screening.hallId(), BigDecimal.ONE));
+        return factor.multiply(movies.getOrDefault(screening.movieId(), BigDecimal.ONE));
+    }
+
+    BigDecimal seatTypeFactor(String seatType) {
+        return seatTypes.getOrDefault(seatTypeKey(seatType), BigDecimal.ONE);
+    }
+
+    Duration[] earlyBirdLeads() {
+        return earlyBirdLeads;
+    }
+
+    int[] surgeThresholds() {
+        return surgeThresholds;
+    }
+
+    // Tier == length means the dimension does not apply.
+    BigDecimal earlyBirdFactor(int tier) {
+        return tier < earlyBirdFactors.length ? earlyBirdFactors[tier] : BigDecimal.ONE;
+    }
+
+    BigDecimal surgeFactor(int tier) {
+        return tier < surgeFactors.length ? surgeFactors[tier] : BigDecimal.ONE;
+    }
+
+    // Whether adding or removing this rule can change prices of the screening.
+    static boolean affects(PricingRule rule, Screening screening) {
+        return switch (rule.kind()) {
+            case HALL -> parseId(rule.param()) == screening.hallId();
+            case MOVIE -> parseId(rule.param()) == screening.movieId();
+            case WEEKDAY -> parseDays(rule.param()).contains(screening.startTime().getDayOfWeek());
+            case TIME_BAND -> TimeBand.parse(rule.param(), BigDecimal.ONE).contains(screening.startTime().toLocalTime());
+            case SEAT_TYPE, EARLY_BIRD, SURGE -> true;
+        };
+    }
+
+    private static BigDecimal factor(int percent) {
+        return BigDecimal.valueOf(percent).divide(HUNDRED);
+    }
+
+    private static String seatTypeKey(String seatType) {
+        return seatType == null ? "" : seatType.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static long parseId(String param) {
+        try {
+            return Long.parseLong(param.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad pricing rule id: " + param);
+        }
+    }
+
+    private static List<DayOfWeek> parseDays(String param) {
+        List<DayOfWeek> days = new ArrayList<>();
+        for (String part : param.split(",")) {
+            String p = part.trim().toUpperCase(Locale.ROOT);
+            DayOfWeek match = null;
+            for (DayOfWeek day : DayOfWeek.values()) {
+                if (day.name().startsWith(p) && p.length() >= 3) match = day;
+            }
+            if (match == null) {
+                throw new IllegalArgumentException("Bad pricing rule weekday: " + part);
+            }
+            days.add(match);
+        }
+        return days;
+    }
+
+    private static Duration parseLead(String param) {
+        try {
+            Duration lead = Duration.parse(param.trim());
+            if (lead.isNegative()) throw new IllegalArgumentException("Bad pricing rule lead time: " + param);
+            return lead;
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Bad pricing rule lead time: " + param);
+        }
+    }
+
+    private static int parseOccupancy(String param) {
+        int percent;
+        try {
+            percent = Integer.parseInt(param.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad pricing rule occupancy: " + param);
+        }
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException("Bad pricing rule occupancy: " + param);
+        }
+        return percent;
+    }
+
+    private record TimeBand(LocalTime from, LocalTime to, BigDecimal factor) {
+
+        static TimeBand parse(String param, BigDecimal factor) {
+            String[] parts = param.split("-");
+            try {
+                if (parts.length != 2) throw new DateTimeParseException("", param, 0);
+                return new TimeBand(LocalTime.parse(parts[0].trim()), LocalTime.parse(parts[1].trim()), factor);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Bad pricing rule time band: " + param);
+            }
+        }
+
+        boolean contains(LocalTime time) {
+            if (from.isBefore(to)) {
+                return !time.isBefore(from) && time.isBefore(to);
+            }
+            // Wraps midnight, e.g. 22:00-02:00.
+            return !time.isBefore(from) || time.isBefore(to);
+        }
+    }
+}
@@ -1,56 +1,35 @@
 package kz.cinego.app.service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.LocalDateTime;
+import kz.cinego.app.entity.Money;
 
+// Points arithmetic; seat prices come from PricingEngine.
 public class PricingService {
 
-    private static final BigDecimal VIP_MULTIPLIER = new BigDecimal("1.30");
-    private static final BigDecimal PEAK_MULTIPLIER = new BigDecimal("1.20");
-    private static final BigDecimal MAX_POINTS_RATE = new BigDecimal("0.20");
-    private static final BigDecimal EARN_RATE = new BigDecimal("0.01");
+    private static final long MAX_POINTS_PERCENT = 20;
+    private static final long MINOR_PER_POINT = 100;
+    // One point per 100 tenge paid.
+    private static final long MINOR_PER_EARNED_POINT = 10_000;
 
-    public BigDecimal seatPrice(BigDecimal basePrice, String seatType, LocalDateTime startTime) {
-        BigDecimal price = basePrice;
-
-        if ("VIP".equalsIgnoreCase(seatType)) {
-            price = price.multiply(VIP_MULTIPLIER);
-        }
-
-        if (isPeakHour(startTime)) {
-            price = price.multiply(PEAK_MULTIPLIER);
-        }
-
-        return price.setScale(2, RoundingMode.HALF_UP);
-    }
-
-    public BigDecimal applyPointsDiscount(
-            BigDecimal total,
-            int availablePoints,
-            int pointsToUse
-    ) {
+    public long applyPointsDiscount(long totalMinor, int availablePoints, int pointsToUse) {
         if (pointsToUse <= 0) {
-            return total;
+            return totalMinor;
         }
 
         int usablePoints = Math.min(pointsToUse, availablePoints);
 
-        BigDecimal maxDiscount = total.multiply(MAX_POINTS_RATE);
-        BigDecimal requested = BigDecimal.valueOf(usablePoints);
-
-        BigDecimal discount = requested.min(maxDiscount);
-        BigDecimal result = total.subtract(discount);
+        // total - min(points, 20% of total) == max(total - points, 80% of total);
+        // rounding is monotone, so rounding the capped side alone is exact.
+        long afterPoints = totalMinor - usablePoints * MINOR_PER_POINT;
+        long afterCap = Money.mulDivHalfUp(totalMinor, 100 - MAX_POINTS_PERCENT, 100);
 
-        return result.max(BigDecimal.ZERO);
+        return Math.max(Math.max(afterPoints, afterCap), 0);
     }
 
-    public int earnedPoints(BigDecimal paidTotal) {
-        return paidTotal.multiply(EARN_RATE).intValue();
+    public int usedPoints(long totalMinor, long afterPointsMinor) {
+        return (int) ((totalMinor - afterPointsMinor) / MINOR_PER_POINT);
     }
 
-    private boolean isPeakHour(LocalDateTime time) {
-        int hour = time.getHour();
-        return hour >= 18 && hour < 22;
+    public int earnedPoints(Money paidTotal) {
+        return (int) (paidTotal.minor() / MINOR_PER_EARNED_POINT);
     }
 }
@@ -0,0 +1,195 @@
+package kz.cinego.app.service;
+
+import kz.cinego.app.entity.BookingEvent;
+import kz.cinego.app.entity.BookingEvent.BookingCancelled;
+import kz.cinego.app.entity.BookingEvent.BookingCreated;
+import kz.cinego.app.entity.BookingEvent.BookingExpired;
+import kz.cinego.app.entity.BookingEvent.BookingPaid;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Additive sales totals per screening and per day. Every event only adds
+ * to counters, so totals folded from disjoint slices of the journal can be
+ * merged in any order (a slice may hold a cancellation without the
+ * payment; its counters simply go negative until merged). Not thread-safe.
+ */
+final class SalesAggregates {
+
+    // How a fold resolves what the events do not carry.
+    interface Dimensions {
+        long movieOf(long screeningId);
+
+        long hallOf(long screeningId);
+
+        boolean isVip(long hallId, long seatId);
+    }
+
+    static final class ScreeningTotals {
+        long movieId;
+        long hallId;
+        int bookedSeats;
+        int paidSeats;
+        int vipPaidSeats;
+        int cancellations;
+        int expirations;
+        long revenueMinor;
+        long refundMinor;
+
+        void add(ScreeningTotals o) {
+            bookedSeats += o.bookedSeats;
+            paidSeats += o.paidSeats;
+            vipPaidSeats += o.vipPaidSeats;
+            cancellations += o.cancellations;
+            expirations += o.expirations;
+            revenueMinor += o.revenueMinor;
+            refundMinor += o.refundMinor;
+        }
+    }
+
+    static final class DayTotals {
+        int bookings;
+        int ticketsSold;
+        int cancellations;
+        int expirations;
+        long revenueMinor;
+        long refundMinor;
+
+        void add(DayTotals o) {
+            bookings += o.bookings;
+            ticketsSold += o.ticketsSold;
+            cancellations += o.cancellations;
+            expirations += o.expirations;
+            revenueMinor += o.revenueMinor;
+            refundMinor += o.refundMinor;
+        }
+    }
+
+    final Map<Long, ScreeningTotals> screenings = new HashMap<>();
+    // Keyed by epoch day of the event.
+    final TreeMap<Long, DayTotals> days = new TreeMap<>();
+
+    void apply(BookingEvent event, Dimensions dims) {
+        ScreeningTotals s = screening(event.screeningId(), dims);
+        DayTotals d = days.computeIfAbsent(event.occurredAt().toLocalDate().toEpochDay(), k -> new DayTotals());
+        int seats = event.seatIds().length;
+
+        if (event instanceof BookingCreated) {
+            s.bookedSeats += seats;
+            d.bookings++;
+        } else if (event instanceof BookingPaid paid) {
+            s.bookedSeats -= seats;
+            s.paidSeats += seats;
+            s.vipPaidSeats += vipSeats(event, s.hallId, dims);
+            s.revenueMinor += paid.amount().minor();
+            d.ticketsSold += seats;
+            d.revenueMinor += paid.amount().minor();
+        } else if (event instanceof BookingCancelled cancelled) {
+            if (cancelled.wasPaid()) {
+                s.paidSeats -= seats;
+                s.vipPaidSeats -= vipSeats(event, s.hallId, dims);
+            } else {
+                s.bookedSeats -= seats;
+            }
+            s.cancellations++;
+            s.refundMinor += cancelled.refund().minor();
+            d.cancellations++;
+            d.refundMinor += cancelled.refund().minor();
+        } else if (event instanceof BookingExpired) {
+            s.bookedSeats -= seats;
+            s.expirations++;
+            d.expirations++;
+        }
+    }
+
+    void merge(SalesAggregates other) {
+        for (Map.Entry<Long, ScreeningTotals> e : other.screenings.entrySet()) {
+            ScreeningTotals mine = screenings.putIfAbsent(e.getKey(), e.getValue());
+            if (mine != null) mine.add(e.getValue());
+        }
+        for (Map.Entry<Long, DayTotals> e : other.days.entrySet()) {
+            DayTotals mine = days.putIfAbsent(e.getKey(), e.getValue());
+            if (mine != null) mine.add(e.getValue());
+        }
+    }
+
+    private ScreeningTotals screening(long screeningId, Dimensions dims) {
+        ScreeningTotals s = screenings.get(screeningId);
+        if (s == null) {
+            s = new ScreeningTotals();
+            s.movieId = dims.movieOf(screeningId);
+            s.hallId = dims.hallOf(screeningId);
+            screenings.put(screeningId, s);
+        }
+        return s;
+    }
+
+    private static int vipSeats(BookingEvent event, long hallId, Dimensions dims) {
+        int vip = 0;
+        for (long seatId : event.seatIds()) {
+            if (dims.isVip(hallId, seatId)) vip++;
+        }
+        return vip;
+    }
+
+    // [screenings][per screening: id, movie, hall, 5 ints, 2 longs][days][per day: epochDay, 4 ints, 2 longs]
+    byte[] toBytes() {
+        int screeningBytes = 3 * Long.BYTES + 5 * Integer.BYTES + 2 * Long.BYTES;
+        int dayBytes = Long.BYTES + 4 * Integer.BYTES + 2 * Long.BYTES;
+        ByteBuffer buf = ByteBuffer.allocate(
+                2 * Integer.BYTES + screenings.size() * screeningBytes + days.size() * dayBytes
+        );
+        buf.putInt(screenings.size());
+        for (Map.Entry<Long, ScreeningTotals> e : screenings.entrySet()) {
+            ScreeningTotals s = e.getValue();
+            buf.putLong(e.getKey()).putLong(s.movieId).putLong(s.hallId)
+                    .putInt(s.bookedSeats).putInt(s.paidSeats).putInt(s.vipPaidSeats)
+                    .putInt(s.cancellations).putInt(s.expirations)
+                    .putLong(s.revenueMinor).putLong(s.refundMinor);
+        }
+        buf.putInt(days.size());
+        for (Map.Entry<Long, DayTotals> e : days.entrySet()) {
+            DayTotals d = e.getValue();
+            buf.putLong(e.getKey())
+                    .putInt(d.bookings).putInt(d.ticketsSold).putInt(d.cancellations).putInt(d.expirations)
+                    .putLong(d.revenueMinor).putLong(d.refundMinor);
+        }
+        return buf.array();
+    }
+
+    static SalesAggregates fromBytes(byte[] data) {
+        SalesAggregates a = new SalesAggregates();
+        ByteBuffer buf = ByteBuffer.wrap(data);
+        int n = buf.getInt();
+        for (int i = 0; i < n; i++) {
+            long id = buf.getLong();
+            ScreeningTotals s = new ScreeningTotals();
+            s.movieId = buf.getLong();
+            s.hallId = buf.getLong();
+            s.bookedSeats = buf.getInt();
+            s.paidSeats = buf.getInt();
+            s.vipPaidSeats = buf.getInt();
+            s.cancellations = buf.getInt();
+            s.expirations = buf.getInt();
+            s.revenueMinor = buf.getLong();
+            s.refundMinor = buf.getLong();
+            a.screenings.put(id, s);
+        }
+        int days = buf.getInt();
+        for (int i = 0; i < days; i++) {
+            long day = buf.getLong();
+            DayTotals d = new DayTotals();
+            d.bookings = buf.getInt();
+            d.ticketsSold = buf.getInt();
+            d.cancellations = buf.getInt();
+            d.expirations = buf.getInt();
+            d.revenueMinor = buf.getLong();
+            d.refundMinor = buf.getLong();
+            a.days.put(day, d);
+        }
+        return a;
+    }
+}
@@ -0,0 +1,344 @@
+package kz.cinego.app.service;
+
+import kz.cinego.app.config.AnalyticsConfig;
+import kz.cinego.app.config.JournalConfig;
+import kz.cinego.app.db.Database;
+import kz.cinego.app.entity.BookingEvent;
+import kz.cinego.app.entity.Money;
+import kz.cinego.app.entity.Screening;
+import kz.cinego.app.entity.Seat;
+import kz.cinego.app.repository.BookingEventRepository;
+import kz.cinego.app.repository.ScreeningRepository;
+import kz.cinego.app.repository.SeatRepository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.ToLongFunction;
+
+/**
+ * Revenue, fill rate, VIP share and refunds per screening, movie, hall and
+ * day, maintained from the booking journal as bookings are created, paid,
+ * cancelled and expired. Reports are served from memory; nothing here
+ * aggregates over the booking tables.
+ *
+ * recompute() rebuilds everything from the journal on a fork-join pool,
+ * one reader connection per slice of seq range, and then catches up with
+ * the events appended meanwhile.
+ */
+public class SalesAnalytics implements BookingProjection {
+
+    private final BookingEventRepository eventRepo;
+    private final ScreeningRepository screeningRepo;
+    private final SeatRepository seatRepo;
+    private final Dimensions dims = new Dimensions();
+
+    private SalesAggregates aggregates = new SalesAggregates();
+    private long position;
+
+    public SalesAnalytics(BookingEventRepository eventRepo, ScreeningRepository screeningRepo, SeatRepository seatRepo) {
+        this.eventRepo = eventRepo;
+        this.screeningRepo = screeningRepo;
+        this.seatRepo = seatRepo;
+    }
+
+    public record ScreeningReport(
+            long screeningId,
+            long movieId,
+            long hallId,
+            int capacity,
+            int bookedSeats,
+            int paidSeats,
+            double fillRate,
+            double vipShare,
+            Money revenue,
+            Money refunds,
+            Money netRevenue,
+            int cancellations,
+            int expirations
+    ) {}
+
+    // Per movie or per hall; id is the movie or hall ID.
+    public record GroupReport(
+            long id,
+            int screenings,
+            int capacity,
+            int paidSeats,
+            double fillRate,
+            double vipShare,
+            Money revenue,
+            Money refunds,
+            Money netRevenue
+    ) {}
+
+    public record DayReport(
+            LocalDate date,
+            int bookings,
+            int ticketsSold,
+            int cancellations,
+            int expirations,
+            Money revenue,
+            Money refunds,
+            Money netRevenue
+    ) {}
+
+    public record RecomputeResult(long events, int slices, long elapsedMillis) {}
+
+    @Override
+    public String name() {
+        return "sales_analytics";
+    }
+
+    // Loads the screening and hall of the event on the appending transaction's connection.
+    @Override
+    public void prepare(Connection conn, BookingEvent event) throws SQLException {
+        dims.load(conn, event.screeningId());
+    }
+
+    // Skips what a recompute already folded in.
+    @Override
+    public synchronized void apply(BookingEvent event) {
+        if (event.seq() <= position) return;
+        aggregates.apply(event, dims);
+        position = event.seq();
+    }
+
+    @Override
+    public synchronized long position() {
+        return position;
+    }
+
+    @Override
+    public synchronized byte[] snapshot() {
+        return aggregates.toBytes();
+    }
+
+    @Override
+    public synchronized void restore(long position, byte[] data) {
+        this.aggregates = SalesAggregates.fromBytes(data);
+        this.position = position;
+    }
+
+    public synchronized ScreeningReport screening(long screeningId) {
+        SalesAggregates.ScreeningTotals s = aggregates.screenings.get(screeningId);
+        if (s == null) {
+            Screening screening = screeningRepo.findById(screeningId);
+            if (screening == null) throw new IllegalArgumentException("Screening not found: " + screeningId);
+            s = new SalesAggregates.ScreeningTotals();
+            s.movieId = screening.movieId();
+            s.hallId = screening.hallId();
+        }
+        int capacity = dims.hall(s.hallId).capacity();
+        return new ScreeningReport(
+                screeningId, s.movieId, s.hallId, capacity, s.bookedSeats, s.paidSeats,
+                ratio(s.paidSeats, capacity), ratio(s.vipPaidSeats, s.paidSeats),
+                Money.ofMinor(s.revenueMinor), Money.ofMinor(s.refundMinor),
+                Money.ofMinor(s.revenueMinor - s.refundMinor), s.cancellations, s.expirations
+        );
+    }
+
+    public synchronized List<GroupReport> byMovie() {
+        return group(s -> s.movieId);
+    }
+
+    public synchronized List<GroupReport> byHall() {
+        return group(s -> s.hallId);
+    }
+
+    // Inclusive range, oldest first; days without activity are left out.
+    public synchronized List<DayReport> daily(LocalDate from, LocalDate to) {
+        List<DayReport> list = new ArrayList<>();
+        for (Map.Entry<Long, SalesAggregates.DayTotals> e
+                : aggregates.days.subMap(from.toEpochDay(), true, to.toEpochDay(), true).entrySet()) {
+            SalesAggregates.DayTotals d = e.getValue();
+            list.add(new DayReport(
+                    LocalDate.ofEpochDay(e.getKey()), d.bookings, d.ticketsSold, d.cancellations, d.expirations,
+                    Money.ofMinor(d.revenueMinor), Money.ofMinor(d.refundMinor),
+                    Money.ofMinor(d.revenueMinor - d.refundMinor)
+            ));
+        }
+        return list;
+    }
+
+    public RecomputeResult recompute() {
+        long started = System.nanoTime();
+        long upTo;
+        try (Connection conn = Database.getConnection()) {
+            upTo = eventRepo.maxSeq(conn);
+        } catch (SQLException e) {
+            throw new RuntimeException("Analytics recompute failed: " + e.getMessage(), e);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(AnalyticsConfig.RECOMPUTE_PARALLELISM);
+        SalesAggregates rebuilt;
+        try {
+            rebuilt = pool.invoke(new Slice(0, upTo));
+        } finally {
+            pool.shutdown();
+        }
+
+        // Most of the catch-up is folded before the swap, so a publish waiting on
+        // this monitor waits only for what was appended in the last moment.
+        long caughtUp = catchUp(rebuilt, upTo);
+        synchronized (this) {
+            aggregates = rebuilt;
+            position = catchUp(rebuilt, caughtUp);
+        }
+        int slices = (int) ((upTo + AnalyticsConfig.RECOMPUTE_CHUNK - 1) / AnalyticsConfig.RECOMPUTE_CHUNK);
+        return new RecomputeResult(upTo, slices, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Folds the events committed after seq into target; returns the last seq folded.
+    private long catchUp(SalesAggregates target, long seq) {
+        try (Connection conn = Database.getConnection()) {
+            while (true) {
+                List<BookingEvent> chunk = eventRepo.findAfter(conn, seq, JournalConfig.REPLAY_CHUNK);
+                if (chunk.isEmpty()) return seq;
+                for (BookingEvent event : chunk) target.apply(event, dims);
+                seq = chunk.get(chunk.size() - 1).seq();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Analytics recompute failed: " + e.getMessage(), e);
+        }
+    }
+
+    private List<GroupReport> group(ToLongFunction<SalesAggregates.ScreeningTotals> key) {
+        Map<Long, SalesAggregates.ScreeningTotals> totals = new TreeMap<>();
+        Map<Long, int[]> screeningsAndCapacity = new TreeMap<>();
+        for (SalesAggregates.ScreeningTotals s : aggregates.screenings.values()) {
+            long id = key.applyAsLong(s);
+            totals.computeIfAbsent(id, k -> new SalesAggregates.ScreeningTotals()).add(s);
+            int[] sc = screeningsAndCapacity.computeIfAbsent(id, k -> new int[2]);
+            sc[0]++;
+            sc[1] += dims.hall(s.hallId).capacity();
+        }
+
+        List<GroupReport> list = new ArrayList<>(totals.size());
+        for (Map.Entry<Long, SalesAggregates.ScreeningTotals> e : totals.entrySet()) {
+            SalesAggregates.ScreeningTotals t = e.getValue();
+            int[] sc = screeningsAndCapacity.get(e.getKey());
+            list.add(new GroupReport(
+                    e.getKey(), sc[0], sc[1], t.paidSeats,
+                    ratio(t.paidSeats, sc[1]), ratio(t.vipPaidSeats, t.paidSeats),
+                    Money.ofMinor(t.revenueMinor), Money.ofMinor(t.refundMinor),
+                    Money.ofMinor(t.revenueMinor - t.refundMinor)
+            ));
+        }
+        return list;
+    }
+
+    private static double ratio(long part, long whole) {
+        return whole <= 0 ? 0 : (double) part / whole;
+    }
+
+    // Folds the events in (from, to] of the journal.
+    @SuppressWarnings("serial")
+    private final class Slice extends RecursiveTask<SalesAggregates> {
+        private final long from;
+        private final long to;
+
+        Slice(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SalesAggregates compute() {
+            if (to - from > AnalyticsConfig.RECOMPUTE_CHUNK) {
+                long mid = from + (to - from) / 2;
+                Slice left = new Slice(from, mid);
+                left.fork();
+                SalesAggregates right = new Slice(mid, to).compute();
+                SalesAggregates merged = left.join();
+                merged.merge(right);
+                return merged;
+            }
+
+            // Read first and fold after returning the connection: folding may borrow one.
+            List<BookingEvent> events;
+            try (Connection conn = Database.getConnection()) {
+                events = eventRepo.findBetween(conn, from, to, AnalyticsConfig.RECOMPUTE_CHUNK);
+            } catch (SQLException e) {
+                throw new RuntimeException("Analytics recompute failed: " + e.getMessage(), e);
+            }
+            SalesAggregates slice = new SalesAggregates();
+            for (BookingEvent event : events) slice.apply(event, dims);
+            return slice;
+        }
+    }
+
+    private record HallSeats(int capacity, Set<Long> vipSeats) {}
+
+    // Screening and seat attributes, cached; safe to use from the recompute workers.
+    // Published events find theirs already loaded by prepare(); replay, recompute and
+    // the reports load what is missing on a reader connection.
+    private final class Dimensions implements SalesAggregates.Dimensions {
+        private final Map<Long, long[]> screenings = new ConcurrentHashMap<>();
+        private final Map<Long, HallSeats> halls = new ConcurrentHashMap<>();
+
+        @Override
+        public long movieOf(long screeningId) {
+            return screening(screeningId)[0];
+        }
+
+        @Override
+        public long hallOf(long screeningId) {
+            return screening(screeningId)[1];
+        }
+
+        @Override
+        public boolean isVip(long hallId, long seatId) {
+            return hall(hallId).vipSeats().contains(seatId);
+        }
+
+        void load(Connection conn, long screeningId) throws SQLException {
+            long[] ids = screenings.get(screeningId);
+            if (ids == null) {
+                Screening s = screeningRepo.findById(conn, screeningId);
+                ids = s == null ? new long[2] : new long[]{s.movieId(), s.hallId()};
+                screenings.put(screeningId, ids);
+            }
+            if (!halls.containsKey(ids[1])) halls.put(ids[1], loadHall(conn, ids[1]));
+        }
+
+        private long[] screening(long screeningId) {
+            long[] ids = screenings.get(screeningId);
+            if (ids != null) return ids;
+            Screening s = screeningRepo.findById(screeningId);
+            ids = s == null ? new long[2] : new long[]{s.movieId(), s.hallId()};
+            screenings.put(screeningId, ids);
+            return ids;
+        }
+
+        HallSeats hall(long hallId) {
+            HallSeats seats = halls.get(hallId);
+            if (seats != null) return seats;
+
+            try (Connection conn = Database.getConnection()) {
+                seats = loadHall(conn, hallId);
+            } catch (SQLException e) {
+                throw new RuntimeException("Analytics hall lookup failed: " + e.getMessage(), e);
+            }
+            halls.put(hallId, seats);
+            return seats;
+        }
+
+        private HallSeats loadHall(Connection conn, long hallId) throws SQLException {
+            List<Seat> all = seatRepo.findByHall(conn, hallId);
+            Set<Long> vip = new HashSet<>();
+            for (Seat seat : all) {
+                if ("VIP".equals(seat.seatType())) vip.add(seat.id());
+            }
+            return new HallSeats(all.size(), Set.copyOf(vip));
+        }
+    }
+}
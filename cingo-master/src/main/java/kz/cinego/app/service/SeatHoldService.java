@@ -0,0 +1,360 @@
+package kz.cinego.app.service;
+
+import kz.cinego.app.config.BookingConfig;
+import kz.cinego.app.db.Database;
+import kz.cinego.app.entity.Screening;
+import kz.cinego.app.entity.Seat;
+import kz.cinego.app.entity.SeatHold;
+import kz.cinego.app.repository.ScreeningRepository;
+import kz.cinego.app.repository.SeatHoldRepository;
+import kz.cinego.app.repository.SeatRepository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Temporary seat holds with a TTL. Holds live in memory per screening and
+ * are optionally mirrored to the seat_holds table; a background reaper
+ * releases the ones that expire.
+ */
+public class SeatHoldService implements AutoCloseable {
+
+    // Holds placed internally by a direct createBooking only need to outlive one transaction.
+    private static final Duration BOOKING_HOLD_TTL = Duration.ofMinutes(1);
+
+    private final ScreeningRepository screeningRepo;
+    private final SeatLayoutCache layouts;
+    private final SeatOccupancyIndex occupancy;
+    private final SeatHoldRepository holdRepo;
+    private final Duration ttl;
+    private final boolean persistent;
+
+    private final ConcurrentHashMap<Long, ScreeningHolds> byScreening = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> screeningByToken = new ConcurrentHashMap<>();
+    private ScheduledExecutorService reaper;
+
+    public SeatHoldService(
+            ScreeningRepository screeningRepo,
+            SeatLayoutCache layouts,
+            SeatOccupancyIndex occupancy,
+            SeatHoldRepository holdRepo
+    ) {
+        this(screeningRepo, layouts, occupancy, holdRepo, BookingConfig.HOLD_TTL, BookingConfig.HOLD_PERSISTENCE);
+    }
+
+    public SeatHoldService(
+            ScreeningRepository screeningRepo,
+            SeatLayoutCache layouts,
+            SeatOccupancyIndex occupancy,
+            SeatHoldRepository holdRepo,
+            Duration ttl,
+            boolean persistent
+    ) {
+        this.screeningRepo = screeningRepo;
+        this.layouts = layouts;
+        this.occupancy = occupancy;
+        this.holdRepo = holdRepo;
+        this.ttl = ttl;
+        this.persistent = persistent;
+    }
+
+    public synchronized void start() {
+        if (reaper != null) return;
+        if (persistent) restore();
+
+        reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "seat-hold-reaper");
+            t.setDaemon(true);
+            return t;
+        });
+        reaper.scheduleWithFixedDelay(
+                this::reapExpired,
+                BookingConfig.HOLD_REAPER_INTERVAL_MS,
+                BookingConfig.HOLD_REAPER_INTERVAL_MS,
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    @Override
+    public synchronized void close() {
+        if (reaper != null) {
+            reaper.shutdownNow();
+            reaper = null;
+        }
+    }
+
+    public SeatHold hold(long userId, long screeningId, List<int[]> seatCoords) {
+        try {
+            SeatHold hold = place(userId, screeningId, seatCoords, ttl);
+            if (persistent) persist(hold);
+            return hold;
+        } catch (SQLException e) {
+            throw new RuntimeException("Seat hold failed: " + e.getMessage(), e);
+        }
+    }
+
+    public void release(String token) {
+        Long screeningId = screeningByToken.remove(token);
+        if (screeningId == null) return;
+
+        ScreeningHolds holds = byScreening.get(screeningId);
+        if (holds != null) holds.remove(token);
+        if (persistent) unpersist(token);
+    }
+
+    public List<Seat> heldSeats(long screeningId) {
+        ScreeningHolds holds = byScreening.get(screeningId);
+        return holds == null ? List.of() : holds.heldSeats(System.currentTimeMillis());
+    }
+
+    // Marks live holds into a row-major state array without building seat lists.
+    void markHeld(long screeningId, byte[] states, int cols) {
+        ScreeningHolds holds = byScreening.get(screeningId);
+        if (holds != null) holds.markHeld(System.currentTimeMillis(), states, cols);
+    }
+
+    public int reapExpired() {
+        long now = System.currentTimeMillis();
+        int reaped = 0;
+        for (ScreeningHolds holds : byScreening.values()) {
+            for (String token : holds.removeExpired(now)) {
+                screeningByToken.remove(token);
+                reaped++;
+            }
+        }
+        if (persistent) {
+            try (Connection conn = Database.getWriteConnection()) {
+                holdRepo.deleteExpired(conn, now);
+            } catch (SQLException e) {
+                // The next sweep retries; expired rows are ignored on restore anyway.
+            }
+        }
+        return reaped;
+    }
+
+    SeatHold holdForBooking(long userId, long screeningId, List<int[]> seatCoords) throws SQLException {
+        return place(userId, screeningId, seatCoords, BOOKING_HOLD_TTL);
+    }
+
+    // Pins the hold so the reaper leaves it alone while it is being turned into a booking.
+    SeatHold beginConversion(String token, long userId) {
+        Long screeningId = screeningByToken.get(token);
+        ScreeningHolds holds = screeningId == null ? null : byScreening.get(screeningId);
+        SeatHold hold = holds == null ? null : holds.pin(token, System.currentTimeMillis());
+        if (hold == null) {
+            throw new IllegalStateException("Hold not found or expired: " + token);
+        }
+        if (hold.userId() != userId) {
+            holds.unpin(token);
+            throw new IllegalStateException("Hold belongs to another user: " + token);
+        }
+        return hold;
+    }
+
+    void abortConversion(String token) {
+        Long screeningId = screeningByToken.get(token);
+        ScreeningHolds holds = screeningId == null ? null : byScreening.get(screeningId);
+        if (holds != null) holds.unpin(token);
+    }
+
+    private SeatHold place(long userId, long screeningId, List<int[]> seatCoords, Duration holdTtl) throws SQLException {
+        if (seatCoords.isEmpty()) {
+            throw new IllegalArgumentException("No seats provided.");
+        }
+        Screening screening = screeningRepo.findById(screeningId);
+        if (screening == null) {
+            throw new IllegalArgumentException("Screening not found: " + screeningId);
+        }
+
+        SeatRepository.SeatLookup lookup;
+        try (Connection conn = Database.getConnection()) {
+            lookup = layouts.get(conn, screening.hallId()).resolve(seatCoords);
+        }
+        if (!lookup.missing().isEmpty()) {
+            int[] rc = lookup.missing().get(0);
+            throw new IllegalArgumentException("Seat not found: row=" + rc[0] + " col=" + rc[1]);
+        }
+        // A seat listed twice would collide with itself on the seat_claims key at booking time.
+        Set<Long> distinct = new HashSet<>();
+        for (Seat seat : lookup.seats()) {
+            if (!distinct.add(seat.id())) {
+                throw new IllegalArgumentException(
+                        "Seat listed twice: row=" + seat.rowNum() + " col=" + seat.colNum()
+                );
+            }
+        }
+
+        SeatOccupancyIndex.ScreeningOccupancy seatMap = occupancy.get(screening);
+        SeatHold hold = new SeatHold(
+                UUID.randomUUID().toString(),
+                userId,
+                screeningId,
+                List.copyOf(lookup.seats()),
+                Instant.now().plus(holdTtl)
+        );
+
+        byScreening.computeIfAbsent(screeningId, id -> new ScreeningHolds())
+                .add(hold, seatMap, System.currentTimeMillis());
+        screeningByToken.put(hold.token(), screeningId);
+        return hold;
+    }
+
+    private void persist(SeatHold hold) throws SQLException {
+        try (Connection conn = Database.getWriteConnection()) {
+            holdRepo.insert(conn, hold);
+        } catch (SQLException e) {
+            release(hold.token());
+            throw e;
+        }
+    }
+
+    private void unpersist(String token) {
+        try (Connection conn = Database.getWriteConnection()) {
+            holdRepo.delete(conn, token);
+        } catch (SQLException e) {
+            // Left for the reaper: the row expires and is deleted on a later sweep.
+        }
+    }
+
+    private void restore() {
+        long now = System.currentTimeMillis();
+        List<SeatHoldRepository.StoredHold> stored;
+        try (Connection conn = Database.getConnection()) {
+            stored = holdRepo.findActive(conn, now);
+        } catch (SQLException e) {
+            throw new RuntimeException("Seat hold restore failed: " + e.getMessage(), e);
+        }
+
+        for (SeatHoldRepository.StoredHold s : stored) {
+            try {
+                Screening screening = screeningRepo.findById(s.screeningId());
+                if (screening == null) continue;
+                List<Seat> seats;
+                try (Connection conn = Database.getConnection()) {
+                    SeatRepository.SeatLookup lookup = layouts.get(conn, screening.hallId()).resolve(s.seats());
+                    if (!lookup.missing().isEmpty()) continue;
+                    seats = lookup.seats();
+                }
+                SeatHold hold = new SeatHold(
+                        s.token(), s.userId(), s.screeningId(), List.copyOf(seats), Instant.ofEpochMilli(s.expiresAtMillis())
+                );
+                byScreening.computeIfAbsent(s.screeningId(), id -> new ScreeningHolds())
+                        .add(hold, occupancy.get(screening), now);
+                screeningByToken.put(hold.token(), s.screeningId());
+            } catch (SQLException | IllegalStateException e) {
+                // Seats were booked since the hold was stored; drop it.
+                unpersist(s.token());
+            }
+        }
+    }
+
+    private static final class ScreeningHolds {
+        private final Map<Long, Entry> bySeat = new HashMap<>();
+        private final Map<String, Entry> byToken = new HashMap<>();
+
+        synchronized void add(SeatHold hold, SeatOccupancyIndex.ScreeningOccupancy seatMap, long now) {
+            for (Seat seat : hold.seats()) {
+                if (seatMap.isOccupied(seat.rowNum(), seat.colNum())) {
+                    throw new IllegalStateException(
+                            "Seat already booked: row=" + seat.rowNum() + " col=" + seat.colNum()
+                    );
+                }
+                Entry other = bySeat.get(seat.id());
+                if (other != null && other.isLive(now)) {
+                    throw new IllegalStateException(
+                            "Seat is on hold: row=" + seat.rowNum() + " col=" + seat.colNum()
+                    );
+                }
+            }
+
+            Entry entry = new Entry(hold);
+            byToken.put(hold.token(), entry);
+            for (Seat seat : hold.seats()) {
+                bySeat.put(seat.id(), entry);
+            }
+        }
+
+        synchronized SeatHold pin(String token, long now) {
+            Entry entry = byToken.get(token);
+            if (entry == null || entry.pinned || !entry.isLive(now)) return null;
+            entry.pinned = true;
+            return entry.hold;
+        }
+
+        synchronized void unpin(String token) {
+            Entry entry = byToken.get(token);
+            if (entry != null) entry.pinned = false;
+        }
+
+        synchronized void remove(String token) {
+            Entry entry = byToken.get(token);
+            if (entry != null) removeEntry(entry);
+        }
+
+        synchronized List<Seat> heldSeats(long now) {
+            List<Seat> seats = new ArrayList<>();
+            for (Entry entry : byToken.values()) {
+                if (entry.isLive(now)) seats.addAll(entry.hold.seats());
+            }
+            return seats;
+        }
+
+        synchronized void markHeld(long now, byte[] states, int cols) {
+            for (Entry entry : byToken.values()) {
+                if (!entry.isLive(now)) continue;
+                for (Seat seat : entry.hold.seats()) {
+                    int i = (seat.rowNum() - 1) * cols + (seat.colNum() - 1);
+                    if (i >= 0 && i < states.length && states[i] == SeatOccupancyIndex.FREE) {
+                        states[i] = SeatOccupancyIndex.HELD;
+                    }
+                }
+            }
+        }
+
+        synchronized List<String> removeExpired(long now) {
+            List<String> expired = new ArrayList<>();
+            for (Entry entry : List.copyOf(byToken.values())) {
+                if (!entry.isLive(now)) {
+                    removeEntry(entry);
+                    expired.add(entry.hold.token());
+                }
+            }
+            return expired;
+        }
+
+        private void removeEntry(Entry entry) {
+            byToken.remove(entry.hold.token(), entry);
+            for (Seat seat : entry.hold.seats()) {
+                bySeat.remove(seat.id(), entry);
+            }
+        }
+    }
+
+    private static final class Entry {
+        final SeatHold hold;
+        final long expiresAtMillis;
+        boolean pinned;
+
+        Entry(SeatHold hold) {
+            this.hold = hold;
+            this.expiresAtMillis = hold.expiresAt().toEpochMilli();
+        }
+
+        boolean isLive(long now) {
+            return pinned || expiresAtMillis > now;
+        }
+    }
+}
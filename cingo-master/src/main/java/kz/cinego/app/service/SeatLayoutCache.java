@@ -0,0 +1,131 @@
+package kz.cinego.app.service;
+
+import kz.cinego.app.entity.Hall;
+import kz.cinego.app.entity.Seat;
+import kz.cinego.app.repository.HallRepository;
+import kz.cinego.app.repository.SeatRepository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable seat layout per hall. Seat rows never change after seeding,
+ * so each hall is read once and then resolved entirely in memory.
+ */
+public class SeatLayoutCache {
+
+    public static final byte NO_SEAT = -1;
+
+    private final HallRepository hallRepo;
+    private final SeatRepository seatRepo;
+    private final ConcurrentHashMap<Long, SeatLayout> byHall = new ConcurrentHashMap<>();
+
+    public SeatLayoutCache(HallRepository hallRepo, SeatRepository seatRepo) {
+        this.hallRepo = hallRepo;
+        this.seatRepo = seatRepo;
+    }
+
+    public SeatLayout get(Connection conn, long hallId) throws SQLException {
+        SeatLayout layout = byHall.get(hallId);
+        if (layout != null) return layout;
+
+        layout = load(conn, hallId);
+        SeatLayout existing = byHall.putIfAbsent(hallId, layout);
+        return existing != null ? existing : layout;
+    }
+
+    public void invalidate(long hallId) {
+        byHall.remove(hallId);
+    }
+
+    private SeatLayout load(Connection conn, long hallId) throws SQLException {
+        Hall hall = hallRepo.findById(conn, hallId);
+        if (hall == null) {
+            throw new IllegalStateException("Hall not found: " + hallId);
+        }
+
+        Seat[] grid = new Seat[hall.rowsCount() * hall.colsCount()];
+        for (Seat seat : seatRepo.findByHall(conn, hallId)) {
+            if (seat.rowNum() < 1 || seat.rowNum() > hall.rowsCount()
+                    || seat.colNum() < 1 || seat.colNum() > hall.colsCount()) {
+                continue;
+            }
+            grid[(seat.rowNum() - 1) * hall.colsCount() + (seat.colNum() - 1)] = seat;
+        }
+
+        List<String> seatTypes = new ArrayList<>();
+        byte[] typeCodes = new byte[grid.length];
+        for (int i = 0; i < grid.length; i++) {
+            if (grid[i] == null) {
+                typeCodes[i] = NO_SEAT;
+                continue;
+            }
+            int code = seatTypes.indexOf(grid[i].seatType());
+            if (code < 0) {
+                code = seatTypes.size();
+                seatTypes.add(grid[i].seatType());
+            }
+            typeCodes[i] = (byte) code;
+        }
+        return new SeatLayout(hallId, hall.rowsCount(), hall.colsCount(), grid, List.copyOf(seatTypes), typeCodes);
+    }
+
+    public static final class SeatLayout {
+        private final long hallId;
+        private final int rows;
+        private final int cols;
+        private final Seat[] grid;
+        private final List<String> seatTypes;
+        private final byte[] seatTypeCodes;
+
+        SeatLayout(long hallId, int rows, int cols, Seat[] grid, List<String> seatTypes, byte[] seatTypeCodes) {
+            this.hallId = hallId;
+            this.rows = rows;
+            this.cols = cols;
+            this.grid = grid;
+            this.seatTypes = seatTypes;
+            this.seatTypeCodes = seatTypeCodes;
+        }
+
+        public long hallId() {
+            return hallId;
+        }
+
+        public int rows() {
+            return rows;
+        }
+
+        public int cols() {
+            return cols;
+        }
+
+        // Distinct seat types of the hall; seatTypeCodes() indexes into this list.
+        public List<String> seatTypes() {
+            return seatTypes;
+        }
+
+        // Row-major, NO_SEAT where the grid has no seat. Shared; do not modify.
+        public byte[] seatTypeCodes() {
+            return seatTypeCodes;
+        }
+
+        public Seat seat(int row, int col) {
+            if (row < 1 || row > rows || col < 1 || col > cols) return null;
+            return grid[(row - 1) * cols + (col - 1)];
+        }
+
+        public SeatRepository.SeatLookup resolve(List<int[]> coords) {
+            List<Seat> found = new ArrayList<>(coords.size());
+            List<int[]> missing = new ArrayList<>();
+            for (int[] rc : coords) {
+                Seat seat = seat(rc[0], rc[1]);
+                if (seat == null) missing.add(rc);
+                else found.add(seat);
+            }
+            return new SeatRepository.SeatLookup(found, missing);
+        }
+    }
+}
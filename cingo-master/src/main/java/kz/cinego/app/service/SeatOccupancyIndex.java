@@ -0,0 +1,189 @@
+package kz.cinego.app.service;
+
+import kz.cinego.app.db.Database;
+import kz.cinego.app.entity.Hall;
+import kz.cinego.app.entity.Screening;
+import kz.cinego.app.entity.Seat;
+import kz.cinego.app.repository.HallRepository;
+import kz.cinego.app.repository.SeatRepository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory seat occupancy per screening, kept as two bitsets over the hall's
+ * row/col grid: one for seats held by CREATED bookings and one for PAID seats.
+ * Loaded lazily from SQLite on first access and updated after each commit.
+ * Screenings that have started are dropped, at most once a minute when
+ * another is loaded; a later access reloads them.
+ */
+public class SeatOccupancyIndex {
+
+    public static final byte FREE = 0;
+    public static final byte BOOKED = 1;
+    public static final byte PAID = 2;
+    // Only appears in rendered seat maps; holds live in SeatHoldService.
+    public static final byte HELD = 3;
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final HallRepository hallRepo;
+    private final SeatRepository seatRepo;
+    private final ConcurrentHashMap<Long, ScreeningOccupancy> byScreening = new ConcurrentHashMap<>();
+    private volatile long lastSweep = System.nanoTime();
+
+    public SeatOccupancyIndex(HallRepository hallRepo, SeatRepository seatRepo) {
+        this.hallRepo = hallRepo;
+        this.seatRepo = seatRepo;
+    }
+
+    /**
+     * Must be called with the writer connection so that loading cannot
+     * interleave with a commit that this index would then miss.
+     */
+    public ScreeningOccupancy get(Connection conn, Screening screening) throws SQLException {
+        ScreeningOccupancy occupancy = byScreening.get(screening.id());
+        if (occupancy != null) return occupancy;
+
+        evictStarted();
+        occupancy = load(conn, screening);
+        ScreeningOccupancy existing = byScreening.putIfAbsent(screening.id(), occupancy);
+        return existing != null ? existing : occupancy;
+    }
+
+    /**
+     * Borrows the writer connection if the screening is not loaded yet, so
+     * callers must not already hold it.
+     */
+    public ScreeningOccupancy get(Screening screening) throws SQLException {
+        ScreeningOccupancy occupancy = byScreening.get(screening.id());
+        if (occupancy != null) return occupancy;
+
+        try (Connection conn = Database.getWriteConnection()) {
+            return get(conn, screening);
+        }
+    }
+
+    public ScreeningOccupancy getIfLoaded(long screeningId) {
+        return byScreening.get(screeningId);
+    }
+
+    public void invalidate(long screeningId) {
+        byScreening.remove(screeningId);
+    }
+
+    public void clear() {
+        byScreening.clear();
+    }
+
+    private void evictStarted() {
+        long now = System.nanoTime();
+        if (now - lastSweep < SWEEP_INTERVAL_NANOS) return;
+        lastSweep = now;
+        LocalDateTime cutoff = LocalDateTime.now();
+        byScreening.values().removeIf(o -> o.startTime.isBefore(cutoff));
+    }
+
+    private ScreeningOccupancy load(Connection conn, Screening screening) throws SQLException {
+        Hall hall = hallRepo.findById(conn, screening.hallId());
+        if (hall == null) {
+            throw new IllegalStateException("Hall not found: " + screening.hallId());
+        }
+
+        ScreeningOccupancy occupancy = new ScreeningOccupancy(hall.rowsCount(), hall.colsCount(), screening.startTime());
+        for (SeatRepository.SeatState state : seatRepo.findActiveSeatStates(conn, screening.id())) {
+            occupancy.set(state.rowNum(), state.colNum(), state.paid() ? PAID : BOOKED);
+        }
+        return occupancy;
+    }
+
+    public static final class ScreeningOccupancy {
+        private final int rows;
+        private final int cols;
+        private final long[] booked;
+        private final long[] paid;
+        private final LocalDateTime startTime;
+
+        ScreeningOccupancy(int rows, int cols, LocalDateTime startTime) {
+            this.rows = rows;
+            this.cols = cols;
+            this.startTime = startTime;
+            int words = (rows * cols + 63) >>> 6;
+            this.booked = new long[words];
+            this.paid = new long[words];
+        }
+
+        public int rows() {
+            return rows;
+        }
+
+        public int cols() {
+            return cols;
+        }
+
+        public synchronized boolean isOccupied(int row, int col) {
+            int bit = bit(row, col);
+            long mask = 1L << bit;
+            return ((booked[bit >>> 6] | paid[bit >>> 6]) & mask) != 0;
+        }
+
+        public synchronized byte state(int row, int col) {
+            int bit = bit(row, col);
+            long mask = 1L << bit;
+            if ((paid[bit >>> 6] & mask) != 0) return PAID;
+            if ((booked[bit >>> 6] & mask) != 0) return BOOKED;
+            return FREE;
+        }
+
+        // Row-major copy of every seat state in one pass.
+        public synchronized byte[] snapshot() {
+            byte[] states = new byte[rows * cols];
+            for (int bit = 0; bit < states.length; bit++) {
+                long mask = 1L << bit;
+                if ((paid[bit >>> 6] & mask) != 0) states[bit] = PAID;
+                else if ((booked[bit >>> 6] & mask) != 0) states[bit] = BOOKED;
+            }
+            return states;
+        }
+
+        public synchronized int occupiedCount() {
+            int count = 0;
+            for (int i = 0; i < booked.length; i++) {
+                count += Long.bitCount(booked[i] | paid[i]);
+            }
+            return count;
+        }
+
+        public synchronized void markBooked(List<Seat> seats) {
+            for (Seat seat : seats) set(seat.rowNum(), seat.colNum(), BOOKED);
+        }
+
+        public synchronized void markPaid(List<Seat> seats) {
+            for (Seat seat : seats) set(seat.rowNum(), seat.colNum(), PAID);
+        }
+
+        public synchronized void release(List<Seat> seats) {
+            for (Seat seat : seats) set(seat.rowNum(), seat.colNum(), FREE);
+        }
+
+        private void set(int row, int col, byte state) {
+            int bit = bit(row, col);
+            long mask = 1L << bit;
+            booked[bit >>> 6] &= ~mask;
+            paid[bit >>> 6] &= ~mask;
+            if (state == BOOKED) booked[bit >>> 6] |= mask;
+            else if (state == PAID) paid[bit >>> 6] |= mask;
+        }
+
+        private int bit(int row, int col) {
+            if (row < 1 || row > rows || col < 1 || col > cols) {
+                throw new IllegalArgumentException("Seat outside hall layout: row=" + row + " col=" + col);
+            }
+            return (row - 1) * cols + (col - 1);
+        }
+    }
+}
@@ -51,6 +51,8 @@ public class ConsoleUI {
                     case "3" -> handleCreateBooking(scanner);
                     case "4" -> handlePay(scanner);
                     case "5" -> handleCancel(scanner);
+                    case "6" -> handleHold(scanner);
+                    case "7" -> handleCreateFromHold(scanner);
                     case "0" -> {
                         System.out.println("Bye.");
                         return;
@@ -72,6 +74,8 @@ public class ConsoleUI {
                 3) Create booking (seat check + pricing + points)
                 4) Pay booking (earn points)
                 5) Cancel booking (refund policy)
+                6) Hold seats (temporary reservation)
+                7) Create booking from hold
                 0) Exit
                 """);
     }
@@ -139,6 +143,34 @@ public class ConsoleUI {
         System.out.println("Total after points: " + result.totalAfterPoints());
     }
 
+    private void handleHold(Scanner scanner) {
+        System.out.print("screeningId: ");
+        long screeningId = Long.parseLong(scanner.nextLine().trim());
+
+        System.out.println("Seats format: row,col row,col ...  (example: 1,1 1,2 6,8)");
+        System.out.print("> ");
+        List<int[]> seats = parseSeats(scanner.nextLine().trim());
+
+        var hold = bookingController.hold(currentUser.id(), screeningId, seats);
+        System.out.println("Seats held: token=" + hold.token());
+        System.out.println("Expires at: " + hold.expiresAt());
+    }
+
+    private void handleCreateFromHold(Scanner scanner) {
+        System.out.print("hold token: ");
+        String token = scanner.nextLine().trim();
+
+        System.out.print("points to use (0 if none): ");
+        int pointsToUse = Integer.parseInt(scanner.nextLine().trim());
+
+        var result = bookingController.createFromHold(currentUser.id(), token, pointsToUse);
+
+        System.out.println("Booking created: id=" + result.bookingId());
+        System.out.println("Total before points: " + result.totalBeforePoints());
+        System.out.println("Used points: " + result.usedPoints());
+        System.out.println("Total after points: " + result.totalAfterPoints());
+    }
+
     private void handlePay(Scanner scanner) {
         System.out.print("bookingId: ");
         long bookingId = Long.parseLong(scanner.nextLine().trim());
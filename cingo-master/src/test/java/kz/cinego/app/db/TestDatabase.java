@@ -0,0 +1,21 @@
+package kz.cinego.app.db;
+
+import java.nio.file.Path;
+
+/**
+ * A migrated and seeded database in a fresh file. DbConfig is read once per
+ * JVM, so open it before anything touches Database; the build runs every
+ * test class in its own JVM.
+ */
+public final class TestDatabase {
+
+    private TestDatabase() {
+        throw new AssertionError("Cannot instantiate utility class");
+    }
+
+    public static void open(Path dir) {
+        System.setProperty("cinego.db.url", "jdbc:sqlite:" + dir.resolve("cinema.db"));
+        Database.init();
+        DbInit.init();
+    }
+}
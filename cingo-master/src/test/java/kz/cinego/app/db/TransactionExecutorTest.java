@@ -0,0 +1,157 @@
+package kz.cinego.app.db;
+
+import kz.cinego.app.metrics.Metrics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sqlite.SQLiteErrorCode;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionExecutorTest {
+
+    private static Path dir;
+
+    private final TransactionExecutor tx = new TransactionExecutor(2_000, 1, 20);
+
+    @BeforeAll
+    static void openDatabase(@TempDir Path tempDir) throws SQLException {
+        dir = tempDir;
+        System.setProperty("cinego.db.busyTimeoutMs", "20");
+        TestDatabase.open(dir);
+        try (Connection conn = Database.getWriteConnection(); Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE tx_probe(v INTEGER NOT NULL)");
+        }
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        Database.shutdown();
+    }
+
+    @Test
+    void committedWorkIsNotReplayedWhenAfterCommitFails() throws SQLException {
+        AtomicInteger runs = new AtomicInteger();
+        LongAdder failed = Metrics.counter("db.txn.afterCommitFailed");
+        long failedBefore = failed.sum();
+
+        String result = tx.write(conn -> {
+            runs.incrementAndGet();
+            insert(conn, 1);
+            return "committed";
+        }, (conn, r) -> {
+            throw busy();
+        });
+
+        assertEquals("committed", result);
+        assertEquals(1, runs.get());
+        assertEquals(1, count(1));
+        assertEquals(failedBefore + 1, failed.sum());
+    }
+
+    @Test
+    void busyWorkIsRolledBackAndReplayed() throws SQLException {
+        AtomicInteger runs = new AtomicInteger();
+        AtomicInteger afterCommits = new AtomicInteger();
+
+        String result = tx.write(conn -> {
+            insert(conn, 2);
+            if (runs.incrementAndGet() == 1) throw busy();
+            return "done";
+        }, (conn, r) -> afterCommits.incrementAndGet());
+
+        assertEquals("done", result);
+        assertEquals(2, runs.get());
+        assertEquals(1, afterCommits.get());
+        assertEquals(1, count(2));
+    }
+
+    @Test
+    void otherFailuresAreNotRetried() throws SQLException {
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> tx.write(conn -> {
+            runs.incrementAndGet();
+            insert(conn, 3);
+            throw new IllegalStateException("Only CREATED can be paid");
+        }));
+
+        assertEquals(1, runs.get());
+        assertEquals(0, count(3));
+    }
+
+    @Test
+    void givesUpAtTheDeadline() {
+        TransactionExecutor impatient = new TransactionExecutor(50, 5, 20);
+
+        SQLException e = assertThrows(SQLException.class, () -> impatient.write(conn -> {
+            throw busy();
+        }));
+
+        assertTrue(e.getMessage().startsWith("Database busy, gave up after"), e.getMessage());
+        assertTrue(TransactionExecutor.isBusy(e));
+    }
+
+    @Test
+    void waitsOutAnotherProcessHoldingTheWriteLock() throws Exception {
+        try (Connection other = DriverManager.getConnection("jdbc:sqlite:" + dir.resolve("cinema.db"))) {
+            try (Statement st = other.createStatement()) {
+                st.execute("BEGIN IMMEDIATE");
+            }
+            Thread release = new Thread(() -> {
+                try {
+                    Thread.sleep(200);
+                    try (Statement st = other.createStatement()) {
+                        st.execute("COMMIT");
+                    }
+                } catch (InterruptedException | SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            release.start();
+
+            tx.write(conn -> {
+                insert(conn, 4);
+                return null;
+            });
+            release.join();
+        }
+
+        assertEquals(1, count(4));
+    }
+
+    private static SQLException busy() {
+        return new SQLException("database is locked", null, SQLiteErrorCode.SQLITE_BUSY.code);
+    }
+
+    private static void insert(Connection conn, int v) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO tx_probe(v) VALUES(?)")) {
+            ps.setInt(1, v);
+            ps.executeUpdate();
+        }
+    }
+
+    private static int count(int v) throws SQLException {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*) FROM tx_probe WHERE v = ?")) {
+            ps.setInt(1, v);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+}
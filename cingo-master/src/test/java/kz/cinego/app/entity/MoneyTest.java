@@ -0,0 +1,60 @@
+package kz.cinego.app.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MoneyTest {
+
+    @Test
+    void mulDivHalfUpMatchesBigDecimal() {
+        long[] values = {0, 1, 5, 49, 50, 51, 99, 150, 250, 12_345, 842_400, -1, -5, -50, -150, -12_345};
+        long[][] rates = {{90, 100}, {50, 100}, {80, 100}, {1, 2}, {1, 3}, {2, 3}, {13, 10}, {6, 5}, {7, 8}};
+        for (long v : values) {
+            for (long[] r : rates) assertHalfUp(v, r[0], r[1]);
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long v = random.nextInt(20_000_001) - 10_000_000;
+            assertHalfUp(v, random.nextInt(1_000), 1 + random.nextInt(1_000));
+        }
+    }
+
+    // The refund rates BookingService.computeRefund applies, against the old total.multiply(rate).setScale(2, HALF_UP).
+    @Test
+    void refundMatchesTheBigDecimalFormula() {
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            long minor = random.nextInt(10_000_000);
+            BigDecimal total = BigDecimal.valueOf(minor, 2);
+            for (String rate : new String[]{"0.90", "0.50"}) {
+                long percent = new BigDecimal(rate).movePointRight(2).longValueExact();
+                BigDecimal expected = total.multiply(new BigDecimal(rate)).setScale(2, RoundingMode.HALF_UP);
+                assertEquals(expected.movePointRight(2).longValueExact(), Money.ofMinor(minor).times(percent, 100).minor(),
+                        total + " * " + rate);
+            }
+        }
+    }
+
+    @Test
+    void parseAndPrintRoundTrip() {
+        assertEquals(150_000, Money.parse("1500").minor());
+        assertEquals(150_050, Money.parse("1500.5").minor());
+        assertEquals("1500.50", Money.ofMinor(150_050).toString());
+        assertEquals("-0.05", Money.ofMinor(-5).toString());
+    }
+
+    private static void assertHalfUp(long value, long numerator, long denominator) {
+        long expected = BigDecimal.valueOf(value)
+                .multiply(BigDecimal.valueOf(numerator))
+                .divide(BigDecimal.valueOf(denominator), 0, RoundingMode.HALF_UP)
+                .longValueExact();
+        assertEquals(expected, Money.mulDivHalfUp(value, numerator, denominator),
+                value + " * " + numerator + " / " + denominator);
+    }
+}
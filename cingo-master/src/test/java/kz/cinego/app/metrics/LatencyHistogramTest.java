@@ -0,0 +1,54 @@
+package kz.cinego.app.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsCoverEveryValueInOrder() {
+        long[] values = {0, 1, 15, 16, 17, 31, 32, 1_000, 1_000_000, 123_456_789_000L, Long.MAX_VALUE};
+        for (long v : values) {
+            int bucket = LatencyHistogram.bucketOf(v);
+            long low = LatencyHistogram.lowerBound(bucket);
+            assertTrue(low <= v && v - low < LatencyHistogram.width(bucket), "value " + v);
+        }
+        for (long v = 1; v < 100_000; v++) {
+            assertTrue(LatencyHistogram.bucketOf(v) >= LatencyHistogram.bucketOf(v - 1), "value " + v);
+        }
+    }
+
+    @Test
+    void percentilesAreWithinASubBucket() {
+        LatencyHistogram h = new LatencyHistogram();
+        // 1..10,000 microseconds, uniform.
+        for (long us = 1; us <= 10_000; us++) h.record(us * 1_000);
+
+        LatencyHistogram.Snapshot s = h.snapshot();
+
+        assertEquals(10_000, s.count());
+        assertNear(5_000_000, s.p50Nanos());
+        assertNear(9_000_000, s.p90Nanos());
+        assertNear(9_900_000, s.p99Nanos());
+        assertEquals(10_000_000, s.maxNanos());
+    }
+
+    @Test
+    void percentilesNeverExceedTheMax() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 0; i < 100; i++) h.record(1_500_000);
+
+        LatencyHistogram.Snapshot s = h.snapshot();
+
+        assertNear(1_500_000, s.p50Nanos());
+        assertEquals(1_500_000, s.p99Nanos());
+        assertEquals(1_500_000, s.maxNanos());
+    }
+
+    // A sub-bucket is at most 1/16 of its value wide.
+    private static void assertNear(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 16, "expected ~" + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,139 @@
+package kz.cinego.app.repository;
+
+import kz.cinego.app.db.Database;
+import kz.cinego.app.db.TestDatabase;
+import kz.cinego.app.entity.LoyaltyEntry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LoyaltyLedgerRepositoryTest {
+
+    private final LoyaltyLedgerRepository repo = new LoyaltyLedgerRepository();
+
+    @BeforeAll
+    static void openDatabase(@TempDir Path dir) {
+        TestDatabase.open(dir);
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        Database.shutdown();
+    }
+
+    @Test
+    void openingEntryHasNoBooking() throws SQLException {
+        try (Connection conn = Database.getWriteConnection()) {
+            long userId = newUser(conn, 300);
+            // What the V7 backfill writes for a user who had points before the ledger.
+            try (Statement st = conn.createStatement()) {
+                st.execute("INSERT INTO loyalty_ledger(user_id, booking_id, kind, points, held, created_at)"
+                        + " VALUES(" + userId + ", NULL, 0, 300, 0, '2026-01-01T00:00')");
+            }
+            repo.append(conn, userId, 42, LoyaltyEntry.Kind.RESERVE, -100, 100);
+
+            List<LoyaltyEntry> entries = repo.findByUser(conn, userId, 10);
+
+            assertEquals(2, entries.size());
+            assertEquals(LoyaltyEntry.Kind.RESERVE, entries.get(0).kind());
+            assertEquals(42L, entries.get(0).bookingId());
+            assertEquals(LoyaltyEntry.Kind.OPENING, entries.get(1).kind());
+            assertNull(entries.get(1).bookingId());
+            assertEquals(300, entries.get(1).points());
+        }
+    }
+
+    @Test
+    void balanceAddsEntriesPastTheWatermark() throws SQLException {
+        try (Connection conn = Database.getWriteConnection()) {
+            long userId = newUser(conn, 100);
+            repo.append(conn, userId, 7, LoyaltyEntry.Kind.EARN, 50, 0);
+            long seq = repo.append(conn, userId, 8, LoyaltyEntry.Kind.RESERVE, -30, 30);
+
+            assertEquals(new LoyaltyLedgerRepository.Balance(userId, 120, seq), repo.balance(conn, userId));
+
+            repo.reconcile(conn, List.of(new LoyaltyLedgerRepository.Balance(userId, 120, seq)));
+            assertEquals(120, storedPoints(conn, userId));
+            assertEquals(new LoyaltyLedgerRepository.Balance(userId, 120, seq), repo.balance(conn, userId));
+
+            long next = repo.append(conn, userId, 9, LoyaltyEntry.Kind.EARN, 5, 0);
+            assertEquals(new LoyaltyLedgerRepository.Balance(userId, 125, next), repo.balance(conn, userId));
+        }
+    }
+
+    @Test
+    void reconcileNeverMovesTheWatermarkBack() throws SQLException {
+        try (Connection conn = Database.getWriteConnection()) {
+            long userId = newUser(conn, 0);
+            long first = repo.append(conn, userId, 7, LoyaltyEntry.Kind.EARN, 10, 0);
+            long second = repo.append(conn, userId, 7, LoyaltyEntry.Kind.EARN, 10, 0);
+
+            repo.reconcile(conn, List.of(new LoyaltyLedgerRepository.Balance(userId, 20, second)));
+            repo.reconcile(conn, List.of(new LoyaltyLedgerRepository.Balance(userId, 10, first)));
+
+            assertEquals(20, storedPoints(conn, userId));
+            assertEquals(new LoyaltyLedgerRepository.Balance(userId, 20, second), repo.balance(conn, userId));
+        }
+    }
+
+    @Test
+    void heldFollowsReserveAndCommit() throws SQLException {
+        try (Connection conn = Database.getWriteConnection()) {
+            long userId = newUser(conn, 100);
+            repo.append(conn, userId, 77, LoyaltyEntry.Kind.RESERVE, -40, 40);
+            assertEquals(40, repo.heldFor(conn, 77));
+
+            repo.append(conn, userId, 77, LoyaltyEntry.Kind.COMMIT, 0, -40);
+            assertEquals(0, repo.heldFor(conn, 77));
+        }
+    }
+
+    @Test
+    void ledgerQueriesUseTheirIndexes() throws SQLException {
+        try (Connection conn = Database.getConnection()) {
+            QueryPlanCheck.verify(conn);
+        }
+    }
+
+    @Test
+    void unknownUserHasNoBalance() throws SQLException {
+        try (Connection conn = Database.getConnection()) {
+            assertNull(repo.balance(conn, 999_999));
+        }
+    }
+
+    private static long newUser(Connection conn, int points) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO users(full_name, phone, role, loyalty_points) VALUES('Test User', '+7 700 000 00 01', 'CUSTOMER', ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            ps.setInt(1, points);
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                keys.next();
+                return keys.getLong(1);
+            }
+        }
+    }
+
+    private static long storedPoints(Connection conn, long userId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT loyalty_points FROM users WHERE id = ?")) {
+            ps.setLong(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+}
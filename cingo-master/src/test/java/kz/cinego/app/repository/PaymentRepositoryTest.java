@@ -0,0 +1,62 @@
+package kz.cinego.app.repository;
+
+import kz.cinego.app.db.Database;
+import kz.cinego.app.db.TestDatabase;
+import kz.cinego.app.entity.Money;
+import kz.cinego.app.entity.Payment;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PaymentRepositoryTest {
+
+    private final PaymentRepository repo = new PaymentRepository();
+
+    @BeforeAll
+    static void openDatabase(@TempDir Path dir) {
+        TestDatabase.open(dir);
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        Database.shutdown();
+    }
+
+    @Test
+    void readsBackAStoredAmount() throws SQLException {
+        try (Connection conn = Database.getWriteConnection()) {
+            repo.insert(conn, new Payment("pay-1", 7, Money.ofMinor(150_000), "SUCCEEDED", null, LocalDateTime.now()));
+
+            Payment stored = repo.findById(conn, "pay-1");
+            assertEquals(150_000, stored.amount().minor());
+            assertEquals(7, stored.bookingId());
+        }
+    }
+
+    @Test
+    void readsBackAMissingAmountAsNull() throws SQLException {
+        try (Connection conn = Database.getWriteConnection()) {
+            repo.insert(conn, new Payment("pay-2", 7, null, "REJECTED", "Booking not found: 7", LocalDateTime.now()));
+
+            Payment stored = repo.findById(conn, "pay-2");
+            assertNull(stored.amount());
+            assertEquals(7, stored.bookingId());
+        }
+    }
+
+    @Test
+    void unknownPaymentIsNull() throws SQLException {
+        try (Connection conn = Database.getConnection()) {
+            assertNull(repo.findById(conn, "missing"));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package kz.cinego.app.service;
+
+import kz.cinego.app.db.Database;
+import kz.cinego.app.db.TestDatabase;
+import kz.cinego.app.repository.LoyaltyLedgerRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoyaltyLedgerTest {
+
+    private final LoyaltyLedgerRepository repo = new LoyaltyLedgerRepository();
+    private final LoyaltyLedger ledger = new LoyaltyLedger(repo);
+
+    @BeforeAll
+    static void openDatabase(@TempDir Path dir) {
+        TestDatabase.open(dir);
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        Database.shutdown();
+    }
+
+    @Test
+    void reserveThenPayKeepsTheCacheInStepWithTheLedger() throws SQLException {
+        try (Connection conn = Database.getWriteConnection()) {
+            long userId = newUser(conn, 500);
+
+            ledger.apply(ledger.reserve(conn, userId, 1, 200));
+            assertEquals(300, ledger.available(conn, userId));
+
+            ledger.apply(ledger.commit(conn, userId, 1, 25));
+            assertEquals(325, ledger.available(conn, userId));
+            assertEquals(325, ledger.balance(userId));
+            assertEquals(325, repo.balance(conn, userId).points());
+        }
+    }
+
+    @Test
+    void releaseReturnsReservedPointsOnce() throws SQLException {
+        try (Connection conn = Database.getWriteConnection()) {
+            long userId = newUser(conn, 100);
+
+            ledger.apply(ledger.reserve(conn, userId, 2, 60));
+            ledger.apply(ledger.release(conn, userId, 2));
+            ledger.apply(ledger.release(conn, userId, 2));
+
+            assertEquals(100, ledger.available(conn, userId));
+            assertEquals(100, repo.balance(conn, userId).points());
+        }
+    }
+
+    @Test
+    void cannotReserveMoreThanAvailable() throws SQLException {
+        try (Connection conn = Database.getWriteConnection()) {
+            long userId = newUser(conn, 50);
+
+            assertThrows(IllegalStateException.class, () -> ledger.reserve(conn, userId, 3, 51));
+            assertEquals(50, ledger.available(conn, userId));
+        }
+    }
+
+    @Test
+    void reconcileWritesTheBalanceBack() throws SQLException {
+        long userId;
+        try (Connection conn = Database.getWriteConnection()) {
+            userId = newUser(conn, 10);
+            ledger.apply(ledger.commit(conn, userId, 4, 15));
+        }
+
+        ledger.reconcile();
+
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT loyalty_points FROM users WHERE id = ?")) {
+            ps.setLong(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                assertEquals(25, rs.getLong(1));
+            }
+            assertEquals(25, repo.balance(conn, userId).points());
+        }
+    }
+
+    private static long newUser(Connection conn, int points) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO users(full_name, phone, role, loyalty_points) VALUES('Test User', '+7 700 000 00 01', 'CUSTOMER', ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            ps.setInt(1, points);
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                keys.next();
+                return keys.getLong(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package kz.cinego.app.service;
+
+import kz.cinego.app.db.Database;
+import kz.cinego.app.db.TestDatabase;
+import kz.cinego.app.entity.Money;
+import kz.cinego.app.repository.BookingEventRepository;
+import kz.cinego.app.repository.BookingRepository;
+import kz.cinego.app.repository.HallRepository;
+import kz.cinego.app.repository.LoyaltyLedgerRepository;
+import kz.cinego.app.repository.PaymentRepository;
+import kz.cinego.app.repository.PricingRuleRepository;
+import kz.cinego.app.repository.ScreeningRepository;
+import kz.cinego.app.repository.SeatHoldRepository;
+import kz.cinego.app.repository.SeatRepository;
+import kz.cinego.app.repository.UserRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentServiceTest {
+
+    private static SeatHoldService holds;
+    private static BookingJournal journal;
+    private static LoyaltyLedger loyalty;
+    private static BookingService bookings;
+    private static PaymentService payments;
+
+    @BeforeAll
+    static void start(@TempDir Path dir) {
+        TestDatabase.open(dir);
+
+        SeatLayoutCache layouts = new SeatLayoutCache(new HallRepository(), new SeatRepository());
+        SeatOccupancyIndex occupancy = new SeatOccupancyIndex(new HallRepository(), new SeatRepository());
+        PricingEngine pricing = new PricingEngine(layouts, new PricingRuleRepository());
+        pricing.load();
+        holds = new SeatHoldService(new ScreeningRepository(), layouts, occupancy, new SeatHoldRepository());
+        journal = new BookingJournal(new BookingEventRepository());
+        loyalty = new LoyaltyLedger(new LoyaltyLedgerRepository());
+        bookings = new BookingService(
+                new ScreeningRepository(), new SeatRepository(), new BookingRepository(), new UserRepository(),
+                new PricingService(), pricing, occupancy, holds, journal, loyalty
+        );
+        payments = new PaymentService(bookings, new BookingRepository(), new PaymentRepository());
+        payments.start();
+    }
+
+    @AfterAll
+    static void stop() {
+        payments.close();
+        holds.close();
+        loyalty.close();
+        journal.close();
+        Database.shutdown();
+    }
+
+    @Test
+    void repeatedCallbackGetsTheStoredOutcome() {
+        long bookingId = book(1, 1);
+
+        PaymentService.PaymentResult first = payments.confirm("cb-1", bookingId, null);
+        PaymentService.PaymentResult again = payments.confirm("cb-1", bookingId, null);
+
+        assertFalse(first.replayed());
+        assertEquals(PaymentService.SUCCEEDED, first.payment().status());
+        assertEquals("PAID", first.booking().status());
+        assertTrue(again.replayed());
+        assertEquals(first.payment(), again.payment());
+        assertEquals("PAID", again.booking().status());
+    }
+
+    @Test
+    void rejectionWithoutAmountReplaysWithoutAmount() {
+        long bookingId = book(1, 2);
+        payments.confirm("cb-2", bookingId, null);
+
+        PaymentService.PaymentResult rejected = payments.confirm("cb-3", bookingId, null);
+        PaymentService.PaymentResult again = payments.confirm("cb-3", bookingId, null);
+
+        assertEquals(PaymentService.REJECTED, rejected.payment().status());
+        assertNull(rejected.payment().amount());
+        assertTrue(again.replayed());
+        assertEquals(rejected.payment(), again.payment());
+    }
+
+    @Test
+    void amountMismatchIsRejectedAndStored() {
+        long bookingId = book(1, 3);
+
+        PaymentService.PaymentResult rejected = payments.confirm("cb-4", bookingId, Money.ofMinor(1));
+
+        assertEquals(PaymentService.REJECTED, rejected.payment().status());
+        assertEquals(1, rejected.payment().amount().minor());
+        assertEquals("CREATED", rejected.booking().status());
+        assertEquals(rejected.payment(), payments.find("cb-4"));
+    }
+
+    @Test
+    void paymentIdCannotBeReusedForAnotherBooking() {
+        long bookingId = book(1, 4);
+        long other = book(1, 5);
+        payments.confirm("cb-5", bookingId, null);
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> payments.confirm("cb-5", other, null));
+        assertTrue(e.getMessage().contains("already used for another booking"), e.getMessage());
+    }
+
+    private static long book(int row, int col) {
+        return bookings.createBooking(1, 1, List.of(new int[]{row, col}), 0).bookingId();
+    }
+}
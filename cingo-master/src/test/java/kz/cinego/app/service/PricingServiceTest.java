@@ -0,0 +1,45 @@
+package kz.cinego.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PricingServiceTest {
+
+    private final PricingService pricing = new PricingService();
+
+    @Test
+    void pointsDiscountMatchesTheBigDecimalFormula() {
+        assertDiscount(842_400, 1_200, 2_000);
+        assertDiscount(842_400, 50_000, 50_000);
+        assertDiscount(12_345, 10, 10);
+        assertDiscount(12_345, 100, 100);
+        assertDiscount(1, 1, 1);
+        assertDiscount(0, 10, 10);
+        assertDiscount(150_000, 0, 10);
+        assertDiscount(150_000, 10, 0);
+
+        Random random = new Random(11);
+        for (int i = 0; i < 100_000; i++) {
+            assertDiscount(random.nextInt(5_000_000), random.nextInt(20_000), random.nextInt(20_000));
+        }
+    }
+
+    // The pre-tiyn formula: total - min(points, 20% of total), floored at zero, stored rounded to the tiyn.
+    private void assertDiscount(long totalMinor, int available, int toUse) {
+        BigDecimal total = BigDecimal.valueOf(totalMinor, 2);
+        BigDecimal expected = total;
+        if (toUse > 0) {
+            BigDecimal discount = BigDecimal.valueOf(Math.min(toUse, available)).min(total.multiply(new BigDecimal("0.20")));
+            expected = total.subtract(discount).max(BigDecimal.ZERO);
+        }
+        long expectedMinor = expected.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+
+        assertEquals(expectedMinor, pricing.applyPointsDiscount(totalMinor, available, toUse),
+                total + " with " + toUse + " of " + available + " points");
+    }
+}
@@ -0,0 +1,68 @@
+package kz.cinego.app.service;
+
+import kz.cinego.app.db.Database;
+import kz.cinego.app.db.TestDatabase;
+import kz.cinego.app.entity.BookingEvent;
+import kz.cinego.app.entity.Money;
+import kz.cinego.app.repository.BookingEventRepository;
+import kz.cinego.app.repository.ScreeningRepository;
+import kz.cinego.app.repository.SeatRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SalesAnalyticsTest {
+
+    @BeforeAll
+    static void openDatabase(@TempDir Path dir) {
+        System.setProperty("cinego.db.readPoolSize", "2");
+        System.setProperty("cinego.db.poolTimeoutMs", "200");
+        TestDatabase.open(dir);
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        Database.shutdown();
+    }
+
+    @Test
+    void publishNeedsNoReaderConnection() throws SQLException {
+        SalesAnalytics analytics = new SalesAnalytics(
+                new BookingEventRepository(), new ScreeningRepository(), new SeatRepository()
+        );
+        BookingJournal journal = new BookingJournal(new BookingEventRepository());
+        journal.register(analytics);
+
+        // Seats 41..48 are the VIP rows of the seeded hall.
+        BookingEvent paid = new BookingEvent.BookingPaid(
+                0, 1, 1, 1, new long[]{1, 41}, Money.ofMinor(300_000), 0, LocalDateTime.now()
+        );
+        List<Connection> readers = new ArrayList<>();
+        try (Connection writer = Database.getWriteConnection()) {
+            paid = journal.append(writer, paid);
+
+            // Every reader busy, as during a recompute.
+            for (int i = 0; i < 2; i++) readers.add(Database.getConnection());
+            try {
+                journal.publish(paid);
+            } finally {
+                for (Connection reader : readers) reader.close();
+            }
+        }
+
+        SalesAnalytics.ScreeningReport report = analytics.screening(1);
+        assertEquals(2, report.paidSeats());
+        assertEquals(0.5, report.vipShare());
+        assertEquals(300_000, report.revenue().minor());
+    }
+}